@@ -0,0 +1,52 @@
+package com.siyam.travelschedulemanager.algorithm;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps normalised city names to dense int ids (0, 1, 2, ...).
+ * Names are normalised once here, so search loops only compare ints.
+ */
+public class CityInterner {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * Get the id for a city, assigning the next free id if it is new
+     */
+    public int intern(String city) {
+        String key = normalize(city);
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = names.size();
+            ids.put(key, id);
+            names.add(key);
+        }
+        return id;
+    }
+
+    /**
+     * Get the id for a city, or -1 if it was never interned
+     */
+    public int idOf(String city) {
+        Integer id = ids.get(normalize(city));
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Get the normalised name for an id
+     */
+    public String nameOf(int id) {
+        return names.get(id);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public static String normalize(String city) {
+        return city == null ? "" : city.toLowerCase().trim();
+    }
+}
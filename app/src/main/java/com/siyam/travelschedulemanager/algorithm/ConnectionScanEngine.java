@@ -0,0 +1,477 @@
+package com.siyam.travelschedulemanager.algorithm;
+
+import com.siyam.travelschedulemanager.data.remote.dto.TrainScheduleDTO;
+import com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO;
+import com.siyam.travelschedulemanager.util.ServiceCalendar;
+import com.siyam.travelschedulemanager.util.TimeCodec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Earliest-arrival router using the Connection Scan Algorithm.
+ *
+ * Every hop of every trip in the TripTable, from one pattern stop to the next,
+ * is a connection. The connections are sorted by the minute of day they leave
+ * at once, when the engine is built. A query then scans them in that order,
+ * day after day from the travel date, in a single pass: a trip is boarded the
+ * first time one of its connections can be caught, and stays boarded for the
+ * rest of the scan, so every later stop of it is reached without a transfer.
+ * The first connection into the destination gives the earliest arrival, and
+ * the scan stops as soon as nothing leaving later can beat it.
+ *
+ * The transfer window is honoured during the scan. An arrival only becomes
+ * usable MIN_TRANSFER_MINUTES after it happens, and each city keeps its latest
+ * usable arrival for every number of legs so far. A connection can be caught
+ * from there if that arrival is at most MAX_TRANSFER_MINUTES earlier; the one
+ * with the fewest legs is taken, keeping the most transfers for later.
+ *
+ * An arrive-by search scans the connections the other way, latest arrival
+ * first, and finds the latest departure that still arrives in time.
+ *
+ * Each query returns at most one journey: the earliest to arrive (the latest
+ * to leave, for arrive-by) among those with at most maxLegs legs. ParetoRouter
+ * answers the same queries with every cheapest, earliest and fewest-changes
+ * journey, which takes longer.
+ */
+public class ConnectionScanEngine implements RouteEngine {
+    private static final int NONE = -1;
+
+    private final CityInterner cities;
+    private final TripTable trips;
+    private final Connections forward;
+    private final Connections backward;
+    private final BitSet departureCities = new BitSet();
+
+    public ConnectionScanEngine(List<UnifiedScheduleDTO> allSchedules) {
+        this(allSchedules, null);
+    }
+
+    /**
+     * @param trains train schedules with stop lists, used to board and alight
+     *               trains at intermediate stations; may be null
+     */
+    public ConnectionScanEngine(List<UnifiedScheduleDTO> allSchedules, List<TrainScheduleDTO> trains) {
+        this(new CityInterner(), allSchedules, trains);
+    }
+
+    private ConnectionScanEngine(CityInterner cities, List<UnifiedScheduleDTO> allSchedules,
+                                 List<TrainScheduleDTO> trains) {
+        this(TripTable.build(allSchedules, trains, cities), cities);
+    }
+
+    /**
+     * @param trips a table built with these cities; may be shared with other engines
+     */
+    public ConnectionScanEngine(TripTable trips, CityInterner cities) {
+        this.cities = cities;
+        this.trips = trips;
+        forward = new Connections(trips, true);
+        backward = new Connections(trips, false);
+        for (int stop = 0; stop < trips.getStopCount(); stop++) {
+            int pattern = trips.stopPattern[stop];
+            if (stop < trips.patternStopStart[pattern + 1] - 1
+                    && trips.patternTripStart[pattern + 1] > trips.patternTripStart[pattern]) {
+                departureCities.set(trips.stopCity[stop]);
+            }
+        }
+    }
+
+    /**
+     * Every connection of the table in scan order. A connection is the hop
+     * between two consecutive stops of one trip; for a backward scan it runs
+     * from the later stop to the earlier one. Times are in scan minutes: real
+     * minutes from midnight of the day the trip leaves its origin, negated for
+     * a backward scan, so both scans go from small to large.
+     */
+    private static class Connections {
+        final TripTable trips;
+        final boolean forward;
+        final int[] trip;
+        // Pattern stop the connection leaves in scan order; it reaches the next (or previous) one
+        final int[] stop;
+        final int minStart;
+        final int maxStart;
+
+        Connections(TripTable trips, boolean forward) {
+            this.trips = trips;
+            this.forward = forward;
+            int count = 0;
+            for (int p = 0; p < trips.getPatternCount(); p++) {
+                int hops = trips.patternStopStart[p + 1] - trips.patternStopStart[p] - 1;
+                count += hops * (trips.patternTripStart[p + 1] - trips.patternTripStart[p]);
+            }
+
+            // Sort key: start time, then build order, which keeps each trip's hops in scan order
+            long[] keys = new long[count];
+            int[] tripOf = new int[count];
+            int[] stopOf = new int[count];
+            int i = 0;
+            for (int p = 0; p < trips.getPatternCount(); p++) {
+                int first = trips.patternStopStart[p];
+                int last = trips.patternStopStart[p + 1] - 1;
+                for (int t = trips.patternTripStart[p]; t < trips.patternTripStart[p + 1]; t++) {
+                    for (int k = 0; k < last - first; k++, i++) {
+                        tripOf[i] = t;
+                        stopOf[i] = forward ? first + k : last - k;
+                        keys[i] = ((long) start(t, stopOf[i]) << 32) | i;
+                    }
+                }
+            }
+            Arrays.sort(keys);
+
+            trip = new int[count];
+            stop = new int[count];
+            for (int j = 0; j < count; j++) {
+                int hop = (int) keys[j];
+                trip[j] = tripOf[hop];
+                stop[j] = stopOf[hop];
+            }
+            minStart = count == 0 ? 0 : (int) (keys[0] >> 32);
+            maxStart = count == 0 ? -1 : (int) (keys[count - 1] >> 32);
+        }
+
+        int next(int stop) {
+            return forward ? stop + 1 : stop - 1;
+        }
+
+        int start(int trip, int stop) {
+            return forward
+                    ? trips.tripDeparture[trip] + trips.departureOffset[stop]
+                    : -(trips.tripDeparture[trip] + trips.arrivalOffset[stop]);
+        }
+
+        int end(int trip, int stop) {
+            int to = next(stop);
+            return forward
+                    ? trips.tripDeparture[trip] + trips.arrivalOffset[to]
+                    : -(trips.tripDeparture[trip] + trips.departureOffset[to]);
+        }
+
+        // First connection leaving at or after this scan minute
+        int firstFrom(int minute) {
+            int low = 0;
+            int high = trip.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (start(trip[mid], stop[mid]) < minute) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    @Override
+    public List<List<UnifiedScheduleDTO>> findRoutes(String source, String destination, int maxLegs) {
+        List<List<UnifiedScheduleDTO>> routes = new ArrayList<>();
+        for (Itinerary itinerary : findItineraries(source, destination, maxLegs, ServiceCalendar.ANY_DAY, 0, null)) {
+            routes.add(itinerary.getLegs());
+        }
+        return routes;
+    }
+
+    /**
+     * The journey arriving first, as a list of at most one. Has no rounds, so
+     * the listener is never called.
+     */
+    @Override
+    public List<Itinerary> findItineraries(String source, String destination, int maxLegs, int weekday,
+                                           int departAfter, RoundListener listener) {
+        return scan(forward, cities.idOf(source), cities.idOf(destination), maxLegs, weekday, departAfter);
+    }
+
+    /**
+     * The journey leaving last that still arrives by the deadline, as a list of
+     * at most one. Has no rounds, so the listener is never called.
+     */
+    @Override
+    public List<Itinerary> findArrivingItineraries(String source, String destination, int maxLegs, int weekday,
+                                                   int arriveBy, RoundListener listener) {
+        return scan(backward, cities.idOf(destination), cities.idOf(source), maxLegs, weekday, -arriveBy);
+    }
+
+    /**
+     * One pass over the connections from the scan start, in scan minutes. Day
+     * copies of the sorted connections are merged on the fly: copy k is the
+     * timetable shifted by k days in scan order.
+     */
+    private List<Itinerary> scan(Connections connections, int from, int to, int maxLegs, int weekday, int begin) {
+        if (from < 0 || to < 0 || from == to || maxLegs < 1 || connections.trip.length == 0) {
+            return new ArrayList<>();
+        }
+        int horizon = begin + MAX_JOURNEY_MINUTES;
+        int firstCopy = Math.floorDiv(begin - connections.maxStart + TimeCodec.MINUTES_PER_DAY - 1,
+                TimeCodec.MINUTES_PER_DAY);
+        int lastCopy = Math.floorDiv(horizon - connections.minStart, TimeCodec.MINUTES_PER_DAY);
+        if (lastCopy < firstCopy) {
+            return new ArrayList<>();
+        }
+        int copies = lastCopy - firstCopy + 1;
+        int[] cursor = new int[copies];
+        for (int c = 0; c < copies; c++) {
+            cursor[c] = connections.firstFrom(begin - (firstCopy + c) * TimeCodec.MINUTES_PER_DAY);
+        }
+
+        Scan scan = new Scan(maxLegs, copies, trips.getTripCount());
+        int best = NONE;
+        int bestEnd = Integer.MAX_VALUE;
+        int scanned = 0;
+        while (true) {
+            // Next connection across all copies
+            int copy = NONE;
+            int start = Integer.MAX_VALUE;
+            for (int c = 0; c < copies; c++) {
+                if (cursor[c] < connections.trip.length) {
+                    int at = connections.start(connections.trip[cursor[c]], connections.stop[cursor[c]])
+                            + (firstCopy + c) * TimeCodec.MINUTES_PER_DAY;
+                    if (at < start) {
+                        start = at;
+                        copy = c;
+                    }
+                }
+            }
+            // Nothing leaving later can arrive earlier than the best so far
+            if (copy == NONE || start > horizon || start >= bestEnd) break;
+            if ((++scanned & 1023) == 0) checkCancelled();
+
+            int hop = cursor[copy]++;
+            int trip = connections.trip[hop];
+            int stop = connections.stop[hop];
+            int shift = (firstCopy + copy) * TimeCodec.MINUTES_PER_DAY;
+            scan.releaseUntil(start);
+
+            // Board here if the trip runs that day and this beats how it was boarded so far
+            int ridden = scan.boardedFrom(copy, trip);
+            if (ridden == NONE || scan.legsOnBoard(copy, trip) > 1) {
+                int city = trips.stopCity[stop];
+                int day = connections.forward ? firstCopy + copy : -(firstCopy + copy);
+                if (trips.runsOn(trip, ServiceCalendar.dayBit(weekday, day))) {
+                    if (city == from) {
+                        scan.board(copy, trip, stop, Scan.SOURCE);
+                    } else {
+                        // Boarding again only helps with fewer legs than the trip already has
+                        int arrival = scan.latestUsable(city, start - MAX_TRANSFER_MINUTES,
+                                ridden == NONE ? maxLegs - 1 : scan.legsOnBoard(copy, trip) - 2);
+                        if (arrival != NONE) {
+                            scan.board(copy, trip, stop, arrival);
+                        }
+                    }
+                }
+            }
+            if (scan.boardedFrom(copy, trip) == NONE) continue;
+
+            int reach = connections.next(stop);
+            int city = trips.stopCity[reach];
+            int end = connections.end(trip, stop) + shift;
+            if (end > horizon || city == from) continue;
+            int legs = scan.legsOnBoard(copy, trip);
+            if (city == to) {
+                if (end < bestEnd) {
+                    bestEnd = end;
+                    best = scan.arrive(copy, trip, reach, city, end, legs, connections.forward ? shift : -shift);
+                }
+            } else if (legs < maxLegs) {
+                scan.arrive(copy, trip, reach, city, end, legs, connections.forward ? shift : -shift);
+            }
+        }
+        if (best == NONE) {
+            return new ArrayList<>();
+        }
+        return Collections.singletonList(scan.toItinerary(best, connections.forward));
+    }
+
+    /**
+     * State of one scan: which trips are boarded, and the arrivals so far
+     */
+    private class Scan {
+        static final int SOURCE = -2;
+
+        final int maxLegs;
+        final int tripCount;
+        // Per day copy, allocated when a trip of it is first boarded: pattern stop + 1
+        // where each trip was boarded (0 if not), and the arrival it was boarded from
+        final int[][] boardStop;
+        final int[][] boardParent;
+
+        // Arrivals: where and when, which trip got there and from where, and the arrival before
+        int arrivals;
+        int[] arrivalCity = new int[64];
+        int[] arrivalTime = new int[64];
+        int[] arrivalTrip = new int[64];
+        int[] arrivalBoard = new int[64];
+        int[] arrivalAlight = new int[64];
+        int[] arrivalDayShift = new int[64];
+        int[] arrivalLegs = new int[64];
+        int[] arrivalParent = new int[64];
+
+        // Arrivals not yet usable, by the scan minute they become usable at
+        final PriorityQueue<long[]> pending = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        // Latest usable arrival in each city, per legs so far: usable[city * (maxLegs + 1) + legs]
+        final int[] usable;
+
+        Scan(int maxLegs, int copies, int tripCount) {
+            this.maxLegs = maxLegs;
+            this.tripCount = tripCount;
+            boardStop = new int[copies][];
+            boardParent = new int[copies][];
+            usable = new int[cities.size() * (maxLegs + 1)];
+            Arrays.fill(usable, NONE);
+        }
+
+        int boardedFrom(int copy, int trip) {
+            int[] stops = boardStop[copy];
+            return stops == null || stops[trip] == 0 ? NONE : boardParent[copy][trip];
+        }
+
+        int legsOnBoard(int copy, int trip) {
+            int parent = boardParent[copy][trip];
+            return parent == SOURCE ? 1 : arrivalLegs[parent] + 1;
+        }
+
+        void board(int copy, int trip, int stop, int parent) {
+            if (boardStop[copy] == null) {
+                boardStop[copy] = new int[tripCount];
+                boardParent[copy] = new int[tripCount];
+            }
+            boardStop[copy][trip] = stop + 1;
+            boardParent[copy][trip] = parent;
+        }
+
+        int arrive(int copy, int trip, int stop, int city, int time, int legs, int dayShift) {
+            if (arrivals == arrivalCity.length) {
+                int size = arrivals * 2;
+                arrivalCity = Arrays.copyOf(arrivalCity, size);
+                arrivalTime = Arrays.copyOf(arrivalTime, size);
+                arrivalTrip = Arrays.copyOf(arrivalTrip, size);
+                arrivalBoard = Arrays.copyOf(arrivalBoard, size);
+                arrivalAlight = Arrays.copyOf(arrivalAlight, size);
+                arrivalDayShift = Arrays.copyOf(arrivalDayShift, size);
+                arrivalLegs = Arrays.copyOf(arrivalLegs, size);
+                arrivalParent = Arrays.copyOf(arrivalParent, size);
+            }
+            int id = arrivals++;
+            arrivalCity[id] = city;
+            arrivalTime[id] = time;
+            arrivalTrip[id] = trip;
+            arrivalBoard[id] = boardStop[copy][trip] - 1;
+            arrivalAlight[id] = stop;
+            arrivalDayShift[id] = dayShift;
+            arrivalLegs[id] = legs;
+            arrivalParent[id] = boardParent[copy][trip];
+            if (legs < maxLegs) {
+                pending.add(new long[]{(long) time + MIN_TRANSFER_MINUTES, id});
+            }
+            return id;
+        }
+
+        // Arrivals usable by this scan minute replace older ones; they come out latest last
+        void releaseUntil(int minute) {
+            while (!pending.isEmpty() && pending.peek()[0] <= minute) {
+                int id = (int) pending.poll()[1];
+                usable[arrivalCity[id] * (maxLegs + 1) + arrivalLegs[id]] = id;
+            }
+        }
+
+        // Usable arrival in the city no earlier than notBefore, with the fewest legs up to mostLegs
+        int latestUsable(int city, int notBefore, int mostLegs) {
+            for (int legs = 1; legs <= mostLegs; legs++) {
+                int id = usable[city * (maxLegs + 1) + legs];
+                if (id != NONE && arrivalTime[id] >= notBefore) {
+                    return id;
+                }
+            }
+            return NONE;
+        }
+
+        Itinerary toItinerary(int last, boolean forward) {
+            List<Integer> chain = new ArrayList<>();
+            for (int id = last; id != SOURCE; id = arrivalParent[id]) {
+                chain.add(id);
+            }
+            // Going forward the chain runs from the last leg back; backward it is already in order
+            if (forward) {
+                Collections.reverse(chain);
+            }
+            int count = chain.size();
+            UnifiedScheduleDTO[] legs = new UnifiedScheduleDTO[count];
+            int[] legDepartures = new int[count];
+            int[] legArrivals = new int[count];
+            double fare = 0;
+            for (int i = 0; i < count; i++) {
+                int id = chain.get(i);
+                int trip = arrivalTrip[id];
+                int board = forward ? arrivalBoard[id] : arrivalAlight[id];
+                int alight = forward ? arrivalAlight[id] : arrivalBoard[id];
+                int leave = arrivalDayShift[id] + trips.tripDeparture[trip];
+                legs[i] = trips.segment(trip, board, alight);
+                legDepartures[i] = leave + trips.departureOffset[board];
+                legArrivals[i] = leave + trips.arrivalOffset[alight];
+                fare += trips.fare[alight] - trips.fare[board];
+            }
+            return new Itinerary(Arrays.asList(legs), legDepartures, legArrivals, fare);
+        }
+    }
+
+    private static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Route search cancelled");
+        }
+    }
+
+    @Override
+    public boolean hasDeparturesFrom(String city) {
+        int id = cities.idOf(city);
+        return id >= 0 && departureCities.get(id);
+    }
+
+    @Override
+    public boolean servesCity(String city) {
+        return cities.idOf(city) >= 0;
+    }
+
+    @Override
+    public List<UnifiedScheduleDTO> findDirect(String source, String destination) {
+        List<UnifiedScheduleDTO> direct = new ArrayList<>();
+        int src = cities.idOf(source);
+        int dst = cities.idOf(destination);
+        if (src < 0 || dst < 0) {
+            return direct;
+        }
+        for (int board = 0; board < trips.getStopCount(); board++) {
+            if (trips.stopCity[board] != src) continue;
+            int pattern = trips.stopPattern[board];
+            int end = trips.patternStopStart[pattern + 1];
+            for (int alight = board + 1; alight < end; alight++) {
+                if (trips.stopCity[alight] == dst) {
+                    for (int trip = trips.patternTripStart[pattern]; trip < trips.patternTripStart[pattern + 1]; trip++) {
+                        direct.add(trips.segment(trip, board, alight));
+                    }
+                    break;
+                }
+            }
+        }
+        return direct;
+    }
+
+    @Override
+    public List<String> getDepartureCities() {
+        List<String> names = new ArrayList<>();
+        for (int c = departureCities.nextSetBit(0); c >= 0; c = departureCities.nextSetBit(c + 1)) {
+            names.add(cities.nameOf(c));
+        }
+        return names;
+    }
+
+    @Override
+    public String toString() {
+        return trips + ", " + forward.trip.length + " connections";
+    }
+}
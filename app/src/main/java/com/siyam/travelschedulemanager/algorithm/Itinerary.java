@@ -0,0 +1,105 @@
+package com.siyam.travelschedulemanager.algorithm;
+
+import com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO;
+import com.siyam.travelschedulemanager.util.TimeCodec;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A complete journey found by a route engine, with its totals precomputed.
+ * Times are absolute minutes from midnight of the travel date, so anything on
+ * the next day is 1440 or more; each leg keeps its own departure and arrival,
+ * from which the day it runs on follows.
+ *
+ * Two itineraries are equal when they ride the same trips between the same
+ * stops at the same times for the same fare, so the same journey found by
+ * another search, or on a rebuilt graph, is recognised as the same.
+ */
+public class Itinerary {
+    public static final Comparator<Itinerary> BY_FARE = (a, b) -> {
+        int byFare = Double.compare(a.fare, b.fare);
+        return byFare != 0 ? byFare : Integer.compare(a.getTravelMinutes(), b.getTravelMinutes());
+    };
+
+    public static final Comparator<Itinerary> BY_TRAVEL_TIME = (a, b) -> {
+        int byTime = Integer.compare(a.getTravelMinutes(), b.getTravelMinutes());
+        return byTime != 0 ? byTime : Double.compare(a.fare, b.fare);
+    };
+
+    public static final Comparator<Itinerary> BY_LEGS = (a, b) -> {
+        int byLegs = Integer.compare(a.getLegCount(), b.getLegCount());
+        return byLegs != 0 ? byLegs : BY_TRAVEL_TIME.compare(a, b);
+    };
+
+    private final List<UnifiedScheduleDTO> legs;
+    private final int[] legDepartures;
+    private final int[] legArrivals;
+    private final double fare;
+
+    /**
+     * @param legDepartures absolute departure of each leg
+     * @param legArrivals absolute arrival of each leg
+     */
+    public Itinerary(List<UnifiedScheduleDTO> legs, int[] legDepartures, int[] legArrivals, double fare) {
+        this.legs = Collections.unmodifiableList(legs);
+        this.legDepartures = legDepartures;
+        this.legArrivals = legArrivals;
+        this.fare = fare;
+    }
+
+    public List<UnifiedScheduleDTO> getLegs() { return legs; }
+    public double getFare() { return fare; }
+
+    public int getDepartureMinute() {
+        return legDepartures.length == 0 ? 0 : legDepartures[0];
+    }
+
+    public int getArrivalMinute() {
+        return legArrivals.length == 0 ? 0 : legArrivals[legArrivals.length - 1];
+    }
+
+    public int getLegDepartureMinute(int leg) { return legDepartures[leg]; }
+    public int getLegArrivalMinute(int leg) { return legArrivals[leg]; }
+
+    /**
+     * Days after the travel date a leg leaves on; 0 for the travel date itself
+     */
+    public int getLegDayOffset(int leg) {
+        return Math.floorDiv(legDepartures[leg], TimeCodec.MINUTES_PER_DAY);
+    }
+
+    /**
+     * Days after the travel date a leg arrives on
+     */
+    public int getLegArrivalDayOffset(int leg) {
+        return Math.floorDiv(legArrivals[leg], TimeCodec.MINUTES_PER_DAY);
+    }
+
+    public int getLegCount() {
+        return legs.size();
+    }
+
+    // Total time from first departure to final arrival, including transfers
+    public int getTravelMinutes() {
+        return getArrivalMinute() - getDepartureMinute();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Itinerary)) return false;
+        Itinerary that = (Itinerary) o;
+        return Double.compare(that.fare, fare) == 0
+                && Arrays.equals(legDepartures, that.legDepartures)
+                && Arrays.equals(legArrivals, that.legArrivals)
+                && legs.equals(that.legs);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(legDepartures) + Arrays.hashCode(legArrivals)) + legs.hashCode();
+    }
+}
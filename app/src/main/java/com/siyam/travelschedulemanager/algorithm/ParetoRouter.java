@@ -0,0 +1,737 @@
+package com.siyam.travelschedulemanager.algorithm;
+
+import com.siyam.travelschedulemanager.data.remote.dto.TrainScheduleDTO;
+import com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO;
+import com.siyam.travelschedulemanager.util.ServiceCalendar;
+import com.siyam.travelschedulemanager.util.TimeCodec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Round-based multi-criteria router in the style of RAPTOR.
+ *
+ * Round k extends the labels created in round k-1 by one more leg, so after
+ * round k every city holds the journeys using at most k legs. Each city keeps
+ * only its Pareto-optimal labels (later departure from the source, earlier
+ * arrival, lower fare, fewer legs); a dominated label is dropped as soon as it
+ * appears, and memory stays bounded by the size of the frontier.
+ *
+ * The destination keeps its own Pareto set over arrival time, fare and legs
+ * (departure time, fare and legs for an arrive-by search), which is what gets
+ * returned: the cheapest, the earliest and the fewest-changes journeys all come
+ * out of the same pass.
+ *
+ * Legs ride trips from the TripTable. Boarding a trip reaches every later stop
+ * of it in the same round, so a train can be left at an intermediate station
+ * and staying on board is never a transfer. After a transfer only the first
+ * catchable trip of each pattern is boarded: later trips of the same pattern
+ * cost the same and arrive later.
+ *
+ * Every time is in absolute minutes from midnight of the travel date, so a
+ * journey may run over several days: a night train can connect to a morning
+ * bus, and each leg knows which day it runs on. Labels arriving later than
+ * MAX_JOURNEY_MINUTES after the start of the search are pruned.
+ *
+ * An arrive-by search runs the same rounds backwards: its labels grow from the
+ * destination, each round adding the leg before, and each transfer takes the
+ * last trip that still makes the connection.
+ *
+ * Both directions are bidirectional: before the rounds start, a sweep from the
+ * far end counts the fewest legs between every city and that end, ignoring
+ * times. The rounds then never extend a label from a city that cannot meet the
+ * other side within the legs left, and a query whose ends cannot meet at all
+ * returns without any rounds.
+ *
+ * A transfer may wait at most MAX_TRANSFER_MINUTES, so arriving earlier is not
+ * always better: the later label may still make a connection the earlier one
+ * would wait too long for. Each city therefore keeps the minutes of day at which
+ * trips leave it (and arrive in it, for arrive-by), and a label only dominates
+ * another if no trip falls in the part of the other's transfer window that its
+ * own window misses.
+ */
+public class ParetoRouter implements RouteEngine {
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final CityInterner cities;
+    private final TripTable trips;
+
+    // Pattern stops a trip can be boarded at, per city: boardings[boardOffsets[c] .. boardOffsets[c + 1])
+    private final int[] boardOffsets;
+    private final int[] boardings;
+    // Pattern stops a trip can be left at, per city, laid out the same way
+    private final int[] alightOffsets;
+    private final int[] alightings;
+    // Minute of day each trip leaves a city at, sorted per city:
+    // departureMinutes[departureStart[c] .. departureStart[c + 1])
+    private final int[] departureStart;
+    private final short[] departureMinutes;
+    // Minute of day each trip arrives in a city at, laid out the same way
+    private final int[] arrivalStart;
+    private final short[] arrivalMinutes;
+
+    public ParetoRouter(List<UnifiedScheduleDTO> allSchedules) {
+        this(allSchedules, null);
+    }
+
+    /**
+     * @param trains train schedules with stop lists, used to board and alight
+     *               trains at intermediate stations; may be null
+     */
+    public ParetoRouter(List<UnifiedScheduleDTO> allSchedules, List<TrainScheduleDTO> trains) {
+        this(new CityInterner(), allSchedules, trains);
+    }
+
+    private ParetoRouter(CityInterner cities, List<UnifiedScheduleDTO> allSchedules, List<TrainScheduleDTO> trains) {
+        this(TripTable.build(allSchedules, trains, cities), cities);
+    }
+
+    /**
+     * @param trips a table built with these cities, e.g. by a TripTable.Builder
+     */
+    public ParetoRouter(TripTable trips, CityInterner cities) {
+        this.cities = cities;
+        this.trips = trips;
+
+        // Every stop but the last of its pattern can be boarded, every stop but the first left
+        boardOffsets = new int[cities.size() + 1];
+        boardings = indexByCity(boardOffsets, true);
+        alightOffsets = new int[cities.size() + 1];
+        alightings = indexByCity(alightOffsets, false);
+        departureStart = new int[cities.size() + 1];
+        departureMinutes = minutesByCity(boardOffsets, boardings, departureStart, true);
+        arrivalStart = new int[cities.size() + 1];
+        arrivalMinutes = minutesByCity(alightOffsets, alightings, arrivalStart, false);
+    }
+
+    // Fills offsets and returns the boardable (or alightable) pattern stops grouped by city
+    private int[] indexByCity(int[] offsets, boolean boarding) {
+        int cityCount = cities.size();
+        int[] degree = new int[cityCount];
+        int count = 0;
+        for (int stop = 0; stop < trips.getStopCount(); stop++) {
+            if (boarding ? boardable(stop) : alightable(stop)) {
+                degree[trips.stopCity[stop]]++;
+                count++;
+            }
+        }
+        for (int c = 0; c < cityCount; c++) {
+            offsets[c + 1] = offsets[c] + degree[c];
+        }
+        int[] stops = new int[count];
+        int[] cursor = Arrays.copyOf(offsets, cityCount);
+        for (int stop = 0; stop < trips.getStopCount(); stop++) {
+            if (boarding ? boardable(stop) : alightable(stop)) {
+                stops[cursor[trips.stopCity[stop]]++] = stop;
+            }
+        }
+        return stops;
+    }
+
+    // Fills start and returns the minute of day of every trip at the given stops, sorted per city
+    private short[] minutesByCity(int[] offsets, int[] stops, int[] start, boolean departures) {
+        int cityCount = cities.size();
+        for (int c = 0; c < cityCount; c++) {
+            int count = 0;
+            for (int k = offsets[c]; k < offsets[c + 1]; k++) {
+                int pattern = trips.stopPattern[stops[k]];
+                count += trips.patternTripStart[pattern + 1] - trips.patternTripStart[pattern];
+            }
+            start[c + 1] = start[c] + count;
+        }
+        short[] minutes = new short[start[cityCount]];
+        for (int c = 0; c < cityCount; c++) {
+            int i = start[c];
+            for (int k = offsets[c]; k < offsets[c + 1]; k++) {
+                int stop = stops[k];
+                int pattern = trips.stopPattern[stop];
+                int offset = departures ? trips.departureOffset[stop] : trips.arrivalOffset[stop];
+                for (int trip = trips.patternTripStart[pattern]; trip < trips.patternTripStart[pattern + 1]; trip++) {
+                    minutes[i++] = (short) Math.floorMod(trips.tripDeparture[trip] + offset, TimeCodec.MINUTES_PER_DAY);
+                }
+            }
+            Arrays.sort(minutes, start[c], i);
+        }
+        return minutes;
+    }
+
+    /**
+     * True if some trip passes a city at an absolute minute in [from, to],
+     * on any day. minutes and start are departureMinutes/departureStart or
+     * arrivalMinutes/arrivalStart.
+     */
+    private static boolean anyBetween(short[] minutes, int[] start, int city, int from, int to) {
+        int first = start[city];
+        int end = start[city + 1];
+        if (first == end || from > to) return false;
+        if (to - from >= TimeCodec.MINUTES_PER_DAY - 1) return true;
+
+        int day = Math.floorDiv(from, TimeCodec.MINUTES_PER_DAY) * TimeCodec.MINUTES_PER_DAY;
+        int minuteOfDay = from - day;
+        int low = first;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (minutes[mid] < minuteOfDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int next = low < end ? day + minutes[low] : day + TimeCodec.MINUTES_PER_DAY + minutes[first];
+        return next <= to;
+    }
+
+    private boolean boardable(int stop) {
+        return stop + 1 < trips.patternStopStart[trips.stopPattern[stop] + 1];
+    }
+
+    private boolean alightable(int stop) {
+        return stop > trips.patternStopStart[trips.stopPattern[stop]];
+    }
+
+    @Override
+    public List<List<UnifiedScheduleDTO>> findRoutes(String source, String destination, int maxLegs) {
+        List<List<UnifiedScheduleDTO>> routes = new ArrayList<>();
+        for (Itinerary itinerary : findItineraries(source, destination, maxLegs)) {
+            routes.add(itinerary.getLegs());
+        }
+        return routes;
+    }
+
+    /**
+     * Returns every Pareto-optimal journey (arrival time, fare, legs) between the
+     * two cities, cheapest first.
+     *
+     * The search checks the calling thread's interrupt flag between labels and
+     * throws CancellationException once it is set, so a superseded search run
+     * through a Future can be stopped with cancel(true).
+     */
+    public List<Itinerary> findItineraries(String source, String destination, int maxLegs) {
+        return findItineraries(source, destination, maxLegs, null);
+    }
+
+    /**
+     * As findItineraries(source, destination, maxLegs), reporting the journeys
+     * found after each round. A journey with more legs never dominates one with
+     * fewer, so journeys reported after a round stay in the final result.
+     */
+    public List<Itinerary> findItineraries(String source, String destination, int maxLegs,
+                                           RoundListener listener) {
+        return findItineraries(source, destination, maxLegs, ServiceCalendar.ANY_DAY, 0, listener);
+    }
+
+    /**
+     * As findItineraries(source, destination, maxLegs, listener) for journeys
+     * leaving the source on the travel date, using only trips that run on the
+     * day they leave their origin
+     * @param weekday Calendar weekday of the travel date, or ServiceCalendar.ANY_DAY
+     * @param departAfter earliest departure from the source, in minutes after midnight of the travel date
+     */
+    @Override
+    public List<Itinerary> findItineraries(String source, String destination, int maxLegs, int weekday,
+                                           int departAfter, RoundListener listener) {
+        int src = cities.idOf(source);
+        int dst = cities.idOf(destination);
+        if (src < 0 || dst < 0 || src == dst || maxLegs < 1) {
+            return new ArrayList<>();
+        }
+        Search search = new Search(true, src, dst, weekday, maxLegs, departAfter + MAX_JOURNEY_MINUTES);
+        if (search.legsToGo[src] > maxLegs) {
+            return new ArrayList<>();
+        }
+        firstRoundForward(search, departAfter);
+        return run(search, listener);
+    }
+
+    /**
+     * Every Pareto-optimal journey reaching the destination on the travel date
+     * no later than arriveBy, cheapest first. Journeys are compared on when
+     * they leave instead of when they arrive, so of two with the same fare and
+     * legs the one leaving later wins. Journeys may leave on an earlier day.
+     *
+     * Cancellation and round reporting work as in findItineraries.
+     *
+     * @param weekday Calendar weekday of the travel date, or ServiceCalendar.ANY_DAY
+     * @param arriveBy latest arrival, in minutes after midnight of the travel date
+     */
+    @Override
+    public List<Itinerary> findArrivingItineraries(String source, String destination, int maxLegs, int weekday,
+                                                   int arriveBy, RoundListener listener) {
+        int src = cities.idOf(source);
+        int dst = cities.idOf(destination);
+        if (src < 0 || dst < 0 || src == dst || maxLegs < 1) {
+            return new ArrayList<>();
+        }
+        Search search = new Search(false, dst, src, weekday, maxLegs, arriveBy - MAX_JOURNEY_MINUTES);
+        if (search.legsToGo[dst] > maxLegs) {
+            return new ArrayList<>();
+        }
+        firstRoundBackward(search, arriveBy);
+        return run(search, listener);
+    }
+
+    // Rounds 2..maxLegs: extend only the labels that survived the previous round
+    private List<Itinerary> run(Search search, RoundListener listener) {
+        if (search.maxLegs > 1) {
+            reportRound(1, search, listener);
+        }
+        for (int round = 2; round <= search.maxLegs && !search.marked.isEmpty(); round++) {
+            List<Label> previous = search.marked;
+            search.marked = new ArrayList<>();
+
+            for (Label label : previous) {
+                checkCancelled();
+                if (label.dominated) continue;
+                if (search.forward) {
+                    extendForward(search, label, round);
+                } else {
+                    extendBackward(search, label, round);
+                }
+            }
+            if (round < search.maxLegs) {
+                reportRound(round, search, listener);
+            }
+        }
+        return toItineraries(search);
+    }
+
+    // Every departure from the source on the travel date. A trip reaching the
+    // source after midnight left its origin the day before.
+    private void firstRoundForward(Search search, int departAfter) {
+        int src = search.start;
+        for (int k = boardOffsets[src]; k < boardOffsets[src + 1]; k++) {
+            int board = boardings[k];
+            int pattern = trips.stopPattern[board];
+            for (int trip = trips.patternTripStart[pattern]; trip < trips.patternTripStart[pattern + 1]; trip++) {
+                int passes = trips.tripDeparture[trip] + trips.departureOffset[board];
+                int day = -Math.floorDiv(passes, TimeCodec.MINUTES_PER_DAY);
+                int boardAt = passes + day * TimeCodec.MINUTES_PER_DAY;
+                if (boardAt < departAfter || !trips.runsOn(trip, ServiceCalendar.dayBit(search.weekday, day))) continue;
+                int leave = day * TimeCodec.MINUTES_PER_DAY + trips.tripDeparture[trip];
+                ride(search, trip, board, leave, boardAt, 0, 1, null);
+            }
+        }
+    }
+
+    // Every arrival at the destination on the travel date up to the deadline
+    private void firstRoundBackward(Search search, int arriveBy) {
+        int dst = search.start;
+        for (int k = alightOffsets[dst]; k < alightOffsets[dst + 1]; k++) {
+            int alight = alightings[k];
+            int pattern = trips.stopPattern[alight];
+            for (int trip = trips.patternTripStart[pattern]; trip < trips.patternTripStart[pattern + 1]; trip++) {
+                int passes = trips.tripDeparture[trip] + trips.arrivalOffset[alight];
+                int day = -Math.floorDiv(passes, TimeCodec.MINUTES_PER_DAY);
+                int arriveAt = passes + day * TimeCodec.MINUTES_PER_DAY;
+                if (arriveAt > arriveBy || !trips.runsOn(trip, ServiceCalendar.dayBit(search.weekday, day))) continue;
+                int leave = day * TimeCodec.MINUTES_PER_DAY + trips.tripDeparture[trip];
+                rideBack(search, trip, alight, leave, arriveAt, 0, 1, null);
+            }
+        }
+    }
+
+    // One more leg after the label: the first trip of each pattern catchable in its city
+    private void extendForward(Search search, Label label, int round) {
+        int city = label.city;
+        for (int k = boardOffsets[city]; k < boardOffsets[city + 1]; k++) {
+            int board = boardings[k];
+            int pattern = trips.stopPattern[board];
+            // Getting off and back on the same pattern never helps
+            if (pattern == trips.stopPattern[label.board]) continue;
+
+            // First trip of the pattern at this stop after the minimum transfer
+            // that runs on the day it leaves its origin
+            int atOrigin = label.arrival + MIN_TRANSFER_MINUTES - trips.departureOffset[board];
+            int day = Math.floorDiv(atOrigin, TimeCodec.MINUTES_PER_DAY);
+            int first = trips.patternTripStart[pattern];
+            int last = trips.patternTripStart[pattern + 1];
+            int trip = trips.firstTripFrom(pattern, atOrigin - day * TimeCodec.MINUTES_PER_DAY);
+            if (trip < 0) {
+                trip = first;
+                day++;
+            }
+            while (true) {
+                int leave = day * TimeCodec.MINUTES_PER_DAY + trips.tripDeparture[trip];
+                if (leave + trips.departureOffset[board] - label.arrival > MAX_TRANSFER_MINUTES) break;
+                if (trips.runsOn(trip, ServiceCalendar.dayBit(search.weekday, day))) {
+                    ride(search, trip, board, leave, label.departure, label.fare, round, label);
+                    break;
+                }
+                if (++trip == last) {
+                    trip = first;
+                    day++;
+                }
+            }
+        }
+    }
+
+    // One more leg before the label: the last trip of each pattern that makes the connection
+    private void extendBackward(Search search, Label label, int round) {
+        int city = label.city;
+        for (int k = alightOffsets[city]; k < alightOffsets[city + 1]; k++) {
+            int alight = alightings[k];
+            int pattern = trips.stopPattern[alight];
+            if (pattern == trips.stopPattern[label.board]) continue;
+
+            // Last trip of the pattern reaching this stop the minimum transfer
+            // before the label leaves, and running on the day it leaves its origin
+            int atOrigin = label.departure - MIN_TRANSFER_MINUTES - trips.arrivalOffset[alight];
+            int day = Math.floorDiv(atOrigin, TimeCodec.MINUTES_PER_DAY);
+            int first = trips.patternTripStart[pattern];
+            int last = trips.patternTripStart[pattern + 1];
+            int trip = trips.lastTripUntil(pattern, atOrigin - day * TimeCodec.MINUTES_PER_DAY);
+            if (trip < 0) {
+                trip = last - 1;
+                day--;
+            }
+            while (true) {
+                int leave = day * TimeCodec.MINUTES_PER_DAY + trips.tripDeparture[trip];
+                if (label.departure - (leave + trips.arrivalOffset[alight]) > MAX_TRANSFER_MINUTES) break;
+                if (trips.runsOn(trip, ServiceCalendar.dayBit(search.weekday, day))) {
+                    rideBack(search, trip, alight, leave, label.arrival, label.fare, round, label);
+                    break;
+                }
+                if (--trip < first) {
+                    trip = last - 1;
+                    day--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Labels for alighting at each later stop of a trip boarded at this pattern stop
+     * @param leave when the trip leaves its origin, on the journey's clock
+     */
+    private void ride(Search search, int trip, int board, int leave, int journeyDeparture, double fareSoFar,
+                      int legs, Label next) {
+        int end = trips.patternStopStart[trips.stopPattern[board] + 1];
+        for (int alight = board + 1; alight < end; alight++) {
+            int arrival = leave + trips.arrivalOffset[alight];
+            // Arrivals only get later along the trip
+            if (arrival > search.horizon) break;
+            int city = trips.stopCity[alight];
+            if (!search.canContinue(city, legs, next)) continue;
+            Label label = new Label(trip, leave, board, alight, city, journeyDeparture, arrival,
+                    fareSoFar + trips.fare[alight] - trips.fare[board], legs, next);
+            relax(search, label);
+        }
+    }
+
+    /**
+     * Labels for boarding at each earlier stop of a trip left at this pattern stop
+     * @param journeyArrival when the journey reaches the destination
+     */
+    private void rideBack(Search search, int trip, int alight, int leave, int journeyArrival, double fareSoFar,
+                          int legs, Label next) {
+        int start = trips.patternStopStart[trips.stopPattern[alight]];
+        for (int board = alight - 1; board >= start; board--) {
+            int departure = leave + trips.departureOffset[board];
+            // Departures only get earlier back along the trip
+            if (departure < search.horizon) break;
+            int city = trips.stopCity[board];
+            if (!search.canContinue(city, legs, next)) continue;
+            Label label = new Label(trip, leave, board, alight, city, departure, journeyArrival,
+                    fareSoFar + trips.fare[alight] - trips.fare[board], legs, next);
+            relax(search, label);
+        }
+    }
+
+    /**
+     * True if at least one usable connection leaves this city
+     */
+    @Override
+    public boolean hasDeparturesFrom(String city) {
+        int id = cities.idOf(city);
+        return id >= 0 && boardOffsets[id + 1] > boardOffsets[id];
+    }
+
+    /**
+     * True if any usable connection starts or ends in this city
+     */
+    @Override
+    public boolean servesCity(String city) {
+        return cities.idOf(city) >= 0;
+    }
+
+    /**
+     * Direct connections between two cities, read from the source's boardings.
+     * A train calling at both gives the part of its run between them.
+     */
+    @Override
+    public List<UnifiedScheduleDTO> findDirect(String source, String destination) {
+        List<UnifiedScheduleDTO> direct = new ArrayList<>();
+        int src = cities.idOf(source);
+        int dst = cities.idOf(destination);
+        if (src < 0 || dst < 0) {
+            return direct;
+        }
+        for (int k = boardOffsets[src]; k < boardOffsets[src + 1]; k++) {
+            int board = boardings[k];
+            int pattern = trips.stopPattern[board];
+            int end = trips.patternStopStart[pattern + 1];
+            for (int alight = board + 1; alight < end; alight++) {
+                if (trips.stopCity[alight] == dst) {
+                    for (int trip = trips.patternTripStart[pattern]; trip < trips.patternTripStart[pattern + 1]; trip++) {
+                        direct.add(trips.segment(trip, board, alight));
+                    }
+                    break;
+                }
+            }
+        }
+        return direct;
+    }
+
+    @Override
+    public String toString() {
+        return trips + ", " + boardings.length + " boarding points across " + cities.size() + " cities";
+    }
+
+    /**
+     * Normalised names of the cities with at least one departure
+     */
+    @Override
+    public List<String> getDepartureCities() {
+        List<String> names = new ArrayList<>();
+        for (int c = 0; c < cities.size(); c++) {
+            if (boardOffsets[c + 1] > boardOffsets[c]) {
+                names.add(cities.nameOf(c));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Fewest legs between every city and the given one, ignoring times: legs
+     * needed to reach it, or with fromCity set, legs needed to get there from
+     * it. Cities more than maxLegs away are UNREACHABLE.
+     */
+    private int[] legsBetween(int city, int maxLegs, boolean fromCity) {
+        int[] legs = new int[cities.size()];
+        Arrays.fill(legs, UNREACHABLE);
+        legs[city] = 0;
+        int[] offsets = fromCity ? boardOffsets : alightOffsets;
+        int[] stops = fromCity ? boardings : alightings;
+        int[] frontier = new int[cities.size()];
+        int[] next = new int[cities.size()];
+        frontier[0] = city;
+        int frontierSize = 1;
+        for (int level = 1; level <= maxLegs && frontierSize > 0; level++) {
+            int nextSize = 0;
+            for (int i = 0; i < frontierSize; i++) {
+                int at = frontier[i];
+                for (int k = offsets[at]; k < offsets[at + 1]; k++) {
+                    int stop = stops[k];
+                    int pattern = trips.stopPattern[stop];
+                    // Every stop a trip of this pattern reaches from here, or comes here from
+                    int from = fromCity ? stop + 1 : trips.patternStopStart[pattern];
+                    int to = fromCity ? trips.patternStopStart[pattern + 1] : stop;
+                    for (int other = from; other < to; other++) {
+                        int reached = trips.stopCity[other];
+                        if (legs[reached] == UNREACHABLE) {
+                            legs[reached] = level;
+                            next[nextSize++] = reached;
+                        }
+                    }
+                }
+            }
+            int[] swap = frontier;
+            frontier = next;
+            next = swap;
+            frontierSize = nextSize;
+        }
+        return legs;
+    }
+
+    private List<Itinerary> toItineraries(Search search) {
+        List<Itinerary> itineraries = new ArrayList<>(search.targetBag.size());
+        for (Label label : search.targetBag) {
+            itineraries.add(label.toItinerary(trips, search.forward));
+        }
+        Collections.sort(itineraries, Itinerary.BY_FARE);
+        return itineraries;
+    }
+
+    // The last round is not reported; its journeys are the return value
+    private void reportRound(int round, Search search, RoundListener listener) {
+        if (listener != null) {
+            listener.onRound(round, toItineraries(search));
+        }
+    }
+
+    private static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Route search cancelled");
+        }
+    }
+
+    /**
+     * Inserts the label into its city's bag unless something already dominates it,
+     * evicting any labels it dominates in turn.
+     */
+    private void relax(Search search, Label label) {
+        // Target pruning: extending a label only adds time, fare and legs
+        for (Label done : search.targetBag) {
+            if (done.dominatesAtTarget(label, search.forward)) return;
+        }
+
+        int city = label.city;
+        if (city == search.target) {
+            List<Label> targetBag = search.targetBag;
+            for (int i = targetBag.size() - 1; i >= 0; i--) {
+                if (label.dominatesAtTarget(targetBag.get(i), search.forward)) {
+                    targetBag.remove(i);
+                }
+            }
+            targetBag.add(label);
+            return;
+        }
+
+        List<Label> bag = search.bags.get(city);
+        for (Label existing : bag) {
+            if (search.dominates(existing, label)) return;
+        }
+        for (int i = bag.size() - 1; i >= 0; i--) {
+            Label existing = bag.get(i);
+            if (search.dominates(label, existing)) {
+                existing.dominated = true;
+                bag.remove(i);
+            }
+        }
+        bag.add(label);
+        search.marked.add(label);
+    }
+
+    /**
+     * One query. A forward search grows labels from the source until they reach
+     * the destination; an arrive-by search grows them from the destination
+     * until they reach the source.
+     */
+    private class Search {
+        final boolean forward;
+        final int start;
+        final int target;
+        final int weekday;
+        final int maxLegs;
+        // Latest arrival going forward, earliest departure going backward
+        final int horizon;
+        // Fewest legs between each city and the target, from the sweep
+        final int[] legsToGo;
+        final List<List<Label>> bags;
+        final List<Label> targetBag = new ArrayList<>();
+        List<Label> marked = new ArrayList<>();
+
+        Search(boolean forward, int start, int target, int weekday, int maxLegs, int horizon) {
+            this.forward = forward;
+            this.start = start;
+            this.target = target;
+            this.weekday = weekday;
+            this.maxLegs = maxLegs;
+            this.horizon = horizon;
+            legsToGo = legsBetween(target, maxLegs, !forward);
+            bags = new ArrayList<>(cities.size());
+            for (int c = 0; c < cities.size(); c++) {
+                bags.add(new ArrayList<>());
+            }
+        }
+
+        /**
+         * Whether one label at a city can replace another: it is no worse on
+         * any criterion, and every trip the other could transfer to within
+         * its window can also be reached from this one
+         */
+        boolean dominates(Label label, Label other) {
+            if (!label.dominates(other)) return false;
+            if (forward) {
+                // Trips leaving too late for the earlier arrival, but not for the other
+                int from = Math.max(label.arrival + MAX_TRANSFER_MINUTES + 1, other.arrival + MIN_TRANSFER_MINUTES);
+                return !anyBetween(departureMinutes, departureStart, other.city, from,
+                        other.arrival + MAX_TRANSFER_MINUTES);
+            }
+            // Trips arriving too early for the later departure, but not for the other
+            int to = Math.min(label.departure - MAX_TRANSFER_MINUTES - 1, other.departure - MIN_TRANSFER_MINUTES);
+            return !anyBetween(arrivalMinutes, arrivalStart, other.city,
+                    other.departure - MAX_TRANSFER_MINUTES, to);
+        }
+
+        // Whether a label in this city after this many legs can still complete a journey
+        boolean canContinue(int city, int legs, Label previous) {
+            if (city == start || (previous != null && previous.visits(city))) return false;
+            return legsToGo[city] <= maxLegs - legs;
+        }
+    }
+
+    private static class Label {
+        // Trip ridden, when it left its origin, pattern stops it is boarded and
+        // left at, and the city the journey has reached: where the trip is left
+        // going forward, where it is boarded going backward
+        final int trip;
+        final int leave;
+        final int board;
+        final int alight;
+        final int city;
+        final int departure;
+        final int arrival;
+        final double fare;
+        final int legs;
+        // The leg before going forward, the leg after going backward
+        final Label parent;
+        boolean dominated;
+
+        Label(int trip, int leave, int board, int alight, int city, int departure, int arrival, double fare,
+              int legs, Label parent) {
+            this.trip = trip;
+            this.leave = leave;
+            this.board = board;
+            this.alight = alight;
+            this.city = city;
+            this.departure = departure;
+            this.arrival = arrival;
+            this.fare = fare;
+            this.legs = legs;
+            this.parent = parent;
+        }
+
+        // Partial journeys: leaving later and arriving earlier are both better.
+        // Search.dominates also checks the transfer windows.
+        boolean dominates(Label other) {
+            return departure >= other.departure
+                    && arrival <= other.arrival
+                    && fare <= other.fare
+                    && legs <= other.legs;
+        }
+
+        // Complete journeys: only the end the query leaves open matters, the
+        // arrival going forward and the departure going backward
+        boolean dominatesAtTarget(Label other, boolean forward) {
+            return (forward ? arrival <= other.arrival : departure >= other.departure)
+                    && fare <= other.fare
+                    && legs <= other.legs;
+        }
+
+        boolean visits(int city) {
+            for (Label label = this; label != null; label = label.parent) {
+                if (label.city == city) return true;
+            }
+            return false;
+        }
+
+        Itinerary toItinerary(TripTable trips, boolean forward) {
+            UnifiedScheduleDTO[] legs = new UnifiedScheduleDTO[this.legs];
+            int[] legDepartures = new int[this.legs];
+            int[] legArrivals = new int[this.legs];
+            int leg = forward ? this.legs : -1;
+            for (Label label = this; label != null; label = label.parent) {
+                leg += forward ? -1 : 1;
+                legs[leg] = trips.segment(label.trip, label.board, label.alight);
+                legDepartures[leg] = label.leave + trips.departureOffset[label.board];
+                legArrivals[leg] = label.leave + trips.arrivalOffset[label.alight];
+            }
+            return new Itinerary(Arrays.asList(legs), legDepartures, legArrivals, fare);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.siyam.travelschedulemanager.algorithm;
+
+import com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO;
+
+import java.util.List;
+
+/**
+ * Common contract for route search engines over the unified timetable.
+ * Each result is an ordered list of legs from source to destination.
+ *
+ * Searches check the calling thread's interrupt flag as they go and throw
+ * CancellationException once it is set, so a superseded search run through a
+ * Future can be stopped with cancel(true).
+ */
+public interface RouteEngine {
+    // Transfer window between two consecutive legs (15 min to 12 hours)
+    int MIN_TRANSFER_MINUTES = 15;
+    int MAX_TRANSFER_MINUTES = 720;
+    // Latest arrival considered, in minutes after the start of the search
+    int MAX_JOURNEY_MINUTES = 2 * 24 * 60;
+
+    /**
+     * Receives the journeys found so far while a search runs
+     */
+    interface RoundListener {
+        /**
+         * @param legs the round just finished; every journey with at most this many legs is known
+         * @param itineraries the journeys so far, cheapest first
+         */
+        void onRound(int legs, List<Itinerary> itineraries);
+    }
+
+    List<List<UnifiedScheduleDTO>> findRoutes(String source, String destination, int maxLegs);
+
+    /**
+     * Journeys leaving the source on the travel date, using only trips that run
+     * on the day they leave their origin
+     * @param weekday Calendar weekday of the travel date, or ServiceCalendar.ANY_DAY
+     * @param departAfter earliest departure from the source, in minutes after midnight of the travel date
+     * @param listener may be null; engines without rounds never call it
+     */
+    List<Itinerary> findItineraries(String source, String destination, int maxLegs, int weekday,
+                                    int departAfter, RoundListener listener);
+
+    /**
+     * Journeys reaching the destination on the travel date no later than
+     * arriveBy. They may leave on an earlier day.
+     * @param arriveBy latest arrival, in minutes after midnight of the travel date
+     */
+    List<Itinerary> findArrivingItineraries(String source, String destination, int maxLegs, int weekday,
+                                            int arriveBy, RoundListener listener);
+
+    /**
+     * True if at least one usable connection leaves this city
+     */
+    boolean hasDeparturesFrom(String city);
+
+    /**
+     * True if any usable connection starts or ends in this city
+     */
+    boolean servesCity(String city);
+
+    /**
+     * Direct connections between two cities. A train calling at both gives the
+     * part of its run between them.
+     */
+    List<UnifiedScheduleDTO> findDirect(String source, String destination);
+
+    /**
+     * Normalised names of the cities with at least one departure
+     */
+    List<String> getDepartureCities();
+}
@@ -0,0 +1,307 @@
+package com.siyam.travelschedulemanager.algorithm;
+
+import android.util.Log;
+
+import com.siyam.travelschedulemanager.data.remote.dto.TrainScheduleDTO;
+import com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Process-wide search graph for the current timetable.
+ *
+ * ScheduleRepository submits every unified schedule list it loads, and every
+ * train list, whose stops let journeys change at intermediate stations. A
+ * download streamed into the cache is handed over batch by batch instead, see
+ * beginIngest. The
+ * graph is rebuilt on a background thread from the latest of both, only when
+ * the content differs from the one already built, and the new snapshot replaces the old one in a single atomic
+ * swap. A search holds on to the snapshot it started with, so it finishes on
+ * the old graph while new searches pick up the new one. Each snapshot holds a
+ * ParetoRouter and a ConnectionScanEngine over one shared TripTable.
+ *
+ * The content key is an order-sensitive digest of every field the graph reads,
+ * so swapping a time or a city between two records changes it. A reordered but
+ * otherwise identical list costs one needless rebuild.
+ */
+public class RouteGraphCache {
+    private static final String TAG = "RouteGraphCache";
+
+    private static RouteGraphCache instance;
+
+    private final ExecutorService buildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "route-graph");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final CountDownLatch firstBuild = new CountDownLatch(1);
+    // Latest lists submitted; one queued build picks up every change before it runs
+    private volatile List<UnifiedScheduleDTO> latest;
+    private volatile List<TrainScheduleDTO> latestTrains = Collections.emptyList();
+    private final AtomicBoolean buildQueued = new AtomicBoolean();
+
+    public static synchronized RouteGraphCache getInstance() {
+        if (instance == null) {
+            instance = new RouteGraphCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Build a graph for this timetable in the background, unless the current
+     * graph already has the same content
+     */
+    public void submit(List<UnifiedScheduleDTO> schedules) {
+        if (schedules == null || schedules.isEmpty()) {
+            return;
+        }
+        latest = schedules;
+        queueBuild();
+    }
+
+    /**
+     * Use these trains' stops in the next graph. Has no effect until a
+     * timetable has been submitted.
+     */
+    public void submitTrains(List<TrainScheduleDTO> trains) {
+        if (trains == null || trains.isEmpty()) {
+            return;
+        }
+        latestTrains = trains;
+        if (latest != null) {
+            queueBuild();
+        }
+    }
+
+    private void queueBuild() {
+        if (!buildQueued.compareAndSet(false, true)) {
+            return;
+        }
+        buildExecutor.execute(() -> {
+            buildQueued.set(false);
+            List<UnifiedScheduleDTO> schedules = latest;
+            List<TrainScheduleDTO> trains = latestTrains;
+            CityInterner cities = new CityInterner();
+            publish(contentKey(schedules, trains), schedules.size(), cities,
+                    () -> TripTable.build(schedules, trains, cities));
+        });
+    }
+
+    /**
+     * Start taking in a timetable that arrives in batches, such as a download
+     * streamed into the cache. Each batch is grouped into trip patterns on the
+     * build thread as it arrives, so the graph is ready as soon as the last one
+     * is in; searches use the current graph until then. An ingest that is never
+     * finished changes nothing.
+     */
+    public Ingest beginIngest() {
+        return new Ingest(latestTrains);
+    }
+
+    // Build thread only. Both engines share one table, built with these cities.
+    private void publish(long contentKey, int scheduleCount, CityInterner cities, Supplier<TripTable> table) {
+        Snapshot old = current.get();
+        if (old != null && old.contentKey == contentKey) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        TripTable trips = table.get();
+        Snapshot built = new Snapshot(old == null ? 1 : old.version + 1, contentKey, scheduleCount,
+                new ParetoRouter(trips, cities), new ConnectionScanEngine(trips, cities));
+        current.set(built);
+        firstBuild.countDown();
+        Log.d(TAG, "Graph v" + built.version + " for " + built.scheduleCount + " schedules built in "
+                + (System.currentTimeMillis() - start) + " ms: " + built.router);
+    }
+
+    /**
+     * The current graph, or null if none has been built yet
+     */
+    public Snapshot getCurrent() {
+        return current.get();
+    }
+
+    /**
+     * No timetable could be loaded, from the server or the cache. Releases
+     * searches waiting for the first graph; they get null instead.
+     */
+    public void loadFailed() {
+        if (current.get() == null) {
+            Log.w(TAG, "Timetable load failed before any graph was built");
+            firstBuild.countDown();
+        }
+    }
+
+    /**
+     * The current graph, waiting for the first build if necessary.
+     * Call off the main thread.
+     * @return null if the first load failed before any graph was built
+     */
+    public Snapshot awaitCurrent() throws InterruptedException {
+        firstBuild.await();
+        return current.get();
+    }
+
+    /**
+     * FNV-1a over every field of every schedule and train, in list order
+     */
+    static long contentKey(List<UnifiedScheduleDTO> schedules, List<TrainScheduleDTO> trains) {
+        Digest digest = new Digest();
+        for (UnifiedScheduleDTO schedule : schedules) {
+            digest.add(schedule);
+        }
+        return digest.add(schedules.size()).add(trains).value;
+    }
+
+    private static class Digest {
+        private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+        private static final long PRIME = 0x100000001b3L;
+
+        long value = OFFSET_BASIS;
+
+        Digest add(UnifiedScheduleDTO schedule) {
+            return add(schedule.getType())
+                    .add(schedule.getName())
+                    .add(schedule.getStart())
+                    .add(schedule.getDestination())
+                    .add(schedule.getStartTime())
+                    .add(schedule.getArrivalTime())
+                    .add(schedule.getFare())
+                    .add(schedule.getDuration())
+                    .add(schedule.getOffDay());
+        }
+
+        Digest add(List<TrainScheduleDTO> trains) {
+            add(trains.size());
+            for (TrainScheduleDTO train : trains) {
+                add(train.getTrainName())
+                        .add(train.getStart())
+                        .add(train.getDestination())
+                        .add(train.getStartTime())
+                        .add(train.getArrivalTime())
+                        .add(train.getFare())
+                        .add(train.getDuration())
+                        .add(train.getOffDay());
+                List<TrainScheduleDTO.TrainStop> stops = train.getStops();
+                add(stops == null ? -1 : stops.size());
+                if (stops == null) continue;
+                for (TrainScheduleDTO.TrainStop stop : stops) {
+                    add(stop.getStation())
+                            .add(stop.getArrivalTime())
+                            .add(stop.getDepartureTime())
+                            .add(stop.getCumulativeFare());
+                }
+            }
+            return this;
+        }
+
+        Digest add(long bits) {
+            for (int shift = 0; shift < 64; shift += 8) {
+                value = (value ^ ((bits >>> shift) & 0xff)) * PRIME;
+            }
+            return this;
+        }
+
+        Digest add(double number) {
+            return add(Double.doubleToLongBits(number));
+        }
+
+        // Length first, so ("ab", "c") and ("a", "bc") differ; -1 for null
+        Digest add(String text) {
+            if (text == null) {
+                return add(-1L);
+            }
+            add((long) text.length());
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                value = (value ^ (c & 0xff)) * PRIME;
+                value = (value ^ (c >>> 8)) * PRIME;
+            }
+            return this;
+        }
+    }
+
+    /**
+     * A timetable being taken in batch by batch; see beginIngest
+     */
+    public class Ingest {
+        private final List<TrainScheduleDTO> trains;
+        private final CityInterner cities = new CityInterner();
+        private final TripTable.Builder builder;
+        // Same key as contentKey over the whole list, built up batch by batch
+        private final Digest digest = new Digest();
+        private int count;
+
+        private Ingest(List<TrainScheduleDTO> trains) {
+            this.trains = trains;
+            builder = new TripTable.Builder(trains, cities);
+        }
+
+        /**
+         * Take in the next batch, in timetable order. The batch must not change afterwards.
+         */
+        public void add(List<UnifiedScheduleDTO> batch) {
+            buildExecutor.execute(() -> {
+                for (UnifiedScheduleDTO schedule : batch) {
+                    builder.add(schedule);
+                    digest.add(schedule);
+                }
+                count += batch.size();
+            });
+        }
+
+        /**
+         * Every batch is in: replace the current graph, unless it has the same
+         * content or the timetable was empty
+         */
+        public void finish() {
+            buildExecutor.execute(() -> {
+                if (count == 0) {
+                    return;
+                }
+                publish(digest.add(count).add(trains).value, count, cities, builder::build);
+            });
+        }
+    }
+
+    /**
+     * One immutable graph and the timetable version it was built from
+     */
+    public static class Snapshot {
+        private final long version;
+        private final long contentKey;
+        private final int scheduleCount;
+        private final RouteEngine router;
+        private final RouteEngine earliestArrival;
+
+        Snapshot(long version, long contentKey, int scheduleCount, RouteEngine router, RouteEngine earliestArrival) {
+            this.version = version;
+            this.contentKey = contentKey;
+            this.scheduleCount = scheduleCount;
+            this.router = router;
+            this.earliestArrival = earliestArrival;
+        }
+
+        public long getVersion() { return version; }
+        public int getScheduleCount() { return scheduleCount; }
+
+        /**
+         * Every cheapest, earliest and fewest-changes journey
+         */
+        public RouteEngine getRouter() { return router; }
+
+        /**
+         * Only the earliest journey (the latest to leave, for arrive-by), found in one scan
+         */
+        public RouteEngine getEarliestArrivalEngine() { return earliestArrival; }
+    }
+}
@@ -0,0 +1,167 @@
+package com.siyam.travelschedulemanager.algorithm;
+
+import com.siyam.travelschedulemanager.model.UnifiedRoute;
+import com.siyam.travelschedulemanager.util.SuggestionTrie;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Inverted index for filtering the managed routes by text and type, kept
+ * current one route at a time.
+ *
+ * Every route holds a slot, keyed by route type and document id. Slots are
+ * handed out in insertion order and an updated route keeps its own, so results
+ * come out in the order the routes were first added; a deleted route's slot is
+ * not reused. The name, number, origin and destination of a route are
+ * normalised and split into words when it is inserted. Each distinct word keeps
+ * a bitmap of the slots containing it, and the words are sorted, so all words
+ * starting with a query word are one contiguous range. A query of several
+ * words matches routes that have every word, by intersecting the bitmaps; the
+ * BUS/TRAIN filter is one more bitmap.
+ *
+ * Inserting, updating or deleting a route only touches the bitmaps of its own
+ * words. Not thread-safe; the owner applies changes and searches on one thread.
+ */
+public class RouteSearchIndex {
+    private final Map<String, Integer> slotByKey = new HashMap<>();
+    // Route in each slot, null once deleted
+    private final List<UnifiedRoute> slots = new ArrayList<>();
+    private final TreeMap<String, BitSet> postings = new TreeMap<>();
+    private final BitSet present = new BitSet();
+    private final BitSet busRoutes = new BitSet();
+    private final BitSet trainRoutes = new BitSet();
+
+    public static String keyOf(String routeType, String id) {
+        return routeType + ":" + id;
+    }
+
+    /**
+     * Insert a route, or replace the route with the same type and id
+     */
+    public void upsert(UnifiedRoute route) {
+        if (route.getId() == null) {
+            return;
+        }
+        String key = keyOf(route.getRouteType(), route.getId());
+        Integer slot = slotByKey.get(key);
+        if (slot == null) {
+            slot = slots.size();
+            slots.add(route);
+            slotByKey.put(key, slot);
+        } else {
+            unindex(slot);
+            slots.set(slot, route);
+        }
+        index(slot);
+    }
+
+    /**
+     * Remove a route
+     * @return false if it was not in the index
+     */
+    public boolean remove(String routeType, String id) {
+        Integer slot = slotByKey.remove(keyOf(routeType, id));
+        if (slot == null) {
+            return false;
+        }
+        unindex(slot);
+        slots.set(slot, null);
+        return true;
+    }
+
+    public int size() {
+        return slotByKey.size();
+    }
+
+    private void index(int slot) {
+        UnifiedRoute route = slots.get(slot);
+        present.set(slot);
+        if (route.isBus()) busRoutes.set(slot);
+        if (route.isTrain()) trainRoutes.set(slot);
+        for (String token : tokensOf(route)) {
+            BitSet posting = postings.get(token);
+            if (posting == null) {
+                posting = new BitSet();
+                postings.put(token, posting);
+            }
+            posting.set(slot);
+        }
+    }
+
+    private void unindex(int slot) {
+        UnifiedRoute route = slots.get(slot);
+        present.clear(slot);
+        busRoutes.clear(slot);
+        trainRoutes.clear(slot);
+        for (String token : tokensOf(route)) {
+            BitSet posting = postings.get(token);
+            if (posting == null) continue;
+            posting.clear(slot);
+            if (posting.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    private static List<String> tokensOf(UnifiedRoute route) {
+        List<String> tokens = new ArrayList<>();
+        addTokens(tokens, route.getDisplayName());
+        addTokens(tokens, route.getRouteNumber());
+        addTokens(tokens, route.getOrigin());
+        addTokens(tokens, route.getDestination());
+        return tokens;
+    }
+
+    private static void addTokens(List<String> tokens, String field) {
+        for (String token : split(field)) {
+            tokens.add(token);
+        }
+    }
+
+    private static String[] split(String text) {
+        String normalized = SuggestionTrie.normalize(text);
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    /**
+     * Routes of the given type with a word starting with each word of the query,
+     * in index order
+     * @param routeType BUS or TRAIN; anything else keeps both
+     */
+    public List<UnifiedRoute> search(String query, String routeType) {
+        BitSet matches = new BitSet();
+        if ("BUS".equals(routeType)) {
+            matches.or(busRoutes);
+        } else if ("TRAIN".equals(routeType)) {
+            matches.or(trainRoutes);
+        } else {
+            matches.or(present);
+        }
+
+        for (String word : split(query)) {
+            if (matches.isEmpty()) break;
+            matches.and(prefixPostings(word));
+        }
+
+        List<UnifiedRoute> result = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            result.add(slots.get(i));
+        }
+        return result;
+    }
+
+    // Union of the postings of every token starting with the prefix
+    private BitSet prefixPostings(String prefix) {
+        BitSet union = new BitSet();
+        for (Map.Entry<String, BitSet> token : postings.tailMap(prefix, true).entrySet()) {
+            if (!token.getKey().startsWith(prefix)) break;
+            union.or(token.getValue());
+        }
+        return union;
+    }
+}
@@ -0,0 +1,404 @@
+package com.siyam.travelschedulemanager.algorithm;
+
+import com.siyam.travelschedulemanager.data.remote.dto.TrainScheduleDTO;
+import com.siyam.travelschedulemanager.data.remote.dto.TrainScheduleDTO.TrainStop;
+import com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO;
+import com.siyam.travelschedulemanager.model.ScheduleTimes;
+import com.siyam.travelschedulemanager.util.ServiceCalendar;
+import com.siyam.travelschedulemanager.util.StringPool;
+import com.siyam.travelschedulemanager.util.TimeCodec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The timetable as trip patterns, stored column by column.
+ *
+ * A schedule is one trip. Without stops it calls at its origin and destination
+ * only; a train whose stops are known calls at every station on the way, so a
+ * journey may board or alight anywhere along it.
+ *
+ * Trips that call at the same stations with the same running times and fares
+ * share one pattern, and differ only in when they leave the origin. Pattern p
+ * owns the pattern stops [patternStopStart[p], patternStopStart[p + 1]), whose
+ * columns hold the city, the minutes from the origin departure to arriving and
+ * leaving, and the fare from the origin. Its trips are
+ * [patternTripStart[p], patternTripStart[p + 1]), sorted by departure, so the
+ * first trip catchable at a stop is found by binary search. Any two stops of a
+ * pattern form a segment, priced by the difference of their cumulative fares.
+ *
+ * Each trip also keeps the ServiceCalendar mask of weekdays it leaves its
+ * origin on, so a search for a date skips trips with one AND, and its pooled
+ * type, name and off day. The schedules themselves are not kept; a leg's
+ * schedule is rebuilt from the columns when a journey is reported.
+ */
+public class TripTable {
+    final int[] patternStopStart;
+    final int[] patternTripStart;
+
+    // Per pattern stop
+    final int[] stopPattern;
+    final int[] stopCity;
+    final String[] stopName;
+    final short[] arrivalOffset;
+    final short[] departureOffset;
+    final double[] fare;
+
+    // Per trip, grouped by pattern
+    final short[] tripDeparture;
+    final byte[] tripDays;
+    final String[] tripType;
+    final String[] tripName;
+    final String[] tripOffDay;
+    private final int tripsWithStops;
+
+    /**
+     * Expand the timetable into trips and group them into patterns, interning
+     * every station into cities. Schedules without a usable origin, destination
+     * or times are left out.
+     *
+     * @param trains train schedules carrying stop lists; matched to the unified
+     *               schedules by name, origin, destination and departure time
+     */
+    public static TripTable build(List<UnifiedScheduleDTO> schedules, List<TrainScheduleDTO> trains,
+                                  CityInterner cities) {
+        Builder builder = new Builder(trains, cities);
+        for (UnifiedScheduleDTO schedule : schedules) {
+            builder.add(schedule);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Groups schedules into patterns one at a time, so a timetable arriving in
+     * batches can be taken in as it comes. Keeps only what the table needs of
+     * each trip, not the schedule itself. Not thread-safe.
+     */
+    public static class Builder {
+        private final CityInterner cities;
+        private final Map<String, List<TrainStop>> stopsByTrain = new HashMap<>();
+        private final Map<Shape, List<Trip>> patterns = new LinkedHashMap<>();
+        private final StringPool pool = new StringPool();
+        private int expanded;
+
+        /**
+         * @param trains train schedules carrying stop lists; may be null
+         */
+        public Builder(List<TrainScheduleDTO> trains, CityInterner cities) {
+            this.cities = cities;
+            if (trains != null) {
+                for (TrainScheduleDTO train : trains) {
+                    if (train.getStops() != null && !train.getStops().isEmpty()) {
+                        stopsByTrain.put(tripKey(train.getTrainName(), train.getStart(),
+                                train.getDestination(), train.getStartTime()), train.getStops());
+                    }
+                }
+            }
+        }
+
+        public void add(UnifiedScheduleDTO schedule) {
+            if (schedule.getStart() == null || schedule.getDestination() == null) return;
+            if (!schedule.getTimes().isValid()) return;
+
+            List<TrainStop> stops = schedule.isTrain() && !stopsByTrain.isEmpty()
+                    ? stopsByTrain.get(tripKey(schedule.getName(), schedule.getStart(),
+                            schedule.getDestination(), schedule.getStartTime()))
+                    : null;
+            Shape shape = stops != null ? Shape.callingPattern(schedule, stops, cities) : null;
+            if (shape != null) {
+                expanded++;
+            } else {
+                shape = Shape.direct(schedule, cities);
+                if (shape == null) return;
+            }
+            List<Trip> trips = patterns.get(shape);
+            if (trips == null) {
+                trips = new ArrayList<>(1);
+                patterns.put(shape, trips);
+            }
+            trips.add(new Trip(schedule, pool));
+        }
+
+        public TripTable build() {
+            return new TripTable(patterns, expanded);
+        }
+    }
+
+    private TripTable(Map<Shape, List<Trip>> patterns, int tripsWithStops) {
+        this.tripsWithStops = tripsWithStops;
+        int patternCount = patterns.size();
+        int stopCount = 0;
+        int tripCount = 0;
+        for (Map.Entry<Shape, List<Trip>> pattern : patterns.entrySet()) {
+            stopCount += pattern.getKey().cities.length;
+            tripCount += pattern.getValue().size();
+        }
+
+        patternStopStart = new int[patternCount + 1];
+        patternTripStart = new int[patternCount + 1];
+        stopPattern = new int[stopCount];
+        stopCity = new int[stopCount];
+        stopName = new String[stopCount];
+        arrivalOffset = new short[stopCount];
+        departureOffset = new short[stopCount];
+        fare = new double[stopCount];
+        tripDeparture = new short[tripCount];
+        tripDays = new byte[tripCount];
+        tripType = new String[tripCount];
+        tripName = new String[tripCount];
+        tripOffDay = new String[tripCount];
+
+        int p = 0;
+        int stop = 0;
+        int trip = 0;
+        for (Map.Entry<Shape, List<Trip>> pattern : patterns.entrySet()) {
+            Shape shape = pattern.getKey();
+            for (int i = 0; i < shape.cities.length; i++, stop++) {
+                stopPattern[stop] = p;
+                stopCity[stop] = shape.cities[i];
+                stopName[stop] = shape.names[i];
+                arrivalOffset[stop] = (short) shape.offsets[2 * i];
+                departureOffset[stop] = (short) shape.offsets[2 * i + 1];
+                fare[stop] = shape.fares[i];
+            }
+
+            List<Trip> trips = pattern.getValue();
+            trips.sort((a, b) -> Integer.compare(a.departure, b.departure));
+            for (Trip t : trips) {
+                tripDeparture[trip] = t.departure;
+                tripDays[trip] = t.days;
+                tripType[trip] = t.type;
+                tripName[trip] = t.name;
+                tripOffDay[trip] = t.offDay;
+                trip++;
+            }
+            p++;
+            patternStopStart[p] = stop;
+            patternTripStart[p] = trip;
+        }
+    }
+
+    private static String tripKey(String name, String start, String destination, String startTime) {
+        return CityInterner.normalize(name) + '|' + CityInterner.normalize(start) + '|'
+                + CityInterner.normalize(destination) + '|' + TimeCodec.parseTime(startTime);
+    }
+
+    public int getTripCount() {
+        return tripDeparture.length;
+    }
+
+    public int getPatternCount() {
+        return patternStopStart.length - 1;
+    }
+
+    public int getStopCount() {
+        return stopCity.length;
+    }
+
+    @Override
+    public String toString() {
+        return getTripCount() + " trips (" + tripsWithStops + " with stops) in " + getPatternCount()
+                + " patterns, " + getStopCount() + " pattern stops";
+    }
+
+    /**
+     * True if the trip leaves its origin on a day with this ServiceCalendar bit
+     */
+    boolean runsOn(int trip, int dayBit) {
+        return (tripDays[trip] & dayBit) != 0;
+    }
+
+    /**
+     * The first trip of the pattern leaving its origin at or after this minute
+     * of day, or -1 if every trip leaves earlier
+     */
+    int firstTripFrom(int pattern, int minuteOfDay) {
+        int low = patternTripStart[pattern];
+        int high = patternTripStart[pattern + 1];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tripDeparture[mid] < minuteOfDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < patternTripStart[pattern + 1] ? low : -1;
+    }
+
+    /**
+     * The last trip of the pattern leaving its origin at or before this minute
+     * of day, or -1 if every trip leaves later
+     */
+    int lastTripUntil(int pattern, int minuteOfDay) {
+        int low = patternTripStart[pattern];
+        int high = patternTripStart[pattern + 1];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tripDeparture[mid] <= minuteOfDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low > patternTripStart[pattern] ? low - 1 : -1;
+    }
+
+    /**
+     * Schedule for riding a trip from one of its pattern stops to a later one
+     */
+    UnifiedScheduleDTO segment(int trip, int board, int alight) {
+        int leave = tripDeparture[trip] + departureOffset[board];
+        int reach = tripDeparture[trip] + arrivalOffset[alight];
+        UnifiedScheduleDTO part = new UnifiedScheduleDTO();
+        part.setType(tripType[trip]);
+        part.setName(tripName[trip]);
+        part.setStart(stopName[board]);
+        part.setDestination(stopName[alight]);
+        part.setStartTime(TimeCodec.formatTime(leave));
+        part.setArrivalTime(TimeCodec.formatTime(reach));
+        part.setDuration(TimeCodec.formatDuration(reach - leave));
+        part.setFare(fare[alight] - fare[board]);
+        part.setOffDay(tripOffDay[trip]);
+        return part;
+    }
+
+    // One trip as the table stores it, until its pattern is laid out
+    private static class Trip {
+        final short departure;
+        final byte days;
+        final String type;
+        final String name;
+        final String offDay;
+
+        Trip(UnifiedScheduleDTO schedule, StringPool pool) {
+            departure = (short) schedule.getTimes().getDepartureMinute();
+            days = (byte) ServiceCalendar.runningDays(schedule.getOffDay());
+            type = pool.intern(schedule.getType());
+            name = pool.intern(schedule.getName());
+            offDay = pool.intern(schedule.getOffDay());
+        }
+    }
+
+    /**
+     * What trips of one pattern have in common: the cities called at, the
+     * minutes from the origin departure to arriving at and leaving each one,
+     * and the fare from the origin to each. Names are taken from the first
+     * trip and do not count.
+     */
+    private static class Shape {
+        final int[] cities;
+        final int[] offsets;
+        final double[] fares;
+        final String[] names;
+        private final int hash;
+
+        private Shape(int[] cities, int[] offsets, double[] fares, String[] names) {
+            this.cities = cities;
+            this.offsets = offsets;
+            this.fares = fares;
+            this.names = names;
+            hash = 31 * (31 * Arrays.hashCode(cities) + Arrays.hashCode(offsets)) + Arrays.hashCode(fares);
+        }
+
+        static Shape direct(UnifiedScheduleDTO schedule, CityInterner cities) {
+            int duration = schedule.getTimes().getDurationMinutes();
+            if (duration > Short.MAX_VALUE) return null;
+            return new Shape(
+                    new int[]{cities.intern(schedule.getStart()), cities.intern(schedule.getDestination())},
+                    new int[]{0, 0, duration, duration},
+                    new double[]{0, schedule.getFare()},
+                    new String[]{schedule.getStart(), schedule.getDestination()});
+        }
+
+        /**
+         * The trip with its intermediate stops, or null if the stop times or
+         * fares contradict the schedule
+         */
+        static Shape callingPattern(UnifiedScheduleDTO schedule, List<TrainStop> stops, CityInterner cities) {
+            ScheduleTimes times = schedule.getTimes();
+            int leave = times.getDepartureMinute();
+            int reach = times.getDurationMinutes();
+            double total = schedule.getFare();
+            String origin = CityInterner.normalize(schedule.getStart());
+            String destination = CityInterner.normalize(schedule.getDestination());
+
+            List<TrainStop> calls = new ArrayList<>(stops.size());
+            int[] offsets = new int[2 * (stops.size() + 2)];
+            int previous = 0;
+            double previousFare = 0;
+            for (TrainStop stop : stops) {
+                String station = CityInterner.normalize(stop.getStation());
+                // Some feeds list the terminals among the stops
+                if (station.isEmpty() || station.equals(origin) || station.equals(destination)) continue;
+
+                int in = TimeCodec.parseTime(stop.getArrivalTime());
+                int out = TimeCodec.parseTime(stop.getDepartureTime());
+                if (in == TimeCodec.INVALID) in = out;
+                if (out == TimeCodec.INVALID) out = in;
+                if (in == TimeCodec.INVALID) return null;
+                in = unroll(in - leave, previous);
+                out = unroll(out - leave, in);
+
+                double cumulative = stop.getCumulativeFare();
+                if (cumulative < previousFare || cumulative > total) return null;
+
+                calls.add(stop);
+                offsets[2 * calls.size()] = in;
+                offsets[2 * calls.size() + 1] = out;
+                previous = out;
+                previousFare = cumulative;
+            }
+            if (calls.isEmpty() || previous > reach || reach > Short.MAX_VALUE) return null;
+            // A feed without fares would make every segment but the last free
+            if (total > 0 && calls.get(0).getCumulativeFare() <= 0) return null;
+
+            int count = calls.size() + 2;
+            int[] ids = new int[count];
+            double[] fares = new double[count];
+            String[] names = new String[count];
+            ids[0] = cities.intern(schedule.getStart());
+            names[0] = schedule.getStart();
+            for (int i = 0; i < calls.size(); i++) {
+                TrainStop stop = calls.get(i);
+                ids[i + 1] = cities.intern(stop.getStation());
+                names[i + 1] = stop.getStation();
+                fares[i + 1] = stop.getCumulativeFare();
+            }
+            ids[count - 1] = cities.intern(schedule.getDestination());
+            names[count - 1] = schedule.getDestination();
+            fares[count - 1] = total;
+            offsets = Arrays.copyOf(offsets, 2 * count);
+            offsets[2 * count - 2] = reach;
+            offsets[2 * count - 1] = reach;
+            return new Shape(ids, offsets, fares, names);
+        }
+
+        // Minutes from the origin departure to the first time with this clock offset at or after a point
+        private static int unroll(int offsetOfDay, int notBefore) {
+            int offset = Math.floorMod(offsetOfDay, TimeCodec.MINUTES_PER_DAY)
+                    + (notBefore / TimeCodec.MINUTES_PER_DAY) * TimeCodec.MINUTES_PER_DAY;
+            return offset < notBefore ? offset + TimeCodec.MINUTES_PER_DAY : offset;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Shape)) return false;
+            Shape that = (Shape) o;
+            return hash == that.hash
+                    && Arrays.equals(cities, that.cities)
+                    && Arrays.equals(offsets, that.offsets)
+                    && Arrays.equals(fares, that.fares);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -9,6 +9,7 @@ import androidx.navigation.fragment.NavHostFragment;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.siyam.travelschedulemanager.R;
 import com.siyam.travelschedulemanager.data.firebase.AuthRepository;
+import com.siyam.travelschedulemanager.data.remote.RetrofitClient;
 import com.siyam.travelschedulemanager.ui.auth.LoginActivity;
 
 public class DeveloperDashboardActivity extends AppCompatActivity {
@@ -56,4 +57,12 @@ public class DeveloperDashboardActivity extends AppCompatActivity {
             finish();
         }
     }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (!isChangingConfigurations()) {
+            RetrofitClient.logMetrics();
+        }
+    }
 }
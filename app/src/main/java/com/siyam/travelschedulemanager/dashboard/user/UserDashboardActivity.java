@@ -10,6 +10,7 @@ import androidx.navigation.fragment.NavHostFragment;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.siyam.travelschedulemanager.R;
 import com.siyam.travelschedulemanager.data.firebase.AuthRepository;
+import com.siyam.travelschedulemanager.data.remote.RetrofitClient;
 import com.siyam.travelschedulemanager.ui.auth.LoginActivity;
 import com.siyam.travelschedulemanager.viewmodel.AuthViewModel;
 
@@ -67,4 +68,12 @@ public class UserDashboardActivity extends AppCompatActivity {
             finish();
         }
     }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (!isChangingConfigurations()) {
+            RetrofitClient.logMetrics();
+        }
+    }
 }
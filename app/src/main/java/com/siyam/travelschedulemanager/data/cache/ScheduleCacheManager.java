@@ -4,41 +4,49 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.util.Log;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import com.siyam.travelschedulemanager.data.remote.dto.BusScheduleDTO;
 import com.siyam.travelschedulemanager.data.remote.dto.TrainScheduleDTO;
 import com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO;
 
-import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Cache manager for offline data storage
- * Stores API responses locally for offline access
+ * Stores API responses in an indexed SQLite store (see ScheduleDatabase);
+ * SharedPreferences only keeps the small bookkeeping values.
+ *
+ * All cache reads and writes touch the disk, so call them off the main thread.
  */
 public class ScheduleCacheManager {
     private static final String TAG = "ScheduleCacheManager";
     private static final String PREF_NAME = "schedule_cache";
-    private static final String KEY_BUS_SCHEDULES = "bus_schedules";
-    private static final String KEY_TRAIN_SCHEDULES = "train_schedules";
-    private static final String KEY_UNIFIED_SCHEDULES = "unified_schedules";
+    // Version 1 kept whole JSON lists under these keys
+    private static final String LEGACY_KEY_BUS_SCHEDULES = "bus_schedules";
+    private static final String LEGACY_KEY_TRAIN_SCHEDULES = "train_schedules";
+    private static final String LEGACY_KEY_UNIFIED_SCHEDULES = "unified_schedules";
     private static final String KEY_LAST_UPDATE = "last_update";
     private static final String KEY_CACHE_VERSION = "cache_version";
-    private static final int CURRENT_CACHE_VERSION = 1;
+    private static final String KEY_SYNC_VERSION = "sync_version";
+    private static final String KEY_ETAG_PREFIX = "etag_";
+    private static final int CURRENT_CACHE_VERSION = 2;
     
     // Cache validity: 24 hours
     private static final long CACHE_VALIDITY_MS = 24 * 60 * 60 * 1000;
+
+    // Resources tracked with their own ETag
+    public static final String RESOURCE_BUS = "bus";
+    public static final String RESOURCE_TRAIN = "train";
+    public static final String RESOURCE_UNIFIED = "unified";
     
     private static ScheduleCacheManager instance;
     private final SharedPreferences preferences;
-    private final Gson gson;
+    private final ScheduleDatabase database;
 
     private ScheduleCacheManager(Context context) {
         this.preferences = context.getApplicationContext()
                 .getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        this.gson = new Gson();
+        this.database = new ScheduleDatabase(context);
         
         // Check cache version and clear if outdated
         checkCacheVersion();
@@ -52,15 +60,33 @@ public class ScheduleCacheManager {
     }
 
     /**
-     * Cache bus schedules
+     * Cache bus schedules (full refresh: rows no longer on the server are removed)
      */
     public void cacheBusSchedules(List<BusScheduleDTO> schedules) {
+        cacheBusSchedules(schedules, null);
+    }
+
+    /**
+     * Cache train schedules (full refresh: rows no longer on the server are removed)
+     */
+    public void cacheTrainSchedules(List<TrainScheduleDTO> schedules) {
+        cacheTrainSchedules(schedules, null);
+    }
+
+    /**
+     * Cache unified schedules (full refresh: rows no longer on the server are removed)
+     */
+    public void cacheUnifiedSchedules(List<UnifiedScheduleDTO> schedules) {
+        cacheUnifiedSchedules(schedules, null, 0);
+    }
+
+    /**
+     * Cache bus schedules and remember the ETag they were served with
+     */
+    public void cacheBusSchedules(List<BusScheduleDTO> schedules, String etag) {
         try {
-            String json = gson.toJson(schedules);
-            preferences.edit()
-                    .putString(KEY_BUS_SCHEDULES, json)
-                    .putLong(KEY_LAST_UPDATE, System.currentTimeMillis())
-                    .apply();
+            database.upsertBusSchedules(schedules, true);
+            markUpdated(RESOURCE_BUS, etag);
             Log.d(TAG, "Cached " + schedules.size() + " bus schedules");
         } catch (Exception e) {
             Log.e(TAG, "Error caching bus schedules", e);
@@ -68,15 +94,12 @@ public class ScheduleCacheManager {
     }
 
     /**
-     * Cache train schedules
+     * Cache train schedules and remember the ETag they were served with
      */
-    public void cacheTrainSchedules(List<TrainScheduleDTO> schedules) {
+    public void cacheTrainSchedules(List<TrainScheduleDTO> schedules, String etag) {
         try {
-            String json = gson.toJson(schedules);
-            preferences.edit()
-                    .putString(KEY_TRAIN_SCHEDULES, json)
-                    .putLong(KEY_LAST_UPDATE, System.currentTimeMillis())
-                    .apply();
+            database.upsertTrainSchedules(schedules, true);
+            markUpdated(RESOURCE_TRAIN, etag);
             Log.d(TAG, "Cached " + schedules.size() + " train schedules");
         } catch (Exception e) {
             Log.e(TAG, "Error caching train schedules", e);
@@ -84,33 +107,102 @@ public class ScheduleCacheManager {
     }
 
     /**
-     * Cache unified schedules
+     * Cache unified schedules from a full download, with the ETag and sync version
+     * it was served with (0 if the server did not send one)
      */
-    public void cacheUnifiedSchedules(List<UnifiedScheduleDTO> schedules) {
+    public void cacheUnifiedSchedules(List<UnifiedScheduleDTO> schedules, String etag, long syncVersion) {
         try {
-            String json = gson.toJson(schedules);
-            preferences.edit()
-                    .putString(KEY_UNIFIED_SCHEDULES, json)
-                    .putLong(KEY_LAST_UPDATE, System.currentTimeMillis())
-                    .apply();
-            Log.d(TAG, "Cached " + schedules.size() + " unified schedules");
+            database.upsertUnifiedSchedules(schedules, true);
+            // Metadata is only written once the rows are committed
+            markUpdated(RESOURCE_UNIFIED, etag);
+            preferences.edit().putLong(KEY_SYNC_VERSION, syncVersion).apply();
+            Log.d(TAG, "Cached " + schedules.size() + " unified schedules (version " + syncVersion + ")");
         } catch (Exception e) {
             Log.e(TAG, "Error caching unified schedules", e);
         }
     }
 
+    /**
+     * Start a streamed full download of unified schedules.
+     * Batches are written as they arrive and the rows the server dropped are
+     * swept in finishUnifiedIngest; an abandoned ingest only leaves merged rows.
+     * Unlike the other writes, the ingest methods throw on database errors.
+     * @return stamp to pass to the other ingest methods
+     */
+    public long beginUnifiedIngest() {
+        return System.currentTimeMillis();
+    }
+
+    public void ingestUnifiedBatch(List<UnifiedScheduleDTO> batch, long stamp) {
+        database.writeUnifiedBatch(batch, stamp);
+    }
+
+    public void finishUnifiedIngest(long stamp, int count, String etag, long syncVersion) {
+        database.sweepUnified(stamp);
+        markUpdated(RESOURCE_UNIFIED, etag);
+        preferences.edit().putLong(KEY_SYNC_VERSION, syncVersion).apply();
+        Log.d(TAG, "Ingested " + count + " unified schedules (version " + syncVersion + ")");
+    }
+
+    /**
+     * Merge one batch of the changes feed and advance the sync cursor.
+     * The unified ETag is dropped, since it no longer describes the stored rows.
+     */
+    public void applyUnifiedChanges(List<UnifiedScheduleDTO> upserts, List<UnifiedScheduleDTO> deletes,
+                                    long syncVersion) {
+        try {
+            database.applyUnifiedChanges(upserts, deletes);
+            markUpdated(RESOURCE_UNIFIED, null);
+            preferences.edit().putLong(KEY_SYNC_VERSION, syncVersion).apply();
+            Log.d(TAG, "Applied " + upserts.size() + " upserts and " + deletes.size()
+                    + " deletes (version " + syncVersion + ")");
+        } catch (Exception e) {
+            Log.e(TAG, "Error applying schedule changes", e);
+        }
+    }
+
+    /**
+     * Sync version of the cached unified schedules, or 0 if unknown
+     */
+    public long getSyncVersion() {
+        return preferences.getLong(KEY_SYNC_VERSION, 0);
+    }
+
+    /**
+     * ETag of the cached copy of a resource, or null if it must be downloaded in full
+     */
+    public String getETag(String resource) {
+        return preferences.getString(KEY_ETAG_PREFIX + resource, null);
+    }
+
+    /**
+     * Insert or update individual unified schedules, leaving other rows untouched
+     */
+    public void upsertUnifiedSchedules(List<UnifiedScheduleDTO> schedules) {
+        try {
+            database.upsertUnifiedSchedules(schedules, false);
+            markUpdated(RESOURCE_UNIFIED, null);
+            Log.d(TAG, "Upserted " + schedules.size() + " unified schedules");
+        } catch (Exception e) {
+            Log.e(TAG, "Error upserting unified schedules", e);
+        }
+    }
+
     /**
      * Get cached bus schedules
      */
     public List<BusScheduleDTO> getCachedBusSchedules() {
+        return getCachedBusSchedules(0, 0);
+    }
+
+    /**
+     * Get one page of cached bus schedules ordered by departure (limit <= 0 for all)
+     */
+    public List<BusScheduleDTO> getCachedBusSchedules(int offset, int limit) {
         try {
-            String json = preferences.getString(KEY_BUS_SCHEDULES, null);
-            if (json != null) {
-                Type listType = new TypeToken<List<BusScheduleDTO>>(){}.getType();
-                List<BusScheduleDTO> schedules = gson.fromJson(json, listType);
-                Log.d(TAG, "Retrieved " + schedules.size() + " cached bus schedules");
-                return schedules;
-            }
+            List<BusScheduleDTO> schedules = database.queryBusSchedules(offset, limit);
+            Log.d(TAG, "Retrieved " + schedules.size() + " cached bus schedules");
+            return schedules;
         } catch (Exception e) {
             Log.e(TAG, "Error retrieving cached bus schedules", e);
         }
@@ -121,14 +213,17 @@ public class ScheduleCacheManager {
      * Get cached train schedules
      */
     public List<TrainScheduleDTO> getCachedTrainSchedules() {
+        return getCachedTrainSchedules(0, 0);
+    }
+
+    /**
+     * Get one page of cached train schedules ordered by departure (limit <= 0 for all)
+     */
+    public List<TrainScheduleDTO> getCachedTrainSchedules(int offset, int limit) {
         try {
-            String json = preferences.getString(KEY_TRAIN_SCHEDULES, null);
-            if (json != null) {
-                Type listType = new TypeToken<List<TrainScheduleDTO>>(){}.getType();
-                List<TrainScheduleDTO> schedules = gson.fromJson(json, listType);
-                Log.d(TAG, "Retrieved " + schedules.size() + " cached train schedules");
-                return schedules;
-            }
+            List<TrainScheduleDTO> schedules = database.queryTrainSchedules(offset, limit);
+            Log.d(TAG, "Retrieved " + schedules.size() + " cached train schedules");
+            return schedules;
         } catch (Exception e) {
             Log.e(TAG, "Error retrieving cached train schedules", e);
         }
@@ -139,20 +234,40 @@ public class ScheduleCacheManager {
      * Get cached unified schedules
      */
     public List<UnifiedScheduleDTO> getCachedUnifiedSchedules() {
+        return getCachedUnifiedSchedules(0, 0);
+    }
+
+    /**
+     * Get one page of cached unified schedules ordered by departure (limit <= 0 for all)
+     */
+    public List<UnifiedScheduleDTO> getCachedUnifiedSchedules(int offset, int limit) {
         try {
-            String json = preferences.getString(KEY_UNIFIED_SCHEDULES, null);
-            if (json != null) {
-                Type listType = new TypeToken<List<UnifiedScheduleDTO>>(){}.getType();
-                List<UnifiedScheduleDTO> schedules = gson.fromJson(json, listType);
-                Log.d(TAG, "Retrieved " + schedules.size() + " cached unified schedules");
-                return schedules;
-            }
+            List<UnifiedScheduleDTO> schedules = database.queryUnifiedSchedules(offset, limit);
+            Log.d(TAG, "Retrieved " + schedules.size() + " cached unified schedules");
+            return schedules;
         } catch (Exception e) {
             Log.e(TAG, "Error retrieving cached unified schedules", e);
         }
         return new ArrayList<>();
     }
 
+    /**
+     * Search cached unified schedules between two cities using the route index
+     */
+    public List<UnifiedScheduleDTO> searchCachedSchedules(String start, String destination) {
+        if (start == null || destination == null) {
+            return new ArrayList<>();
+        }
+        try {
+            List<UnifiedScheduleDTO> schedules = database.queryUnifiedSchedules(start, destination);
+            Log.d(TAG, "Found " + schedules.size() + " cached schedules for " + start + " -> " + destination);
+            return schedules;
+        } catch (Exception e) {
+            Log.e(TAG, "Error searching cached schedules", e);
+        }
+        return new ArrayList<>();
+    }
+
     /**
      * Check if cache is still valid
      */
@@ -168,10 +283,8 @@ public class ScheduleCacheManager {
      * Check if cache has data
      */
     public boolean hasCachedData() {
-        boolean hasBus = preferences.contains(KEY_BUS_SCHEDULES);
-        boolean hasTrain = preferences.contains(KEY_TRAIN_SCHEDULES);
-        boolean hasUnified = preferences.contains(KEY_UNIFIED_SCHEDULES);
-        return hasBus || hasTrain || hasUnified;
+        // Every write stamps the update time, so no table needs to be touched here
+        return preferences.contains(KEY_LAST_UPDATE);
     }
 
     /**
@@ -185,15 +298,29 @@ public class ScheduleCacheManager {
      * Clear all cached data
      */
     public void clearCache() {
+        try {
+            database.clear();
+        } catch (Exception e) {
+            Log.e(TAG, "Error clearing schedule database", e);
+        }
         preferences.edit()
-                .remove(KEY_BUS_SCHEDULES)
-                .remove(KEY_TRAIN_SCHEDULES)
-                .remove(KEY_UNIFIED_SCHEDULES)
                 .remove(KEY_LAST_UPDATE)
+                .remove(KEY_SYNC_VERSION)
+                .remove(KEY_ETAG_PREFIX + RESOURCE_BUS)
+                .remove(KEY_ETAG_PREFIX + RESOURCE_TRAIN)
+                .remove(KEY_ETAG_PREFIX + RESOURCE_UNIFIED)
                 .apply();
         Log.i(TAG, "Cache cleared");
     }
 
+    // A null ETag removes the stored one
+    private void markUpdated(String resource, String etag) {
+        preferences.edit()
+                .putLong(KEY_LAST_UPDATE, System.currentTimeMillis())
+                .putString(KEY_ETAG_PREFIX + resource, etag)
+                .apply();
+    }
+
     /**
      * Check cache version and clear if outdated
      */
@@ -201,8 +328,12 @@ public class ScheduleCacheManager {
         int savedVersion = preferences.getInt(KEY_CACHE_VERSION, 0);
         if (savedVersion != CURRENT_CACHE_VERSION) {
             Log.i(TAG, "Cache version mismatch. Clearing old cache.");
-            clearCache();
+            // Drop the old JSON blobs; the database starts empty and refills on the next fetch
             preferences.edit()
+                    .remove(LEGACY_KEY_BUS_SCHEDULES)
+                    .remove(LEGACY_KEY_TRAIN_SCHEDULES)
+                    .remove(LEGACY_KEY_UNIFIED_SCHEDULES)
+                    .remove(KEY_LAST_UPDATE)
                     .putInt(KEY_CACHE_VERSION, CURRENT_CACHE_VERSION)
                     .apply();
         }
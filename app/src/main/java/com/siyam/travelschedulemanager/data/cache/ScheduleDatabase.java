@@ -0,0 +1,405 @@
+package com.siyam.travelschedulemanager.data.cache;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.siyam.travelschedulemanager.data.remote.dto.BusScheduleDTO;
+import com.siyam.travelschedulemanager.data.remote.dto.TrainScheduleDTO;
+import com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO;
+import com.siyam.travelschedulemanager.util.StringPool;
+import com.siyam.travelschedulemanager.util.TimeCodec;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * On-device timetable store.
+ *
+ * One table per schedule kind, each keyed by its natural key (name, start,
+ * destination, start time) so a refresh is a series of upserts rather than a
+ * rewrite of everything. Rows are indexed on (start, destination), departure
+ * minute and type; city columns use NOCASE collation so lookups need no
+ * lowercased copy.
+ *
+ * All methods hit the disk and must be called off the main thread.
+ */
+class ScheduleDatabase extends SQLiteOpenHelper {
+    private static final String DATABASE_NAME = "schedule_cache.db";
+    private static final int DATABASE_VERSION = 1;
+
+    static final String TABLE_BUS = "bus_schedules";
+    static final String TABLE_TRAIN = "train_schedules";
+    static final String TABLE_UNIFIED = "unified_schedules";
+
+    private static final String COL_TYPE = "type";
+    private static final String COL_NAME = "name";
+    private static final String COL_START = "start";
+    private static final String COL_DESTINATION = "destination";
+    private static final String COL_START_TIME = "start_time";
+    private static final String COL_ARRIVAL_TIME = "arrival_time";
+    private static final String COL_DEPARTURE_MINUTE = "departure_minute";
+    private static final String COL_FARE = "fare";
+    private static final String COL_DURATION = "duration";
+    private static final String COL_OFF_DAY = "off_day";
+    private static final String COL_STOPS = "stops";
+    private static final String COL_SYNC_STAMP = "sync_stamp";
+
+    private static final String[] BUS_COLUMNS = {
+            COL_NAME, COL_START, COL_DESTINATION, COL_START_TIME, COL_ARRIVAL_TIME, COL_FARE, COL_DURATION
+    };
+    private static final String[] TRAIN_COLUMNS = {
+            COL_NAME, COL_START, COL_DESTINATION, COL_START_TIME, COL_ARRIVAL_TIME, COL_FARE, COL_DURATION,
+            COL_OFF_DAY, COL_STOPS
+    };
+    private static final String[] UNIFIED_COLUMNS = {
+            COL_TYPE, COL_NAME, COL_START, COL_DESTINATION, COL_START_TIME, COL_ARRIVAL_TIME, COL_FARE,
+            COL_DURATION, COL_OFF_DAY
+    };
+
+    private static final String ORDER_BY_DEPARTURE = COL_DEPARTURE_MINUTE + ", " + COL_NAME;
+    private static final Type STOPS_TYPE = new TypeToken<List<TrainScheduleDTO.TrainStop>>(){}.getType();
+
+    private final Gson gson = new Gson();
+
+    ScheduleDatabase(Context context) {
+        super(context.getApplicationContext(), DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_BUS + " ("
+                + COL_NAME + " TEXT NOT NULL, "
+                + COL_START + " TEXT NOT NULL COLLATE NOCASE, "
+                + COL_DESTINATION + " TEXT NOT NULL COLLATE NOCASE, "
+                + COL_START_TIME + " TEXT NOT NULL, "
+                + COL_ARRIVAL_TIME + " TEXT, "
+                + COL_DEPARTURE_MINUTE + " INTEGER NOT NULL, "
+                + COL_FARE + " REAL NOT NULL, "
+                + COL_DURATION + " TEXT, "
+                + COL_SYNC_STAMP + " INTEGER NOT NULL, "
+                + "PRIMARY KEY (" + COL_NAME + ", " + COL_START + ", " + COL_DESTINATION + ", " + COL_START_TIME + "))");
+
+        db.execSQL("CREATE TABLE " + TABLE_TRAIN + " ("
+                + COL_NAME + " TEXT NOT NULL, "
+                + COL_START + " TEXT NOT NULL COLLATE NOCASE, "
+                + COL_DESTINATION + " TEXT NOT NULL COLLATE NOCASE, "
+                + COL_START_TIME + " TEXT NOT NULL, "
+                + COL_ARRIVAL_TIME + " TEXT, "
+                + COL_DEPARTURE_MINUTE + " INTEGER NOT NULL, "
+                + COL_FARE + " REAL NOT NULL, "
+                + COL_DURATION + " TEXT, "
+                + COL_OFF_DAY + " TEXT, "
+                + COL_STOPS + " TEXT, "
+                + COL_SYNC_STAMP + " INTEGER NOT NULL, "
+                + "PRIMARY KEY (" + COL_NAME + ", " + COL_START + ", " + COL_DESTINATION + ", " + COL_START_TIME + "))");
+
+        db.execSQL("CREATE TABLE " + TABLE_UNIFIED + " ("
+                + COL_TYPE + " TEXT NOT NULL COLLATE NOCASE, "
+                + COL_NAME + " TEXT NOT NULL, "
+                + COL_START + " TEXT NOT NULL COLLATE NOCASE, "
+                + COL_DESTINATION + " TEXT NOT NULL COLLATE NOCASE, "
+                + COL_START_TIME + " TEXT NOT NULL, "
+                + COL_ARRIVAL_TIME + " TEXT, "
+                + COL_DEPARTURE_MINUTE + " INTEGER NOT NULL, "
+                + COL_FARE + " REAL NOT NULL, "
+                + COL_DURATION + " TEXT, "
+                + COL_OFF_DAY + " TEXT, "
+                + COL_SYNC_STAMP + " INTEGER NOT NULL, "
+                + "PRIMARY KEY (" + COL_TYPE + ", " + COL_NAME + ", " + COL_START + ", " + COL_DESTINATION + ", "
+                + COL_START_TIME + "))");
+
+        for (String table : new String[]{TABLE_BUS, TABLE_TRAIN, TABLE_UNIFIED}) {
+            db.execSQL("CREATE INDEX idx_" + table + "_route ON " + table
+                    + " (" + COL_START + ", " + COL_DESTINATION + ", " + COL_DEPARTURE_MINUTE + ")");
+            db.execSQL("CREATE INDEX idx_" + table + "_departure ON " + table + " (" + COL_DEPARTURE_MINUTE + ")");
+        }
+        db.execSQL("CREATE INDEX idx_" + TABLE_UNIFIED + "_type ON " + TABLE_UNIFIED
+                + " (" + COL_TYPE + ", " + COL_DEPARTURE_MINUTE + ")");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // The store is only a cache of server data, so rebuild instead of migrating
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_BUS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_TRAIN);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_UNIFIED);
+        onCreate(db);
+    }
+
+    // ==================== Writes ====================
+
+    /**
+     * Upsert bus schedules. With replaceAll, rows missing from the list are deleted.
+     */
+    void upsertBusSchedules(List<BusScheduleDTO> schedules, boolean replaceAll) {
+        SQLiteDatabase db = getWritableDatabase();
+        long stamp = System.currentTimeMillis();
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues();
+            for (BusScheduleDTO schedule : schedules) {
+                if (!hasKey(schedule.getBusName(), schedule.getStart(), schedule.getDestination(), schedule.getStartTime())) {
+                    continue;
+                }
+                values.clear();
+                putCommon(values, schedule.getBusName(), schedule.getStart(), schedule.getDestination(),
+                        schedule.getStartTime(), schedule.getArrivalTime(), schedule.getFare(), schedule.getDuration(), stamp);
+                db.insertWithOnConflict(TABLE_BUS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            if (replaceAll) {
+                deleteOlderThan(db, TABLE_BUS, stamp);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Upsert train schedules. With replaceAll, rows missing from the list are deleted.
+     */
+    void upsertTrainSchedules(List<TrainScheduleDTO> schedules, boolean replaceAll) {
+        SQLiteDatabase db = getWritableDatabase();
+        long stamp = System.currentTimeMillis();
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues();
+            for (TrainScheduleDTO schedule : schedules) {
+                if (!hasKey(schedule.getTrainName(), schedule.getStart(), schedule.getDestination(), schedule.getStartTime())) {
+                    continue;
+                }
+                values.clear();
+                putCommon(values, schedule.getTrainName(), schedule.getStart(), schedule.getDestination(),
+                        schedule.getStartTime(), schedule.getArrivalTime(), schedule.getFare(), schedule.getDuration(), stamp);
+                values.put(COL_OFF_DAY, schedule.getOffDay());
+                values.put(COL_STOPS, schedule.getStops() != null ? gson.toJson(schedule.getStops()) : null);
+                db.insertWithOnConflict(TABLE_TRAIN, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            if (replaceAll) {
+                deleteOlderThan(db, TABLE_TRAIN, stamp);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Upsert unified schedules. With replaceAll, rows missing from the list are deleted.
+     */
+    void upsertUnifiedSchedules(List<UnifiedScheduleDTO> schedules, boolean replaceAll) {
+        SQLiteDatabase db = getWritableDatabase();
+        long stamp = System.currentTimeMillis();
+        db.beginTransaction();
+        try {
+            writeUnified(db, schedules, stamp);
+            if (replaceAll) {
+                deleteOlderThan(db, TABLE_UNIFIED, stamp);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Write one batch of a streamed full download, stamped with the download's stamp
+     */
+    void writeUnifiedBatch(List<UnifiedScheduleDTO> batch, long stamp) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            writeUnified(db, batch, stamp);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * End a streamed full download: rows it did not write are gone from the server
+     */
+    void sweepUnified(long stamp) {
+        deleteOlderThan(getWritableDatabase(), TABLE_UNIFIED, stamp);
+    }
+
+    /**
+     * Apply one batch of the changes feed atomically: upserts, then tombstones
+     */
+    void applyUnifiedChanges(List<UnifiedScheduleDTO> upserts, List<UnifiedScheduleDTO> deletes) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            writeUnified(db, upserts, System.currentTimeMillis());
+            String where = COL_TYPE + " = ? AND " + COL_NAME + " = ? AND " + COL_START + " = ? AND "
+                    + COL_DESTINATION + " = ? AND " + COL_START_TIME + " = ?";
+            for (UnifiedScheduleDTO tombstone : deletes) {
+                if (tombstone.getType() == null || !hasKey(tombstone.getName(), tombstone.getStart(),
+                        tombstone.getDestination(), tombstone.getStartTime())) {
+                    continue;
+                }
+                db.delete(TABLE_UNIFIED, where, new String[]{tombstone.getType(), tombstone.getName(),
+                        tombstone.getStart().trim(), tombstone.getDestination().trim(), tombstone.getStartTime()});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    void clear() {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_BUS, null, null);
+            db.delete(TABLE_TRAIN, null, null);
+            db.delete(TABLE_UNIFIED, null, null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // ==================== Reads ====================
+
+    /**
+     * Bus schedules ordered by departure; limit <= 0 reads every row
+     */
+    List<BusScheduleDTO> queryBusSchedules(int offset, int limit) {
+        List<BusScheduleDTO> schedules = new ArrayList<>();
+        StringPool pool = new StringPool();
+        try (Cursor cursor = getReadableDatabase().query(TABLE_BUS, BUS_COLUMNS, null, null,
+                null, null, ORDER_BY_DEPARTURE, limitClause(offset, limit))) {
+            while (cursor.moveToNext()) {
+                schedules.add(new BusScheduleDTO(pool.intern(cursor.getString(0)), pool.intern(cursor.getString(1)),
+                        pool.intern(cursor.getString(2)), pool.intern(cursor.getString(3)),
+                        pool.intern(cursor.getString(4)), cursor.getDouble(5), pool.intern(cursor.getString(6))));
+            }
+        }
+        return schedules;
+    }
+
+    /**
+     * Train schedules ordered by departure; limit <= 0 reads every row
+     */
+    List<TrainScheduleDTO> queryTrainSchedules(int offset, int limit) {
+        List<TrainScheduleDTO> schedules = new ArrayList<>();
+        StringPool pool = new StringPool();
+        try (Cursor cursor = getReadableDatabase().query(TABLE_TRAIN, TRAIN_COLUMNS, null, null,
+                null, null, ORDER_BY_DEPARTURE, limitClause(offset, limit))) {
+            while (cursor.moveToNext()) {
+                TrainScheduleDTO schedule = new TrainScheduleDTO(pool.intern(cursor.getString(0)),
+                        pool.intern(cursor.getString(1)), pool.intern(cursor.getString(2)),
+                        pool.intern(cursor.getString(3)), pool.intern(cursor.getString(4)), cursor.getDouble(5),
+                        pool.intern(cursor.getString(6)), pool.intern(cursor.getString(7)));
+                String json = cursor.getString(8);
+                if (json != null) {
+                    List<TrainScheduleDTO.TrainStop> stops = gson.fromJson(json, STOPS_TYPE);
+                    for (TrainScheduleDTO.TrainStop stop : stops) {
+                        stop.setStation(pool.intern(stop.getStation()));
+                        stop.setArrivalTime(pool.intern(stop.getArrivalTime()));
+                        stop.setDepartureTime(pool.intern(stop.getDepartureTime()));
+                    }
+                    schedule.setStops(stops);
+                }
+                schedules.add(schedule);
+            }
+        }
+        return schedules;
+    }
+
+    /**
+     * Unified schedules ordered by departure; limit <= 0 reads every row
+     */
+    List<UnifiedScheduleDTO> queryUnifiedSchedules(int offset, int limit) {
+        return queryUnified(null, null, limitClause(offset, limit));
+    }
+
+    /**
+     * Unified schedules between two cities (case-insensitive), served by the route index
+     */
+    List<UnifiedScheduleDTO> queryUnifiedSchedules(String start, String destination) {
+        return queryUnified(COL_START + " = ? AND " + COL_DESTINATION + " = ?",
+                new String[]{start.trim(), destination.trim()}, null);
+    }
+
+    int count(String table) {
+        try (Cursor cursor = getReadableDatabase().rawQuery("SELECT COUNT(*) FROM " + table, null)) {
+            return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+        }
+    }
+
+    private List<UnifiedScheduleDTO> queryUnified(String selection, String[] args, String limit) {
+        List<UnifiedScheduleDTO> schedules = new ArrayList<>();
+        StringPool pool = new StringPool();
+        try (Cursor cursor = getReadableDatabase().query(TABLE_UNIFIED, UNIFIED_COLUMNS, selection, args,
+                null, null, ORDER_BY_DEPARTURE, limit)) {
+            while (cursor.moveToNext()) {
+                UnifiedScheduleDTO schedule = new UnifiedScheduleDTO();
+                schedule.setType(pool.intern(cursor.getString(0)));
+                schedule.setName(pool.intern(cursor.getString(1)));
+                schedule.setStart(pool.intern(cursor.getString(2)));
+                schedule.setDestination(pool.intern(cursor.getString(3)));
+                schedule.setStartTime(pool.intern(cursor.getString(4)));
+                schedule.setArrivalTime(pool.intern(cursor.getString(5)));
+                schedule.setFare(cursor.getDouble(6));
+                schedule.setDuration(pool.intern(cursor.getString(7)));
+                schedule.setOffDay(pool.intern(cursor.getString(8)));
+                schedules.add(schedule);
+            }
+        }
+        return schedules;
+    }
+
+    // ==================== Helpers ====================
+
+    private static void putCommon(ContentValues values, String name, String start, String destination,
+                                  String startTime, String arrivalTime, double fare, String duration, long stamp) {
+        values.put(COL_NAME, name);
+        values.put(COL_START, start.trim());
+        values.put(COL_DESTINATION, destination.trim());
+        values.put(COL_START_TIME, startTime);
+        values.put(COL_ARRIVAL_TIME, arrivalTime);
+        // Unparseable times sort last
+        int departure = TimeCodec.parseTime(startTime);
+        values.put(COL_DEPARTURE_MINUTE, departure != TimeCodec.INVALID ? departure : TimeCodec.MINUTES_PER_DAY);
+        values.put(COL_FARE, fare);
+        values.put(COL_DURATION, duration);
+        values.put(COL_SYNC_STAMP, stamp);
+    }
+
+    private static void writeUnified(SQLiteDatabase db, List<UnifiedScheduleDTO> schedules, long stamp) {
+        ContentValues values = new ContentValues();
+        for (UnifiedScheduleDTO schedule : schedules) {
+            if (schedule.getType() == null
+                    || !hasKey(schedule.getName(), schedule.getStart(), schedule.getDestination(), schedule.getStartTime())) {
+                continue;
+            }
+            values.clear();
+            putCommon(values, schedule.getName(), schedule.getStart(), schedule.getDestination(),
+                    schedule.getStartTime(), schedule.getArrivalTime(), schedule.getFare(), schedule.getDuration(), stamp);
+            values.put(COL_TYPE, schedule.getType());
+            values.put(COL_OFF_DAY, schedule.getOffDay());
+            db.insertWithOnConflict(TABLE_UNIFIED, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+        }
+    }
+
+    private static boolean hasKey(String name, String start, String destination, String startTime) {
+        return name != null && start != null && destination != null && startTime != null;
+    }
+
+    private static void deleteOlderThan(SQLiteDatabase db, String table, long stamp) {
+        db.delete(table, COL_SYNC_STAMP + " < ?", new String[]{String.valueOf(stamp)});
+    }
+
+    private static String limitClause(int offset, int limit) {
+        if (limit <= 0) return null;
+        return Math.max(offset, 0) + "," + limit;
+    }
+}
@@ -43,6 +43,19 @@ public class AuditLogRepository {
                 .get();
     }
 
+    /**
+     * Newest audit logs, kept current by a snapshot listener
+     * @param limit Maximum number of logs, or 0 for all
+     */
+    public LiveCollection<AuditLog> listenAuditLogs(int limit) {
+        Query query = db.collection(Constants.COLLECTION_AUDIT_LOGS)
+                .orderBy("timestamp", Query.Direction.DESCENDING);
+        if (limit > 0) {
+            query = query.limit(limit);
+        }
+        return new LiveCollection<>(query, document -> document.toObject(AuditLog.class));
+    }
+
     public Task<QuerySnapshot> getAuditLogsByUser(String userId) {
         return db.collection(Constants.COLLECTION_AUDIT_LOGS)
                 .whereEqualTo("userId", userId)
@@ -0,0 +1,374 @@
+package com.siyam.travelschedulemanager.data.firebase;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+import com.siyam.travelschedulemanager.model.BusRoute;
+import com.siyam.travelschedulemanager.model.RouteStop;
+import com.siyam.travelschedulemanager.model.TrainRoute;
+import com.siyam.travelschedulemanager.util.Constants;
+import com.siyam.travelschedulemanager.util.SuggestionTrie;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Autocomplete terms shared by every place and route field: the districts in
+ * Constants.BANGLADESH_CITIES, plus the bus and train names, train numbers,
+ * and cities and stations of the managed routes. Terms are ranked by how many
+ * routes mention them, and the district aliases in Constants.CITY_ALIASES
+ * lead to the current spelling.
+ *
+ * Each term is one document in the autocompleteData collection, keyed by its
+ * normalised form and holding the number of routes that mention it. Route
+ * writes adjust those counts in the same batch as the route itself, so the
+ * index never has to be rebuilt from the route collections. The device reads
+ * the collection once into a SuggestionTrie and answers every keystroke from
+ * memory; its own writes patch the loaded copy instead of reloading it.
+ * Until the collection is loaded the trie holds just the districts.
+ *
+ * Routes written before the index existed are counted once by a backfill,
+ * gated on the schemaVersion of a marker document rather than on the
+ * collection being empty: the first upgraded client to write a route makes
+ * the collection non-empty long before anyone has counted the older routes.
+ *
+ * Loads and writes run on the main thread, like the Firestore callbacks that
+ * drive them; getTrie() may be called from any thread.
+ */
+public class AutocompleteIndex {
+    private static final String TAG = "AutocompleteIndex";
+    static final String COLLECTION = "autocompleteData";
+    // Marker document recording which index version the counts were built for
+    private static final String COLLECTION_META = "autocompleteMeta";
+    private static final String DOCUMENT_META = "index";
+    private static final String FIELD_SCHEMA_VERSION = "schemaVersion";
+    // Bump to recount every route on the next load
+    private static final long SCHEMA_VERSION = 1;
+    private static final String COLLECTION_BUS_ROUTES = "busRoutes";
+    private static final String COLLECTION_TRAIN_ROUTES = "trainRoutes";
+    // Firestore's limit on writes per batch
+    private static final int MAX_BATCH_WRITES = 500;
+
+    private static AutocompleteIndex instance;
+
+    private final FirebaseFirestore db;
+    // Normalised term -> display form and route count, once loaded
+    private final Map<String, Term> terms = new HashMap<>();
+    private boolean loaded;
+    private Task<Void> loading;
+    // Rebuilt lazily after the counts change; guarded by this
+    private SuggestionTrie trie;
+
+    private AutocompleteIndex() {
+        this.db = FirebaseFirestore.getInstance();
+    }
+
+    public static synchronized AutocompleteIndex getInstance() {
+        if (instance == null) {
+            instance = new AutocompleteIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Terms of a bus route, keyed by normalised form
+     */
+    public static Map<String, String> termsOf(BusRoute route) {
+        Map<String, String> result = new LinkedHashMap<>();
+        if (route != null) {
+            put(result, route.getBusName());
+            put(result, route.getStart());
+            put(result, route.getDestination());
+        }
+        return result;
+    }
+
+    /**
+     * Terms of a train route, including every stop, keyed by normalised form
+     */
+    public static Map<String, String> termsOf(TrainRoute route) {
+        Map<String, String> result = new LinkedHashMap<>();
+        if (route != null) {
+            put(result, route.getTrainName());
+            put(result, route.getTrainNumber());
+            put(result, route.getStart());
+            put(result, route.getDestination());
+            if (route.getStops() != null) {
+                for (RouteStop stop : route.getStops()) {
+                    put(result, stop.getStation());
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void put(Map<String, String> result, String value) {
+        String key = SuggestionTrie.normalize(value);
+        if (!key.isEmpty() && !result.containsKey(key)) {
+            result.put(key, value.trim());
+        }
+    }
+
+    /**
+     * Add the count changes for a route going from one set of terms to another
+     */
+    public void stage(WriteBatch batch, Map<String, String> before, Map<String, String> after) {
+        stage((doc, fields) -> batch.set(doc, fields, SetOptions.merge()), before, after);
+    }
+
+    /**
+     * As stage(batch, ...), inside a transaction that read the route's stored terms
+     */
+    public void stage(Transaction transaction, Map<String, String> before, Map<String, String> after) {
+        stage((doc, fields) -> transaction.set(doc, fields, SetOptions.merge()), before, after);
+    }
+
+    private interface CountWriter {
+        void merge(DocumentReference doc, Map<String, Object> fields);
+    }
+
+    private void stage(CountWriter writer, Map<String, String> before, Map<String, String> after) {
+        for (Map.Entry<String, String> entry : after.entrySet()) {
+            if (!before.containsKey(entry.getKey())) {
+                writer.merge(document(entry.getKey()), fields(entry.getKey(), entry.getValue(), FieldValue.increment(1)));
+            }
+        }
+        for (Map.Entry<String, String> entry : before.entrySet()) {
+            if (!after.containsKey(entry.getKey())) {
+                writer.merge(document(entry.getKey()), fields(entry.getKey(), entry.getValue(), FieldValue.increment(-1)));
+            }
+        }
+    }
+
+    /**
+     * Commit a batch built with stage(), updating the loaded terms once it succeeds
+     */
+    public Task<Void> commit(WriteBatch batch, Map<String, String> before, Map<String, String> after) {
+        return batch.commit().addOnSuccessListener(unused -> applyLocally(before, after));
+    }
+
+    /**
+     * Terms with a word starting with the query, most used first.
+     * The first call loads the index; later calls complete immediately.
+     */
+    public Task<List<String>> suggest(String query, int limit) {
+        if (loaded) {
+            return Tasks.forResult(getTrie().suggest(query, limit));
+        }
+        return load().continueWith(task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            return getTrie().suggest(query, limit);
+        });
+    }
+
+    /**
+     * Start loading the route terms so they are ready for the first keystroke
+     */
+    public void preload() {
+        if (!loaded) {
+            load().addOnFailureListener(e -> Log.w(TAG, "Could not load autocomplete index", e));
+        }
+    }
+
+    /**
+     * The current trie, built on first use after a change
+     */
+    public synchronized SuggestionTrie getTrie() {
+        if (trie == null) {
+            // Districts always appear; a district named by routes also gets their count
+            Map<String, Term> merged = new HashMap<>();
+            for (String city : Constants.BANGLADESH_CITIES) {
+                merged.put(SuggestionTrie.normalize(city), new Term(city, 1));
+            }
+            for (Map.Entry<String, Term> entry : terms.entrySet()) {
+                Term city = merged.get(entry.getKey());
+                if (city != null) {
+                    city.count += entry.getValue().count;
+                } else {
+                    merged.put(entry.getKey(), entry.getValue());
+                }
+            }
+            Map<String, Integer> weights = new HashMap<>(merged.size());
+            for (Term term : merged.values()) {
+                weights.put(term.display, term.count);
+            }
+            trie = new SuggestionTrie(weights, Constants.CITY_ALIASES);
+        }
+        return trie;
+    }
+
+    private Task<Void> load() {
+        if (loading == null) {
+            long start = System.currentTimeMillis();
+            Task<DocumentSnapshot> metaTask = metaDocument().get();
+            Task<QuerySnapshot> termsTask = db.collection(COLLECTION).get();
+            loading = Tasks.whenAll(metaTask, termsTask).continueWithTask(task -> {
+                if (!task.isSuccessful()) {
+                    loading = null;
+                    return Tasks.forException(task.getException());
+                }
+                QuerySnapshot snapshot = termsTask.getResult();
+                Long schemaVersion = metaTask.getResult().getLong(FIELD_SCHEMA_VERSION);
+                if (schemaVersion == null || schemaVersion < SCHEMA_VERSION) {
+                    // Routes written before the index existed, or before this version of it
+                    return rebuild(snapshot);
+                }
+                synchronized (this) {
+                    terms.clear();
+                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                        String display = doc.getString("term");
+                        Long count = doc.getLong("routeCount");
+                        if (display != null && count != null && count > 0) {
+                            terms.put(SuggestionTrie.normalize(display), new Term(display, count.intValue()));
+                        }
+                    }
+                    markLoaded();
+                }
+                Log.d(TAG, "Loaded " + terms.size() + " terms in " + (System.currentTimeMillis() - start) + " ms");
+                return Tasks.forResult(null);
+            });
+        }
+        return loading;
+    }
+
+    /**
+     * Count the terms of every route and write the whole index, then the marker.
+     * Used once per schema version. Terms already in the collection that no
+     * route mentions any more are zeroed. The counts are usable even if the
+     * write fails, and the next load retries it since the marker is written last.
+     * A route written while the backfill runs can be counted twice or not at all.
+     */
+    private Task<Void> rebuild(QuerySnapshot existing) {
+        Task<QuerySnapshot> busTask = db.collection(COLLECTION_BUS_ROUTES).get();
+        Task<QuerySnapshot> trainTask = db.collection(COLLECTION_TRAIN_ROUTES).get();
+        return Tasks.whenAllSuccess(busTask, trainTask).continueWithTask(task -> {
+            if (!task.isSuccessful()) {
+                loading = null;
+                return Tasks.forException(task.getException());
+            }
+            synchronized (this) {
+                terms.clear();
+                for (DocumentSnapshot doc : busTask.getResult().getDocuments()) {
+                    count(termsOf(doc.toObject(BusRoute.class)));
+                }
+                for (DocumentSnapshot doc : trainTask.getResult().getDocuments()) {
+                    count(termsOf(doc.toObject(TrainRoute.class)));
+                }
+                markLoaded();
+            }
+            Log.d(TAG, "Rebuilt " + terms.size() + " terms from routes");
+
+            Map<String, Map<String, Object>> writes = new HashMap<>();
+            for (DocumentSnapshot doc : existing.getDocuments()) {
+                String display = doc.getString("term");
+                if (display != null) {
+                    writes.put(doc.getId(), fields(doc.getId(), display, 0));
+                }
+            }
+            for (Map.Entry<String, Term> entry : terms.entrySet()) {
+                Term term = entry.getValue();
+                writes.put(entry.getKey(), fields(entry.getKey(), term.display, term.count));
+            }
+
+            List<Task<Void>> commits = new ArrayList<>();
+            WriteBatch batch = db.batch();
+            int batched = 0;
+            for (Map.Entry<String, Map<String, Object>> write : writes.entrySet()) {
+                batch.set(document(write.getKey()), write.getValue());
+                if (++batched == MAX_BATCH_WRITES) {
+                    commits.add(batch.commit());
+                    batch = db.batch();
+                    batched = 0;
+                }
+            }
+            if (batched > 0) {
+                commits.add(batch.commit());
+            }
+            Tasks.whenAll(commits)
+                    .onSuccessTask(unused -> metaDocument().set(
+                            Collections.singletonMap(FIELD_SCHEMA_VERSION, SCHEMA_VERSION)))
+                    .addOnFailureListener(e -> Log.w(TAG, "Could not write autocomplete index", e));
+            return Tasks.forResult(null);
+        });
+    }
+
+    private void count(Map<String, String> routeTerms) {
+        for (Map.Entry<String, String> entry : routeTerms.entrySet()) {
+            Term term = terms.get(entry.getKey());
+            if (term == null) {
+                terms.put(entry.getKey(), new Term(entry.getValue(), 1));
+            } else {
+                term.count++;
+            }
+        }
+    }
+
+    /**
+     * Patch the loaded terms after a route write with these term changes committed
+     */
+    synchronized void applyLocally(Map<String, String> before, Map<String, String> after) {
+        if (!loaded) {
+            // The first load reads the committed counts
+            return;
+        }
+        for (Map.Entry<String, String> entry : after.entrySet()) {
+            if (!before.containsKey(entry.getKey())) {
+                count(Collections.singletonMap(entry.getKey(), entry.getValue()));
+            }
+        }
+        for (String key : before.keySet()) {
+            Term term = terms.get(key);
+            if (term != null && !after.containsKey(key) && --term.count <= 0) {
+                terms.remove(key);
+            }
+        }
+        trie = null;
+    }
+
+    private void markLoaded() {
+        loaded = true;
+        trie = null;
+    }
+
+    private DocumentReference metaDocument() {
+        return db.collection(COLLECTION_META).document(DOCUMENT_META);
+    }
+
+    // Normalised keys are letters, digits and spaces, so they are valid document ids
+    private DocumentReference document(String key) {
+        return db.collection(COLLECTION).document(key);
+    }
+
+    private static Map<String, Object> fields(String key, String display, Object count) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("term", display);
+        fields.put("normalized", key);
+        fields.put("routeCount", count);
+        return fields;
+    }
+
+    private static class Term {
+        final String display;
+        int count;
+
+        Term(String display, int count) {
+            this.display = display;
+            this.count = count;
+        }
+    }
+}
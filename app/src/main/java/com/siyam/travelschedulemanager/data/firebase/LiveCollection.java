@@ -0,0 +1,198 @@
+package com.siyam.travelschedulemanager.data.firebase;
+
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of a Firestore query, kept current by one snapshot listener.
+ *
+ * The first snapshot fills the store; after that only the DocumentChange
+ * deltas are applied (ADDED, MODIFIED, REMOVED at the indexes Firestore
+ * reports), so the query order is preserved without re-reading the collection.
+ * Each snapshot is published as a ChangeSet holding the full list plus just
+ * the documents that changed.
+ *
+ * Listener callbacks arrive on the main thread; call start() and stop() there too.
+ */
+public class LiveCollection<T> {
+    private static final String TAG = "LiveCollection";
+
+    /**
+     * Turns a document into a model object, or null to skip it
+     */
+    public interface Mapper<T> {
+        T map(DocumentSnapshot document);
+    }
+
+    private final Query query;
+    private final Mapper<T> mapper;
+
+    // Query order, with document ids alongside so deltas can be applied by index
+    private final List<String> ids = new ArrayList<>();
+    private final List<T> items = new ArrayList<>();
+    private final Map<String, T> byId = new HashMap<>();
+
+    private final MutableLiveData<ChangeSet<T>> changes = new MutableLiveData<>();
+    private final MutableLiveData<String> error = new MutableLiveData<>();
+    private ListenerRegistration registration;
+    private boolean initialized;
+
+    public LiveCollection(Query query, Mapper<T> mapper) {
+        this.query = query;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Subscribe to the query; a second call while subscribed does nothing
+     */
+    public void start() {
+        if (registration == null) {
+            // A new listener starts with a full snapshot of ADDED changes
+            ids.clear();
+            items.clear();
+            byId.clear();
+            initialized = false;
+            registration = query.addSnapshotListener(this::onSnapshot);
+        }
+    }
+
+    public void stop() {
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+    }
+
+    public boolean isStarted() {
+        return registration != null;
+    }
+
+    public LiveData<ChangeSet<T>> getChanges() {
+        return changes;
+    }
+
+    public LiveData<String> getError() {
+        return error;
+    }
+
+    /**
+     * Current contents in query order
+     */
+    public List<T> getItems() {
+        return Collections.unmodifiableList(new ArrayList<>(items));
+    }
+
+    public T get(String id) {
+        return byId.get(id);
+    }
+
+    private void onSnapshot(QuerySnapshot snapshot, FirebaseFirestoreException e) {
+        if (e != null) {
+            Log.e(TAG, "Listener failed", e);
+            error.setValue(e.getMessage());
+            return;
+        }
+        if (snapshot == null) {
+            return;
+        }
+
+        List<T> added = new ArrayList<>();
+        List<T> modified = new ArrayList<>();
+        List<T> removed = new ArrayList<>();
+        for (DocumentChange change : snapshot.getDocumentChanges()) {
+            String id = change.getDocument().getId();
+            switch (change.getType()) {
+                case ADDED: {
+                    T item = mapper.map(change.getDocument());
+                    insert(change.getNewIndex(), id, item);
+                    if (item != null) added.add(item);
+                    break;
+                }
+                case MODIFIED: {
+                    T item = mapper.map(change.getDocument());
+                    removeAt(change.getOldIndex());
+                    insert(change.getNewIndex(), id, item);
+                    if (item != null) modified.add(item);
+                    break;
+                }
+                case REMOVED: {
+                    T item = removeAt(change.getOldIndex());
+                    if (item != null) removed.add(item);
+                    break;
+                }
+            }
+        }
+
+        boolean initial = !initialized;
+        initialized = true;
+        if (initial || !added.isEmpty() || !modified.isEmpty() || !removed.isEmpty()) {
+            changes.setValue(new ChangeSet<>(presentItems(), added, modified, removed, initial));
+        }
+    }
+
+    // Unmappable documents keep a null slot so Firestore's indexes still line up
+    private void insert(int index, String id, T item) {
+        ids.add(index, id);
+        items.add(index, item);
+        if (item != null) {
+            byId.put(id, item);
+        } else {
+            byId.remove(id);
+        }
+    }
+
+    private T removeAt(int index) {
+        String id = ids.remove(index);
+        byId.remove(id);
+        return items.remove(index);
+    }
+
+    private List<T> presentItems() {
+        List<T> present = new ArrayList<>(items.size());
+        for (T item : items) {
+            if (item != null) present.add(item);
+        }
+        return present;
+    }
+
+    /**
+     * One snapshot: the full list and the documents that changed in it.
+     * The first snapshot reports every document as added.
+     */
+    public static class ChangeSet<T> {
+        private final List<T> items;
+        private final List<T> added;
+        private final List<T> modified;
+        private final List<T> removed;
+        private final boolean initial;
+
+        ChangeSet(List<T> items, List<T> added, List<T> modified, List<T> removed, boolean initial) {
+            this.items = items;
+            this.added = added;
+            this.modified = modified;
+            this.removed = removed;
+            this.initial = initial;
+        }
+
+        public List<T> getItems() { return items; }
+        public List<T> getAdded() { return added; }
+        public List<T> getModified() { return modified; }
+        public List<T> getRemoved() { return removed; }
+        public boolean isInitial() { return initial; }
+    }
+}
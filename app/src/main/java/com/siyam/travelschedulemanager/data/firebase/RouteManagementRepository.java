@@ -3,31 +3,36 @@ package com.siyam.travelschedulemanager.data.firebase;
 import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
 import com.siyam.travelschedulemanager.model.BusRoute;
 import com.siyam.travelschedulemanager.model.PendingRouteChange;
-import com.siyam.travelschedulemanager.model.RouteStop;
 import com.siyam.travelschedulemanager.model.TrainRoute;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.function.Function;
 
 public class RouteManagementRepository {
+    private static final String TAG = "RouteManagementRepo";
     private final FirebaseFirestore db;
+    private final AutocompleteIndex autocompleteIndex;
     
     // Collection names
     private static final String COLLECTION_BUS_ROUTES = "busRoutes";
     private static final String COLLECTION_TRAIN_ROUTES = "trainRoutes";
     private static final String COLLECTION_PENDING_ROUTE_CHANGES = "pendingRouteChanges";
-    private static final String COLLECTION_AUTOCOMPLETE_DATA = "autocompleteData";
+    private static final int MAX_SUGGESTIONS = 10;
 
     public RouteManagementRepository() {
         this.db = FirebaseFirestore.getInstance();
+        this.autocompleteIndex = AutocompleteIndex.getInstance();
     }
 
     // ==================== BUS ROUTE OPERATIONS ====================
@@ -37,7 +42,8 @@ public class RouteManagementRepository {
         route.setId(id);
         route.setCreatedAt(Timestamp.now());
         route.setUpdatedAt(Timestamp.now());
-        return db.collection(COLLECTION_BUS_ROUTES).document(id).set(route);
+        return writeRoute(db.collection(COLLECTION_BUS_ROUTES).document(id), route,
+                Collections.emptyMap(), AutocompleteIndex.termsOf(route));
     }
 
     public Task<DocumentSnapshot> getBusRoute(String routeId) {
@@ -46,11 +52,13 @@ public class RouteManagementRepository {
 
     public Task<Void> updateBusRoute(String routeId, BusRoute route) {
         route.setUpdatedAt(Timestamp.now());
-        return db.collection(COLLECTION_BUS_ROUTES).document(routeId).set(route);
+        return replaceRoute(db.collection(COLLECTION_BUS_ROUTES).document(routeId), route,
+                doc -> AutocompleteIndex.termsOf(doc.toObject(BusRoute.class)), AutocompleteIndex.termsOf(route));
     }
 
     public Task<Void> deleteBusRoute(String routeId) {
-        return db.collection(COLLECTION_BUS_ROUTES).document(routeId).delete();
+        return replaceRoute(db.collection(COLLECTION_BUS_ROUTES).document(routeId), null,
+                doc -> AutocompleteIndex.termsOf(doc.toObject(BusRoute.class)), Collections.emptyMap());
     }
 
     public Task<QuerySnapshot> getAllBusRoutes() {
@@ -59,6 +67,17 @@ public class RouteManagementRepository {
                 .get();
     }
 
+    /**
+     * All bus routes, kept current by a snapshot listener
+     */
+    public LiveCollection<BusRoute> listenAllBusRoutes() {
+        return new LiveCollection<>(db.collection(COLLECTION_BUS_ROUTES).orderBy("routeName"), document -> {
+            BusRoute bus = document.toObject(BusRoute.class);
+            if (bus != null) bus.setId(document.getId());
+            return bus;
+        });
+    }
+
     public Task<QuerySnapshot> getApprovedBusRoutes() {
         return db.collection(COLLECTION_BUS_ROUTES)
                 .whereEqualTo("status", "APPROVED")
@@ -73,7 +92,8 @@ public class RouteManagementRepository {
         route.setId(id);
         route.setCreatedAt(Timestamp.now());
         route.setUpdatedAt(Timestamp.now());
-        return db.collection(COLLECTION_TRAIN_ROUTES).document(id).set(route);
+        return writeRoute(db.collection(COLLECTION_TRAIN_ROUTES).document(id), route,
+                Collections.emptyMap(), AutocompleteIndex.termsOf(route));
     }
 
     public Task<DocumentSnapshot> getTrainRoute(String routeId) {
@@ -82,11 +102,13 @@ public class RouteManagementRepository {
 
     public Task<Void> updateTrainRoute(String routeId, TrainRoute route) {
         route.setUpdatedAt(Timestamp.now());
-        return db.collection(COLLECTION_TRAIN_ROUTES).document(routeId).set(route);
+        return replaceRoute(db.collection(COLLECTION_TRAIN_ROUTES).document(routeId), route,
+                doc -> AutocompleteIndex.termsOf(doc.toObject(TrainRoute.class)), AutocompleteIndex.termsOf(route));
     }
 
     public Task<Void> deleteTrainRoute(String routeId) {
-        return db.collection(COLLECTION_TRAIN_ROUTES).document(routeId).delete();
+        return replaceRoute(db.collection(COLLECTION_TRAIN_ROUTES).document(routeId), null,
+                doc -> AutocompleteIndex.termsOf(doc.toObject(TrainRoute.class)), Collections.emptyMap());
     }
 
     public Task<QuerySnapshot> getAllTrainRoutes() {
@@ -95,6 +117,17 @@ public class RouteManagementRepository {
                 .get();
     }
 
+    /**
+     * All train routes, kept current by a snapshot listener
+     */
+    public LiveCollection<TrainRoute> listenAllTrainRoutes() {
+        return new LiveCollection<>(db.collection(COLLECTION_TRAIN_ROUTES).orderBy("trainName"), document -> {
+            TrainRoute train = document.toObject(TrainRoute.class);
+            if (train != null) train.setId(document.getId());
+            return train;
+        });
+    }
+
     public Task<QuerySnapshot> getApprovedTrainRoutes() {
         return db.collection(COLLECTION_TRAIN_ROUTES)
                 .whereEqualTo("status", "APPROVED")
@@ -164,62 +197,54 @@ public class RouteManagementRepository {
     // ==================== AUTOCOMPLETE OPERATIONS ====================
 
     /**
-     * Get autocomplete suggestions from Firebase
-     * Searches through station names, district names, route names, train names
+     * Get autocomplete suggestions for station, district, bus and train names.
+     * Answered from the on-device index; only the first call reads Firestore.
      */
     public Task<List<String>> getAutocompleteSuggestions(String query) {
         if (query == null || query.trim().length() < 2) {
             return Tasks.forResult(new ArrayList<>());
         }
+        return autocompleteIndex.suggest(query, MAX_SUGGESTIONS);
+    }
 
-        String searchQuery = query.toLowerCase().trim();
-        Set<String> suggestions = new HashSet<>();
-
-        // Get bus routes
-        Task<QuerySnapshot> busTask = db.collection(COLLECTION_BUS_ROUTES).get();
-        
-        // Get train routes
-        Task<QuerySnapshot> trainTask = db.collection(COLLECTION_TRAIN_ROUTES).get();
-
-        return Tasks.whenAllSuccess(busTask, trainTask).continueWith(task -> {
-            List<Object> results = task.getResult();
-            
-            // Process bus routes
-            QuerySnapshot busSnapshot = (QuerySnapshot) results.get(0);
-            for (DocumentSnapshot doc : busSnapshot.getDocuments()) {
-                BusRoute bus = doc.toObject(BusRoute.class);
-                if (bus != null) {
-                    addIfMatches(suggestions, bus.getBusName(), searchQuery);
-                    addIfMatches(suggestions, bus.getStart(), searchQuery);
-                    addIfMatches(suggestions, bus.getDestination(), searchQuery);
-                }
-            }
-
-            // Process train routes
-            QuerySnapshot trainSnapshot = (QuerySnapshot) results.get(1);
-            for (DocumentSnapshot doc : trainSnapshot.getDocuments()) {
-                TrainRoute train = doc.toObject(TrainRoute.class);
-                if (train != null) {
-                    addIfMatches(suggestions, train.getTrainName(), searchQuery);
-                    addIfMatches(suggestions, train.getTrainNumber(), searchQuery);
-                    addIfMatches(suggestions, train.getStart(), searchQuery);
-                    addIfMatches(suggestions, train.getDestination(), searchQuery);
-                    if (train.getStops() != null) {
-                        for (RouteStop stop : train.getStops()) {
-                            addIfMatches(suggestions, stop.getStation(), searchQuery);
-                        }
-                    }
-                }
+    /**
+     * Write or delete a route together with its autocomplete term counts.
+     * The old terms are read from the stored document in the same transaction,
+     * so concurrent edits of one route are retried instead of skewing the
+     * counts, and a failed read fails the write rather than skipping them.
+     */
+    private Task<Void> replaceRoute(DocumentReference ref, Object route,
+                                    Function<DocumentSnapshot, Map<String, String>> termsOfStored,
+                                    Map<String, String> after) {
+        Task<Map<String, String>> write = db.runTransaction(transaction -> {
+            DocumentSnapshot stored = transaction.get(ref);
+            Map<String, String> before = stored.exists()
+                    ? termsOfStored.apply(stored)
+                    : Collections.<String, String>emptyMap();
+            if (route != null) {
+                transaction.set(ref, route);
+            } else {
+                transaction.delete(ref);
             }
-
-            return new ArrayList<>(suggestions);
+            autocompleteIndex.stage(transaction, before, after);
+            return before;
+        });
+        return write.onSuccessTask(before -> {
+            autocompleteIndex.applyLocally(before, after);
+            return Tasks.forResult(null);
         });
     }
 
-    private void addIfMatches(Set<String> suggestions, String value, String query) {
-        if (value != null && !value.isEmpty() && value.toLowerCase().contains(query)) {
-            suggestions.add(value);
+    private Task<Void> writeRoute(DocumentReference ref, Object route,
+                                  Map<String, String> before, Map<String, String> after) {
+        WriteBatch batch = db.batch();
+        if (route != null) {
+            batch.set(ref, route);
+        } else {
+            batch.delete(ref);
         }
+        autocompleteIndex.stage(batch, before, after);
+        return autocompleteIndex.commit(batch, before, after);
     }
 
     // ==================== SEARCH OPERATIONS ====================
@@ -131,6 +131,16 @@ public class UserRepository {
                 .get();
     }
 
+    /**
+     * All users, newest first, kept current by a snapshot listener.
+     * Status filtering is left to the caller, as with the one-shot queries.
+     */
+    public LiveCollection<User> listenAllUsers() {
+        return new LiveCollection<>(
+                db.collection(Constants.COLLECTION_USERS).orderBy("createdAt", Query.Direction.DESCENDING),
+                document -> document.toObject(User.class));
+    }
+
     /**
      * Get all approved users (for role management)
      * Note: Removed whereEqualTo to avoid Firebase composite index requirement
@@ -4,13 +4,16 @@ import com.siyam.travelschedulemanager.data.remote.dto.*;
 
 import java.util.List;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
 import retrofit2.http.Header;
+import retrofit2.http.Headers;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 /**
  * Retrofit API Service Interface
@@ -110,6 +113,42 @@ public interface ApiService {
     @GET("schedules/train")
     Call<ApiResponseWrapper<TrainScheduleDTO>> getAllTrainSchedules();
 
+    // ==================== Incremental Sync Endpoints ====================
+
+    /**
+     * Conditional variants of the endpoints above: with the ETag of the cached copy
+     * the server answers 304 Not Modified and no body when nothing changed.
+     * A null ETag sends an unconditional request.
+     * Callers keep the body in the schedule database, so the HTTP cache does not store it twice.
+     */
+    @Headers("Cache-Control: no-store")
+    @GET("schedules")
+    Call<List<UnifiedScheduleDTO>> getAllSchedules(@Header("If-None-Match") String etag);
+
+    @Headers("Cache-Control: no-store")
+    @GET("schedules/bus")
+    Call<ApiResponseWrapper<BusScheduleDTO>> getAllBusSchedules(@Header("If-None-Match") String etag);
+
+    @Headers("Cache-Control: no-store")
+    @GET("schedules/train")
+    Call<ApiResponseWrapper<TrainScheduleDTO>> getAllTrainSchedules(@Header("If-None-Match") String etag);
+
+    /**
+     * Same as getAllSchedules(etag), but the body is left unread so large
+     * responses can be parsed record by record (see ScheduleStreamReader)
+     */
+    @Streaming
+    @Headers("Cache-Control: no-store")
+    @GET("schedules")
+    Call<ResponseBody> streamAllSchedules(@Header("If-None-Match") String etag);
+
+    /**
+     * Schedule changes after a sync version (upserts and tombstones)
+     * GET /api/schedules/changes?since={version}
+     */
+    @GET("schedules/changes")
+    Call<ScheduleChangesDTO> getScheduleChanges(@Query("since") long sinceVersion);
+
     /**
      * Health check endpoint
      * GET /api/health
@@ -0,0 +1,89 @@
+package com.siyam.travelschedulemanager.data.remote;
+
+import com.siyam.travelschedulemanager.util.NetworkManager;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Interceptors that decide what the OkHttp disk cache keeps and when it may
+ * answer without the network.
+ *
+ * The desktop server sends ETags but no Cache-Control, so {@link #revalidate}
+ * marks such GET responses as stale on arrival: they are stored, and the next
+ * request is sent as a conditional GET that comes back as a 304 and is served
+ * from disk. {@link #offlineFallback} lets stale copies answer while the device
+ * is offline instead of failing outright.
+ *
+ * Only the public timetable is treated this way. The cache is keyed by URL
+ * alone, so a stored profile or admin queue could be shown to whoever uses the
+ * device next; anything sent with credentials is left uncacheable.
+ */
+public final class HttpCachePolicy {
+    // How old a stored response may be and still be served offline
+    static final int MAX_STALE_OFFLINE_DAYS = 7;
+    // First path segment after the API base of the endpoints that are the same for every user
+    private static final Set<String> PUBLIC_RESOURCES = new HashSet<>(Arrays.asList("schedules", "routes"));
+
+    private HttpCachePolicy() {}
+
+    /**
+     * Network interceptor: public timetable GET responses without cache headers
+     * are cached but revalidated on every use. Responses that set their own
+     * policy, and requests carrying an Authorization header, are left alone.
+     */
+    public static Interceptor revalidate() {
+        return chain -> {
+            Request request = chain.request();
+            Response response = chain.proceed(request);
+            if (!"GET".equals(request.method())
+                    || !isPublic(request)
+                    || response.header("Cache-Control") != null
+                    || response.header("Expires") != null) {
+                return response;
+            }
+            return response.newBuilder()
+                    .removeHeader("Pragma")
+                    .header("Cache-Control", "max-age=0")
+                    .build();
+        };
+    }
+
+    private static boolean isPublic(Request request) {
+        if (request.header("Authorization") != null) {
+            return false;
+        }
+        // Paths look like /api/schedules/bus
+        for (String segment : request.url().pathSegments()) {
+            if (PUBLIC_RESOURCES.contains(segment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Application interceptor: while offline, GETs are answered only from the
+     * cache (a 504 if nothing is stored) rather than waiting on a dead connection
+     */
+    public static Interceptor offlineFallback(NetworkManager networkManager) {
+        CacheControl offline = new CacheControl.Builder()
+                .onlyIfCached()
+                .maxStale(MAX_STALE_OFFLINE_DAYS, TimeUnit.DAYS)
+                .build();
+        return chain -> {
+            Request request = chain.request();
+            if ("GET".equals(request.method()) && !networkManager.isOnline()) {
+                request = request.newBuilder().cacheControl(offline).build();
+            }
+            return chain.proceed(request);
+        };
+    }
+}
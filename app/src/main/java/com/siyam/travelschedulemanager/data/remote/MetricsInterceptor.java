@@ -0,0 +1,124 @@
+package com.siyam.travelschedulemanager.data.remote;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * OkHttp interceptors that feed NetworkMetrics.
+ *
+ * Install both: {@link #forCalls} as an application interceptor (one record
+ * per call: latency, failure, cache hit, 304) and {@link #forNetwork} as a
+ * network interceptor (bytes on the wire and attempts, so it sees compressed
+ * sizes and every retry). Bodies are never buffered; response bytes are
+ * counted while the caller reads them.
+ */
+public final class MetricsInterceptor {
+
+    private MetricsInterceptor() {}
+
+    public static Interceptor forCalls(NetworkMetrics metrics) {
+        return new CallInterceptor(metrics);
+    }
+
+    public static Interceptor forNetwork(NetworkMetrics metrics) {
+        return new NetworkInterceptor(metrics);
+    }
+
+    // "GET /api/schedules"; numeric path segments are folded so ids share one entry
+    static String endpointOf(Request request) {
+        return request.method() + " " + request.url().encodedPath().replaceAll("/\\d+(?=/|$)", "/{id}");
+    }
+
+    // Network attempts made for one call, carried on the request as a tag
+    private static class AttemptCounter {
+        int attempts;
+    }
+
+    private static class CallInterceptor implements Interceptor {
+        private final NetworkMetrics metrics;
+
+        CallInterceptor(NetworkMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            AttemptCounter counter = new AttemptCounter();
+            Request request = chain.request().newBuilder().tag(AttemptCounter.class, counter).build();
+            String endpoint = endpointOf(request);
+            long start = System.nanoTime();
+
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                record(endpoint, start, counter, true, false, false);
+                throw e;
+            }
+
+            boolean cacheHit = response.cacheResponse() != null && response.networkResponse() == null;
+            Response network = response.networkResponse();
+            boolean notModified = response.code() == HttpURLConnection.HTTP_NOT_MODIFIED
+                    || (network != null && network.code() == HttpURLConnection.HTTP_NOT_MODIFIED);
+            record(endpoint, start, counter, response.code() >= 500, cacheHit, notModified);
+            return response;
+        }
+
+        private void record(String endpoint, long start, AttemptCounter counter,
+                            boolean failed, boolean cacheHit, boolean notModified) {
+            long latencyMs = (System.nanoTime() - start) / 1_000_000;
+            metrics.recordCall(endpoint, latencyMs, failed, cacheHit, notModified);
+            for (int i = 1; i < counter.attempts; i++) {
+                metrics.recordRetry(endpoint);
+            }
+        }
+    }
+
+    private static class NetworkInterceptor implements Interceptor {
+        private final NetworkMetrics metrics;
+
+        NetworkInterceptor(NetworkMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            AttemptCounter counter = request.tag(AttemptCounter.class);
+            if (counter != null) {
+                counter.attempts++;
+            }
+            String endpoint = endpointOf(request);
+            long bytesOut = request.body() != null ? request.body().contentLength() : 0;
+            metrics.recordBytes(endpoint, bytesOut, 0);
+
+            Response response = chain.proceed(request);
+            ResponseBody body = response.body();
+            if (body == null) {
+                return response;
+            }
+            BufferedSource counting = Okio.buffer(new ForwardingSource(body.source()) {
+                @Override
+                public long read(Buffer sink, long byteCount) throws IOException {
+                    long read = super.read(sink, byteCount);
+                    if (read > 0) {
+                        metrics.recordBytes(endpoint, 0, read);
+                    }
+                    return read;
+                }
+            });
+            return response.newBuilder()
+                    .body(ResponseBody.create(body.contentType(), body.contentLength(), counting))
+                    .build();
+        }
+    }
+}
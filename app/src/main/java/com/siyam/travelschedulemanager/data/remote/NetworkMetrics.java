@@ -0,0 +1,177 @@
+package com.siyam.travelschedulemanager.data.remote;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-app registry of HTTP metrics, filled by MetricsInterceptor.
+ *
+ * Counters are kept per endpoint ("GET /api/schedules"): calls, failures,
+ * cache hits, 304s, retries, bytes on the wire in each direction, and a
+ * fixed-bucket latency histogram. Recording is lock-free, so it is cheap
+ * enough to leave on in release builds.
+ */
+public class NetworkMetrics {
+    // Upper bounds of the latency buckets in ms; the last bucket is open-ended
+    private static final long[] LATENCY_BOUNDS_MS = {25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private static NetworkMetrics instance;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public static synchronized NetworkMetrics getInstance() {
+        if (instance == null) {
+            instance = new NetworkMetrics();
+        }
+        return instance;
+    }
+
+    void recordCall(String endpoint, long latencyMs, boolean failed, boolean cacheHit, boolean notModified) {
+        Endpoint stats = endpoint(endpoint);
+        stats.calls.incrementAndGet();
+        if (failed) stats.failures.incrementAndGet();
+        if (cacheHit) stats.cacheHits.incrementAndGet();
+        if (notModified) stats.notModified.incrementAndGet();
+        stats.latency.incrementAndGet(bucketOf(latencyMs));
+        stats.totalLatencyMs.addAndGet(latencyMs);
+    }
+
+    void recordRetry(String endpoint) {
+        endpoint(endpoint).retries.incrementAndGet();
+    }
+
+    void recordBytes(String endpoint, long bytesOut, long bytesIn) {
+        Endpoint stats = endpoint(endpoint);
+        if (bytesOut > 0) stats.bytesOut.addAndGet(bytesOut);
+        if (bytesIn > 0) stats.bytesIn.addAndGet(bytesIn);
+    }
+
+    /**
+     * Point-in-time copy of every endpoint's counters, sorted by endpoint
+     */
+    public List<EndpointSnapshot> snapshot() {
+        List<EndpointSnapshot> snapshots = new ArrayList<>();
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            snapshots.add(entry.getValue().snapshot(entry.getKey()));
+        }
+        Collections.sort(snapshots, (a, b) -> a.getEndpoint().compareTo(b.getEndpoint()));
+        return snapshots;
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    private Endpoint endpoint(String name) {
+        Endpoint stats = endpoints.get(name);
+        if (stats == null) {
+            Endpoint created = new Endpoint();
+            stats = endpoints.putIfAbsent(name, created);
+            if (stats == null) stats = created;
+        }
+        return stats;
+    }
+
+    private static int bucketOf(long latencyMs) {
+        for (int i = 0; i < LATENCY_BOUNDS_MS.length; i++) {
+            if (latencyMs <= LATENCY_BOUNDS_MS[i]) return i;
+        }
+        return LATENCY_BOUNDS_MS.length;
+    }
+
+    private static class Endpoint {
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong cacheHits = new AtomicLong();
+        final AtomicLong notModified = new AtomicLong();
+        final AtomicLong retries = new AtomicLong();
+        final AtomicLong bytesIn = new AtomicLong();
+        final AtomicLong bytesOut = new AtomicLong();
+        final AtomicLong totalLatencyMs = new AtomicLong();
+        final AtomicLongArray latency = new AtomicLongArray(LATENCY_BOUNDS_MS.length + 1);
+
+        EndpointSnapshot snapshot(String name) {
+            long[] histogram = new long[latency.length()];
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = latency.get(i);
+            }
+            return new EndpointSnapshot(name, calls.get(), failures.get(), cacheHits.get(), notModified.get(),
+                    retries.get(), bytesIn.get(), bytesOut.get(), totalLatencyMs.get(), histogram);
+        }
+    }
+
+    /**
+     * Immutable counters of one endpoint
+     */
+    public static class EndpointSnapshot {
+        private final String endpoint;
+        private final long calls;
+        private final long failures;
+        private final long cacheHits;
+        private final long notModified;
+        private final long retries;
+        private final long bytesIn;
+        private final long bytesOut;
+        private final long totalLatencyMs;
+        private final long[] latencyHistogram;
+
+        EndpointSnapshot(String endpoint, long calls, long failures, long cacheHits, long notModified,
+                         long retries, long bytesIn, long bytesOut, long totalLatencyMs, long[] latencyHistogram) {
+            this.endpoint = endpoint;
+            this.calls = calls;
+            this.failures = failures;
+            this.cacheHits = cacheHits;
+            this.notModified = notModified;
+            this.retries = retries;
+            this.bytesIn = bytesIn;
+            this.bytesOut = bytesOut;
+            this.totalLatencyMs = totalLatencyMs;
+            this.latencyHistogram = latencyHistogram;
+        }
+
+        public String getEndpoint() { return endpoint; }
+        public long getCalls() { return calls; }
+        public long getFailures() { return failures; }
+        public long getCacheHits() { return cacheHits; }
+        public long getNotModified() { return notModified; }
+        public long getRetries() { return retries; }
+        public long getBytesIn() { return bytesIn; }
+        public long getBytesOut() { return bytesOut; }
+
+        public long getAverageLatencyMs() {
+            return calls > 0 ? totalLatencyMs / calls : 0;
+        }
+
+        /**
+         * Upper bound of the bucket holding the given percentile (0-100),
+         * or -1 if it falls in the open-ended last bucket
+         */
+        public long getLatencyPercentileMs(int percentile) {
+            long total = 0;
+            for (long count : latencyHistogram) total += count;
+            if (total == 0) return 0;
+
+            long rank = (total * percentile + 99) / 100;
+            long seen = 0;
+            for (int i = 0; i < latencyHistogram.length; i++) {
+                seen += latencyHistogram[i];
+                if (seen >= rank) {
+                    return i < LATENCY_BOUNDS_MS.length ? LATENCY_BOUNDS_MS[i] : -1;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public String toString() {
+            return endpoint + ": " + calls + " calls, " + failures + " failed, " + cacheHits + " cache hits, "
+                    + notModified + " not modified, " + retries + " retries, in " + bytesIn + " B, out "
+                    + bytesOut + " B, avg " + getAverageLatencyMs() + " ms, p95 <= "
+                    + getLatencyPercentileMs(95) + " ms";
+        }
+    }
+}
@@ -3,14 +3,22 @@ package com.siyam.travelschedulemanager.data.remote;
 import android.content.Context;
 import android.util.Log;
 
+import com.siyam.travelschedulemanager.BuildConfig;
+import com.siyam.travelschedulemanager.util.NetworkManager;
 import com.siyam.travelschedulemanager.util.TokenManager;
 
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
+import okhttp3.brotli.BrotliInterceptor;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -32,6 +40,16 @@ public class RetrofitClient {
     // Then update this with the IP address shown
     // private static final String DEFAULT_BASE_URL = "http://YOUR_IP_HERE:8080/api/";
     
+    // Shared HTTP transport; see sharedClient()
+    private static final String HTTP_CACHE_DIR = "http_cache";
+    // Room for a few full schedule lists plus search results
+    private static final long HTTP_CACHE_SIZE_BYTES = 20L * 1024 * 1024;
+    private static final int MAX_IDLE_CONNECTIONS = 4;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    private static final int MAX_REQUESTS = 32;
+    private static final int MAX_REQUESTS_PER_HOST = 8;
+
+    private static OkHttpClient sharedClient;
     private static RetrofitClient instance;
     private final ApiService apiService;
     private String baseUrl;
@@ -47,19 +65,13 @@ public class RetrofitClient {
             this.tokenManager = new TokenManager(context);
         }
         
-        // Create HTTP logging interceptor for debugging
-        HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor(message -> 
-            Log.d(TAG, "API: " + message)
-        );
-        loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-
-        // Configure OkHttp client with auth interceptor
-        OkHttpClient.Builder okHttpBuilder = new OkHttpClient.Builder()
-                .addInterceptor(loggingInterceptor)
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
-                .retryOnConnectionFailure(true);
+        // Per-URL client on top of the shared one: same pool, dispatcher and disk cache
+        OkHttpClient.Builder okHttpBuilder = sharedClient(context).newBuilder()
+                .addInterceptor(MetricsInterceptor.forCalls(NetworkMetrics.getInstance()));
+
+        if (context != null) {
+            okHttpBuilder.addInterceptor(HttpCachePolicy.offlineFallback(NetworkManager.getInstance(context)));
+        }
 
         // Add authentication interceptor if token manager is available
         if (tokenManager != null) {
@@ -87,6 +99,19 @@ public class RetrofitClient {
             });
         }
 
+        // HTTP logging for debugging only: BODY buffers and logs whole schedule payloads
+        if (BuildConfig.DEBUG) {
+            HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor(message -> 
+                Log.d(TAG, "API: " + message)
+            );
+            loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
+            okHttpBuilder.addInterceptor(loggingInterceptor);
+        }
+
+        // Last application interceptor: advertises br and gzip, the disk cache keeps the
+        // encoded bytes and everything above this point sees decoded bodies
+        okHttpBuilder.addInterceptor(BrotliInterceptor.INSTANCE);
+
         OkHttpClient okHttpClient = okHttpBuilder.build();
 
         // Build Retrofit instance
@@ -101,6 +126,73 @@ public class RetrofitClient {
         Log.i(TAG, "RetrofitClient initialized with base URL: " + this.baseUrl);
     }
 
+    /**
+     * The OkHttp client every RetrofitClient is derived from. It is built once
+     * per process, so changing the base URL keeps warm connections, the
+     * dispatcher's queue and the disk cache. The cache is attached as soon as
+     * a caller supplies a context.
+     */
+    private static synchronized OkHttpClient sharedClient(Context context) {
+        if (sharedClient == null) {
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(MAX_REQUESTS);
+            // Every call goes to the one desktop host; the default of 5 queues schedule syncs behind searches
+            dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+            sharedClient = new OkHttpClient.Builder()
+                    .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                    .dispatcher(dispatcher)
+                    .addNetworkInterceptor(MetricsInterceptor.forNetwork(NetworkMetrics.getInstance()))
+                    .addNetworkInterceptor(HttpCachePolicy.revalidate())
+                    .connectTimeout(30, TimeUnit.SECONDS)
+                    .readTimeout(30, TimeUnit.SECONDS)
+                    .writeTimeout(30, TimeUnit.SECONDS)
+                    .retryOnConnectionFailure(true)
+                    .build();
+        }
+        if (context != null && sharedClient.cache() == null) {
+            File cacheDir = new File(context.getApplicationContext().getCacheDir(), HTTP_CACHE_DIR);
+            sharedClient = sharedClient.newBuilder()
+                    .cache(new Cache(cacheDir, HTTP_CACHE_SIZE_BYTES))
+                    .build();
+        }
+        return sharedClient;
+    }
+
+    /**
+     * Drop every stored HTTP response, on a background thread. Called on logout
+     * so nothing fetched for one account can be served offline to the next.
+     */
+    public static void evictCache() {
+        Cache cache;
+        synchronized (RetrofitClient.class) {
+            cache = sharedClient != null ? sharedClient.cache() : null;
+        }
+        if (cache == null) {
+            return;
+        }
+        new Thread(() -> {
+            try {
+                cache.evictAll();
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to clear HTTP cache", e);
+            }
+        }, "http-cache-evict").start();
+    }
+
+    /**
+     * Write the per-endpoint HTTP metrics to logcat; debug builds only.
+     * Called when a dashboard leaves the foreground.
+     */
+    public static void logMetrics() {
+        if (!BuildConfig.DEBUG) {
+            return;
+        }
+        for (NetworkMetrics.EndpointSnapshot endpoint : NetworkMetrics.getInstance().snapshot()) {
+            Log.d(TAG, "Metrics: " + endpoint);
+        }
+    }
+
     /**
      * Get singleton instance with default base URL
      */
@@ -112,7 +204,7 @@ public class RetrofitClient {
     }
 
     /**
-     * Get singleton instance with context for token management
+     * Get singleton instance with context for token management and the disk cache
      * @param context Application context
      */
     public static synchronized RetrofitClient getInstance(Context context) {
@@ -0,0 +1,70 @@
+package com.siyam.travelschedulemanager.data.remote;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO;
+import com.siyam.travelschedulemanager.util.StringPool;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a JSON array of schedules record by record and hands them out in
+ * fixed-size batches, so a large response is never held as one string or one
+ * parsed list. Repeated strings such as station names share one instance.
+ * Runs on the calling thread; call it off the main thread.
+ */
+public final class ScheduleStreamReader {
+
+    public interface BatchHandler<T> {
+        void onBatch(List<T> batch);
+    }
+
+    private ScheduleStreamReader() {}
+
+    /**
+     * Stream a top-level array of unified schedules
+     * @return number of schedules read
+     */
+    public static int readUnifiedSchedules(Reader body, Gson gson, int batchSize,
+                                           BatchHandler<UnifiedScheduleDTO> handler) throws IOException {
+        TypeAdapter<UnifiedScheduleDTO> adapter = gson.getAdapter(UnifiedScheduleDTO.class);
+        StringPool pool = new StringPool();
+        int count = 0;
+
+        try (JsonReader reader = new JsonReader(body)) {
+            reader.beginArray();
+            List<UnifiedScheduleDTO> batch = new ArrayList<>(batchSize);
+            while (reader.hasNext()) {
+                UnifiedScheduleDTO schedule = adapter.read(reader);
+                if (schedule == null) continue;
+                intern(schedule, pool);
+                batch.add(schedule);
+                count++;
+                if (batch.size() == batchSize) {
+                    handler.onBatch(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            reader.endArray();
+            if (!batch.isEmpty()) {
+                handler.onBatch(batch);
+            }
+        }
+        return count;
+    }
+
+    private static void intern(UnifiedScheduleDTO schedule, StringPool pool) {
+        schedule.setType(pool.intern(schedule.getType()));
+        schedule.setName(pool.intern(schedule.getName()));
+        schedule.setStart(pool.intern(schedule.getStart()));
+        schedule.setDestination(pool.intern(schedule.getDestination()));
+        schedule.setStartTime(pool.intern(schedule.getStartTime()));
+        schedule.setArrivalTime(pool.intern(schedule.getArrivalTime()));
+        schedule.setDuration(pool.intern(schedule.getDuration()));
+        schedule.setOffDay(pool.intern(schedule.getOffDay()));
+    }
+}
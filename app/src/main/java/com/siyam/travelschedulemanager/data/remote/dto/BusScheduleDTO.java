@@ -2,6 +2,8 @@ package com.siyam.travelschedulemanager.data.remote.dto;
 
 import com.google.gson.annotations.SerializedName;
 
+import java.util.Objects;
+
 /**
  * Data Transfer Object for Bus Schedule from REST API
  * Matches the desktop app's BusScheduleDTO format
@@ -63,6 +65,25 @@ public class BusScheduleDTO {
     public String getDuration() { return duration; }
     public void setDuration(String duration) { this.duration = duration; }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BusScheduleDTO)) return false;
+        BusScheduleDTO that = (BusScheduleDTO) o;
+        return Double.compare(that.fare, fare) == 0
+                && Objects.equals(busName, that.busName)
+                && Objects.equals(start, that.start)
+                && Objects.equals(destination, that.destination)
+                && Objects.equals(startTime, that.startTime)
+                && Objects.equals(arrivalTime, that.arrivalTime)
+                && Objects.equals(duration, that.duration);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(busName, start, destination, startTime, arrivalTime, fare, duration);
+    }
+
     @Override
     public String toString() {
         return "BusScheduleDTO{" +
@@ -0,0 +1,47 @@
+package com.siyam.travelschedulemanager.data.remote.dto;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response of the schedule changes feed
+ * Desktop returns: { "version": N, "upserts": [...], "deletes": [...], "fullResync": false }
+ *
+ * Deletes are tombstones: only type, name, start, destination and startTime are set.
+ */
+public class ScheduleChangesDTO {
+
+    @SerializedName("version")
+    private long version;
+
+    @SerializedName("upserts")
+    private List<UnifiedScheduleDTO> upserts;
+
+    @SerializedName("deletes")
+    private List<UnifiedScheduleDTO> deletes;
+
+    @SerializedName("fullResync")
+    private boolean fullResync;   // Cursor too old, client must download everything again
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    public List<UnifiedScheduleDTO> getUpserts() {
+        return upserts != null ? upserts : new ArrayList<>();
+    }
+    public void setUpserts(List<UnifiedScheduleDTO> upserts) { this.upserts = upserts; }
+
+    public List<UnifiedScheduleDTO> getDeletes() {
+        return deletes != null ? deletes : new ArrayList<>();
+    }
+    public void setDeletes(List<UnifiedScheduleDTO> deletes) { this.deletes = deletes; }
+
+    public boolean isFullResync() { return fullResync; }
+    public void setFullResync(boolean fullResync) { this.fullResync = fullResync; }
+
+    public boolean hasChanges() {
+        return (upserts != null && !upserts.isEmpty()) || (deletes != null && !deletes.isEmpty());
+    }
+}
@@ -2,6 +2,7 @@ package com.siyam.travelschedulemanager.data.remote.dto;
 
 import com.google.gson.annotations.SerializedName;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Data Transfer Object for Train Schedule from REST API
@@ -78,6 +79,27 @@ public class TrainScheduleDTO {
     public List<TrainStop> getStops() { return stops; }
     public void setStops(List<TrainStop> stops) { this.stops = stops; }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TrainScheduleDTO)) return false;
+        TrainScheduleDTO that = (TrainScheduleDTO) o;
+        return Double.compare(that.fare, fare) == 0
+                && Objects.equals(trainName, that.trainName)
+                && Objects.equals(start, that.start)
+                && Objects.equals(destination, that.destination)
+                && Objects.equals(startTime, that.startTime)
+                && Objects.equals(arrivalTime, that.arrivalTime)
+                && Objects.equals(duration, that.duration)
+                && Objects.equals(offDay, that.offDay)
+                && Objects.equals(stops, that.stops);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(trainName, start, destination, startTime, arrivalTime, fare, duration, offDay, stops);
+    }
+
     @Override
     public String toString() {
         return "TrainScheduleDTO{" +
@@ -118,5 +140,21 @@ public class TrainScheduleDTO {
 
         public double getCumulativeFare() { return cumulativeFare; }
         public void setCumulativeFare(double cumulativeFare) { this.cumulativeFare = cumulativeFare; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof TrainStop)) return false;
+            TrainStop that = (TrainStop) o;
+            return Double.compare(that.cumulativeFare, cumulativeFare) == 0
+                    && Objects.equals(station, that.station)
+                    && Objects.equals(arrivalTime, that.arrivalTime)
+                    && Objects.equals(departureTime, that.departureTime);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(station, arrivalTime, departureTime, cumulativeFare);
+        }
     }
 }
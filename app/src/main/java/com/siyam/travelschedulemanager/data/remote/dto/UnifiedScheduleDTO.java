@@ -1,6 +1,9 @@
 package com.siyam.travelschedulemanager.data.remote.dto;
 
 import com.google.gson.annotations.SerializedName;
+import com.siyam.travelschedulemanager.model.ScheduleTimes;
+
+import java.util.Objects;
 
 /**
  * Unified Data Transfer Object for REST API responses
@@ -35,6 +38,9 @@ public class UnifiedScheduleDTO {
     @SerializedName("offDay")
     private String offDay;      // Only for trains, "None" or day name
 
+    // Parsed once on first use; transient so Gson neither reads nor writes it
+    private transient ScheduleTimes times;
+
     public UnifiedScheduleDTO() {}
 
     // Getters and Setters
@@ -51,20 +57,30 @@ public class UnifiedScheduleDTO {
     public void setDestination(String destination) { this.destination = destination; }
 
     public String getStartTime() { return startTime; }
-    public void setStartTime(String startTime) { this.startTime = startTime; }
+    public void setStartTime(String startTime) { this.startTime = startTime; this.times = null; }
 
     public String getArrivalTime() { return arrivalTime; }
-    public void setArrivalTime(String arrivalTime) { this.arrivalTime = arrivalTime; }
+    public void setArrivalTime(String arrivalTime) { this.arrivalTime = arrivalTime; this.times = null; }
 
     public double getFare() { return fare; }
     public void setFare(double fare) { this.fare = fare; }
 
     public String getDuration() { return duration; }
-    public void setDuration(String duration) { this.duration = duration; }
+    public void setDuration(String duration) { this.duration = duration; this.times = null; }
 
     public String getOffDay() { return offDay; }
     public void setOffDay(String offDay) { this.offDay = offDay; }
 
+    // Pre-parsed departure/arrival minutes and duration
+    public ScheduleTimes getTimes() {
+        ScheduleTimes parsed = times;
+        if (parsed == null) {
+            parsed = ScheduleTimes.parse(startTime, arrivalTime, duration);
+            times = parsed;
+        }
+        return parsed;
+    }
+
     // Helper method to check if it's a bus
     public boolean isBus() {
         return "bus".equalsIgnoreCase(type);
@@ -75,6 +91,27 @@ public class UnifiedScheduleDTO {
         return "train".equalsIgnoreCase(type);
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UnifiedScheduleDTO)) return false;
+        UnifiedScheduleDTO that = (UnifiedScheduleDTO) o;
+        return Double.compare(that.fare, fare) == 0
+                && Objects.equals(type, that.type)
+                && Objects.equals(name, that.name)
+                && Objects.equals(start, that.start)
+                && Objects.equals(destination, that.destination)
+                && Objects.equals(startTime, that.startTime)
+                && Objects.equals(arrivalTime, that.arrivalTime)
+                && Objects.equals(duration, that.duration)
+                && Objects.equals(offDay, that.offDay);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, name, start, destination, startTime, arrivalTime, fare, duration, offDay);
+    }
+
     @Override
     public String toString() {
         return "UnifiedScheduleDTO{" +
@@ -6,18 +6,32 @@ import android.util.Log;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.google.gson.Gson;
+import com.siyam.travelschedulemanager.algorithm.RouteGraphCache;
 import com.siyam.travelschedulemanager.data.cache.ScheduleCacheManager;
 import com.siyam.travelschedulemanager.data.remote.ApiService;
 import com.siyam.travelschedulemanager.data.remote.RetrofitClient;
+import com.siyam.travelschedulemanager.data.remote.ScheduleStreamReader;
 import com.siyam.travelschedulemanager.data.remote.dto.ApiResponseWrapper;
 import com.siyam.travelschedulemanager.data.remote.dto.BusScheduleDTO;
+import com.siyam.travelschedulemanager.data.remote.dto.ScheduleChangesDTO;
 import com.siyam.travelschedulemanager.data.remote.dto.TrainScheduleDTO;
 import com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO;
 import com.siyam.travelschedulemanager.util.NetworkManager;
 
+import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
@@ -28,19 +42,43 @@ import retrofit2.Response;
  * - Online: Fetch from REST API and cache locally
  * - Offline: Use cached data
  * - Automatic fallback to cache on network errors
+ * - Refreshes are incremental: conditional GETs with the cached ETag, and the
+ *   schedule changes feed once a sync version is known
+ * - Stale-while-revalidate: the cached copy is emitted first, and the network
+ *   result only if it differs; concurrent identical loads share one request
+ *
+ * The cache is a SQLite store, so every cache read and write runs on a
+ * single background thread and results are posted back to LiveData.
  */
 public class ScheduleRepository {
     private static final String TAG = "ScheduleRepository";
+    private static final String HEADER_ETAG = "ETag";
+    private static final String HEADER_SCHEDULE_VERSION = "X-Schedule-Version";
+    private static final int INGEST_BATCH_SIZE = 500;
     
     private static ScheduleRepository instance;
     private final ApiService apiService;
     private final ScheduleCacheManager cacheManager;
     private final NetworkManager networkManager;
     private final Context context;
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    // Blocking downloads that stream into the cache
+    private final ExecutorService networkExecutor = Executors.newSingleThreadExecutor();
+    private final Gson gson = new Gson();
+
+    // Loads in flight, joined by concurrent callers
+    private final SingleFlight<List<BusScheduleDTO>> busFlight = new SingleFlight<>();
+    // Train lists carry stops, which let the search graph change trains mid-route
+    private final SingleFlight<List<TrainScheduleDTO>> trainFlight =
+            new SingleFlight<>(RouteGraphCache.getInstance()::submitTrains);
+    // Every unified list that reaches the screen also refreshes the shared search graph,
+    // and a load that fails with nothing to show releases searches waiting for one
+    private final SingleFlight<List<UnifiedScheduleDTO>> unifiedFlight =
+            new SingleFlight<>(RouteGraphCache.getInstance()::submit, RouteGraphCache.getInstance()::loadFailed);
 
     private ScheduleRepository(Context context) {
         this.context = context.getApplicationContext();
-        this.apiService = RetrofitClient.getInstance().getApiService();
+        this.apiService = RetrofitClient.getInstance(context).getApiService();
         this.cacheManager = ScheduleCacheManager.getInstance(context);
         this.networkManager = NetworkManager.getInstance(context);
     }
@@ -55,169 +93,279 @@ public class ScheduleRepository {
     /**
      * Get all bus schedules with smart caching
      * 
-     * Strategy:
-     * 1. If online: Fetch from API, cache, and return
-     * 2. If offline: Return cached data
-     * 3. If API fails: Fallback to cache
+     * Strategy (stale-while-revalidate):
+     * 1. Emit the cached copy right away, if there is one
+     * 2. If online: revalidate with the API (304 if the cached copy is current),
+     *    cache, and emit again only if the schedules changed
+     * 3. If offline or the API fails: the cached copy stands
+     *
+     * Calls made while a load is running join it instead of starting another.
      */
     public LiveData<Resource<List<BusScheduleDTO>>> getAllBusSchedules() {
         MutableLiveData<Resource<List<BusScheduleDTO>>> result = new MutableLiveData<>();
-        
-        if (networkManager.isOnline()) {
-            // Online: Fetch from API
-            result.setValue(Resource.loading(null));
-            
-            apiService.getAllBusSchedules().enqueue(new Callback<ApiResponseWrapper<BusScheduleDTO>>() {
-                @Override
-                public void onResponse(Call<ApiResponseWrapper<BusScheduleDTO>> call, Response<ApiResponseWrapper<BusScheduleDTO>> response) {
-                    if (response.isSuccessful() && response.body() != null && response.body().getValue() != null) {
-                        List<BusScheduleDTO> schedules = response.body().getValue();
-                        // Cache the fresh data
-                        cacheManager.cacheBusSchedules(schedules);
-                        result.setValue(Resource.success(schedules, false));
-                        Log.d(TAG, "Fetched " + schedules.size() + " bus schedules from API (Count: " + response.body().getCount() + ")");
-                    } else {
-                        // API error, fallback to cache
-                        Log.w(TAG, "API error, using cached data");
-                        result.setValue(Resource.success(cacheManager.getCachedBusSchedules(), true));
-                    }
-                }
+        if (!busFlight.join(result)) {
+            return result;
+        }
 
-                @Override
-                public void onFailure(Call<ApiResponseWrapper<BusScheduleDTO>> call, Throwable t) {
-                    Log.e(TAG, "API call failed", t);
-                    // Network error, fallback to cache
-                    List<BusScheduleDTO> cached = cacheManager.getCachedBusSchedules();
-                    if (!cached.isEmpty()) {
-                        result.setValue(Resource.success(cached, true));
-                    } else {
-                        result.setValue(Resource.error("No internet connection and no cached data", null));
-                    }
-                }
-            });
-        } else {
-            // Offline: Use cache immediately
+        boolean online = networkManager.isOnline();
+        serveCached(busFlight, cacheManager::getCachedBusSchedules, online);
+        if (!online) {
             Log.d(TAG, "Offline mode, using cached bus schedules");
-            List<BusScheduleDTO> cached = cacheManager.getCachedBusSchedules();
-            if (!cached.isEmpty()) {
-                result.setValue(Resource.success(cached, true));
-            } else {
-                result.setValue(Resource.error("No internet connection. Please connect to view schedules.", null));
-            }
+            return result;
         }
-        
+
+        String etag = cacheManager.getETag(ScheduleCacheManager.RESOURCE_BUS);
+        apiService.getAllBusSchedules(etag).enqueue(new Callback<ApiResponseWrapper<BusScheduleDTO>>() {
+            @Override
+            public void onResponse(Call<ApiResponseWrapper<BusScheduleDTO>> call, Response<ApiResponseWrapper<BusScheduleDTO>> response) {
+                if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    // Cached copy is current, nothing was downloaded
+                    Log.d(TAG, "Bus schedules not modified");
+                    finishFromStore(busFlight, cacheManager::getCachedBusSchedules);
+                } else if (response.isSuccessful() && response.body() != null && response.body().getValue() != null) {
+                    List<BusScheduleDTO> schedules = response.body().getValue();
+                    String newEtag = response.headers().get(HEADER_ETAG);
+                    Log.d(TAG, "Fetched " + schedules.size() + " bus schedules from API (Count: " + response.body().getCount() + ")");
+                    finishFresh(busFlight, schedules, () -> cacheManager.cacheBusSchedules(schedules, newEtag));
+                } else {
+                    Log.w(TAG, "API error, using cached data");
+                    finishFailed(busFlight, "Server error and no cached data");
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponseWrapper<BusScheduleDTO>> call, Throwable t) {
+                Log.e(TAG, "API call failed", t);
+                finishFailed(busFlight, "No internet connection and no cached data");
+            }
+        });
         return result;
     }
 
     /**
-     * Get all train schedules with smart caching
+     * Get all train schedules with smart caching (same strategy as bus schedules)
      */
     public LiveData<Resource<List<TrainScheduleDTO>>> getAllTrainSchedules() {
         MutableLiveData<Resource<List<TrainScheduleDTO>>> result = new MutableLiveData<>();
-        
-        if (networkManager.isOnline()) {
-            result.setValue(Resource.loading(null));
-            
-            apiService.getAllTrainSchedules().enqueue(new Callback<ApiResponseWrapper<TrainScheduleDTO>>() {
-                @Override
-                public void onResponse(Call<ApiResponseWrapper<TrainScheduleDTO>> call, Response<ApiResponseWrapper<TrainScheduleDTO>> response) {
-                    if (response.isSuccessful() && response.body() != null && response.body().getValue() != null) {
-                        List<TrainScheduleDTO> schedules = response.body().getValue();
-                        cacheManager.cacheTrainSchedules(schedules);
-                        result.setValue(Resource.success(schedules, false));
-                        Log.d(TAG, "Fetched " + schedules.size() + " train schedules from API (Count: " + response.body().getCount() + ")");
-                    } else {
-                        Log.w(TAG, "API error, using cached data");
-                        result.setValue(Resource.success(cacheManager.getCachedTrainSchedules(), true));
-                    }
-                }
+        if (!trainFlight.join(result)) {
+            return result;
+        }
 
-                @Override
-                public void onFailure(Call<ApiResponseWrapper<TrainScheduleDTO>> call, Throwable t) {
-                    Log.e(TAG, "API call failed", t);
-                    List<TrainScheduleDTO> cached = cacheManager.getCachedTrainSchedules();
-                    if (!cached.isEmpty()) {
-                        result.setValue(Resource.success(cached, true));
-                    } else {
-                        result.setValue(Resource.error("No internet connection and no cached data", null));
-                    }
-                }
-            });
-        } else {
+        boolean online = networkManager.isOnline();
+        serveCached(trainFlight, cacheManager::getCachedTrainSchedules, online);
+        if (!online) {
             Log.d(TAG, "Offline mode, using cached train schedules");
-            List<TrainScheduleDTO> cached = cacheManager.getCachedTrainSchedules();
-            if (!cached.isEmpty()) {
-                result.setValue(Resource.success(cached, true));
-            } else {
-                result.setValue(Resource.error("No internet connection. Please connect to view schedules.", null));
-            }
+            return result;
         }
-        
+
+        String etag = cacheManager.getETag(ScheduleCacheManager.RESOURCE_TRAIN);
+        apiService.getAllTrainSchedules(etag).enqueue(new Callback<ApiResponseWrapper<TrainScheduleDTO>>() {
+            @Override
+            public void onResponse(Call<ApiResponseWrapper<TrainScheduleDTO>> call, Response<ApiResponseWrapper<TrainScheduleDTO>> response) {
+                if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    Log.d(TAG, "Train schedules not modified");
+                    finishFromStore(trainFlight, cacheManager::getCachedTrainSchedules);
+                } else if (response.isSuccessful() && response.body() != null && response.body().getValue() != null) {
+                    List<TrainScheduleDTO> schedules = response.body().getValue();
+                    String newEtag = response.headers().get(HEADER_ETAG);
+                    Log.d(TAG, "Fetched " + schedules.size() + " train schedules from API (Count: " + response.body().getCount() + ")");
+                    finishFresh(trainFlight, schedules, () -> cacheManager.cacheTrainSchedules(schedules, newEtag));
+                } else {
+                    Log.w(TAG, "API error, using cached data");
+                    finishFailed(trainFlight, "Server error and no cached data");
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiResponseWrapper<TrainScheduleDTO>> call, Throwable t) {
+                Log.e(TAG, "API call failed", t);
+                finishFailed(trainFlight, "No internet connection and no cached data");
+            }
+        });
         return result;
     }
 
     /**
-     * Get all schedules (unified) with smart caching
+     * Get all schedules (unified) with smart caching (same strategy as bus schedules)
+     *
+     * Online with a known sync version, only the changes since that version are
+     * downloaded and merged into the cache; otherwise the full list is fetched
+     * with a conditional GET.
      */
     public LiveData<Resource<List<UnifiedScheduleDTO>>> getAllSchedules() {
         MutableLiveData<Resource<List<UnifiedScheduleDTO>>> result = new MutableLiveData<>();
-        
-        if (networkManager.isOnline()) {
-            result.setValue(Resource.loading(null));
-            
-            apiService.getAllSchedules().enqueue(new Callback<List<UnifiedScheduleDTO>>() {
-                @Override
-                public void onResponse(Call<List<UnifiedScheduleDTO>> call, Response<List<UnifiedScheduleDTO>> response) {
-                    if (response.isSuccessful() && response.body() != null) {
-                        List<UnifiedScheduleDTO> schedules = response.body();
-                        cacheManager.cacheUnifiedSchedules(schedules);
-                        result.setValue(Resource.success(schedules, false));
-                        Log.d(TAG, "Fetched " + schedules.size() + " unified schedules from API");
-                    } else {
-                        Log.w(TAG, "API error, using cached data");
-                        result.setValue(Resource.success(cacheManager.getCachedUnifiedSchedules(), true));
-                    }
+        if (!unifiedFlight.join(result)) {
+            return result;
+        }
+
+        boolean online = networkManager.isOnline();
+        serveCached(unifiedFlight, cacheManager::getCachedUnifiedSchedules, online);
+        if (!online) {
+            Log.d(TAG, "Offline mode, using cached unified schedules");
+            return result;
+        }
+
+        long syncVersion = cacheManager.getSyncVersion();
+        if (syncVersion > 0) {
+            fetchScheduleChanges(syncVersion);
+        } else {
+            fetchAllSchedules();
+        }
+        return result;
+    }
+
+    /**
+     * Download the changes feed since the cursor and merge it into the cache.
+     * Falls back to a full download when the server cannot serve the delta.
+     */
+    private void fetchScheduleChanges(long sinceVersion) {
+        apiService.getScheduleChanges(sinceVersion).enqueue(new Callback<ScheduleChangesDTO>() {
+            @Override
+            public void onResponse(Call<ScheduleChangesDTO> call, Response<ScheduleChangesDTO> response) {
+                ScheduleChangesDTO changes = response.body();
+                if (!response.isSuccessful() || changes == null || changes.isFullResync()) {
+                    // Unknown cursor, no changes endpoint, or the server asks for a resync
+                    Log.w(TAG, "Changes since " + sinceVersion + " unavailable (HTTP " + response.code() + "), downloading all");
+                    fetchAllSchedules();
+                    return;
                 }
 
-                @Override
-                public void onFailure(Call<List<UnifiedScheduleDTO>> call, Throwable t) {
-                    Log.e(TAG, "API call failed", t);
-                    List<UnifiedScheduleDTO> cached = cacheManager.getCachedUnifiedSchedules();
-                    if (!cached.isEmpty()) {
-                        result.setValue(Resource.success(cached, true));
-                    } else {
-                        result.setValue(Resource.error("No internet connection and no cached data", null));
+                Log.d(TAG, "Received " + changes.getUpserts().size() + " upserts and "
+                        + changes.getDeletes().size() + " deletes since version " + sinceVersion);
+                diskExecutor.execute(() -> {
+                    List<UnifiedScheduleDTO> merged;
+                    try {
+                        if (!changes.hasChanges()) {
+                            if (changes.getVersion() != sinceVersion) {
+                                cacheManager.applyUnifiedChanges(changes.getUpserts(), changes.getDeletes(), changes.getVersion());
+                            }
+                            finishFromStore(unifiedFlight, cacheManager::getCachedUnifiedSchedules);
+                            return;
+                        }
+                        cacheManager.applyUnifiedChanges(changes.getUpserts(), changes.getDeletes(), changes.getVersion());
+                        merged = cacheManager.getCachedUnifiedSchedules();
+                    } catch (RuntimeException e) {
+                        // The merge is one transaction, so the cache and its cursor are as they were
+                        Log.e(TAG, "Failed to merge schedule changes", e);
+                        finishFailed(unifiedFlight, "Could not update schedules and no cached data");
+                        return;
                     }
-                }
-            });
-        } else {
-            Log.d(TAG, "Offline mode, using cached unified schedules");
-            List<UnifiedScheduleDTO> cached = cacheManager.getCachedUnifiedSchedules();
-            if (!cached.isEmpty()) {
-                result.setValue(Resource.success(cached, true));
-            } else {
-                result.setValue(Resource.error("No internet connection. Please connect to view schedules.", null));
+                    unifiedFlight.finish(Resource.success(merged, false));
+                });
+            }
+
+            @Override
+            public void onFailure(Call<ScheduleChangesDTO> call, Throwable t) {
+                Log.e(TAG, "API call failed", t);
+                finishFailed(unifiedFlight, "No internet connection and no cached data");
             }
+        });
+    }
+
+    /**
+     * Download the full unified list, conditionally on the cached ETag.
+     * The body is streamed straight into the cache: each batch is written on the
+     * disk thread while the next one is parsed, and grouped into the next search
+     * graph on the graph thread, so the graph is ready when the download ends.
+     * The parsed records are kept for the screen and nothing is read back from
+     * the store; only the JSON of the batch being parsed exists next to them.
+     * The screen and the search graph never see a partial timetable.
+     */
+    private void fetchAllSchedules() {
+        String etag = cacheManager.getETag(ScheduleCacheManager.RESOURCE_UNIFIED);
+        Call<ResponseBody> call = apiService.streamAllSchedules(etag);
+        networkExecutor.execute(() -> {
+            Response<ResponseBody> response;
+            try {
+                response = call.execute();
+            } catch (IOException e) {
+                Log.e(TAG, "API call failed", e);
+                finishFailed(unifiedFlight, "No internet connection and no cached data");
+                return;
+            }
+
+            if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                Log.d(TAG, "Unified schedules not modified");
+                finishFromStore(unifiedFlight, cacheManager::getCachedUnifiedSchedules);
+                return;
+            }
+            if (!response.isSuccessful() || response.body() == null) {
+                Log.w(TAG, "API error " + response.code() + ", using cached data");
+                finishFailed(unifiedFlight, "Server error and no cached data");
+                return;
+            }
+
+            String newEtag = response.headers().get(HEADER_ETAG);
+            long version = parseVersion(response.headers().get(HEADER_SCHEDULE_VERSION));
+            long stamp = cacheManager.beginUnifiedIngest();
+            RouteGraphCache.Ingest graph = RouteGraphCache.getInstance().beginIngest();
+            List<UnifiedScheduleDTO> streamed = new ArrayList<>();
+            // The batch still being written; the next one waits for it
+            AtomicReference<Future<?>> pending = new AtomicReference<>();
+            int count;
+            try (ResponseBody body = response.body()) {
+                count = ScheduleStreamReader.readUnifiedSchedules(body.charStream(), gson, INGEST_BATCH_SIZE, batch -> {
+                    streamed.addAll(batch);
+                    graph.add(batch);
+                    awaitWrite(pending.get());
+                    pending.set(diskExecutor.submit(() -> cacheManager.ingestUnifiedBatch(batch, stamp)));
+                });
+                awaitWrite(pending.get());
+            } catch (IOException | RuntimeException e) {
+                // Rows already written stay; without the sweep and ETag the next load downloads again
+                Log.e(TAG, "Schedule download failed", e);
+                finishFailed(unifiedFlight, "Download interrupted and no cached data");
+                return;
+            }
+
+            Log.d(TAG, "Streamed " + count + " unified schedules from API");
+            finishFresh(unifiedFlight, streamed, () -> {
+                cacheManager.finishUnifiedIngest(stamp, count, newEtag, version);
+                graph.finish();
+            });
+        });
+    }
+
+    // Wait for a batch write, rethrowing its failure on the calling thread
+    private static void awaitWrite(Future<?> write) {
+        if (write == null) {
+            return;
+        }
+        try {
+            write.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to write schedule batch", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing schedules", e);
+        }
+    }
+
+    private static long parseVersion(String header) {
+        if (header == null) return 0;
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return 0;
         }
-        
-        return result;
     }
 
     /**
-     * Search routes (REQUIRES ONLINE)
-     * This is real-time search and cannot work offline
+     * Search routes
+     * Online: real-time search on the server
+     * Offline or on network errors: indexed lookup in the local cache
      */
     public LiveData<Resource<List<UnifiedScheduleDTO>>> searchRoutes(String start, String destination) {
         MutableLiveData<Resource<List<UnifiedScheduleDTO>>> result = new MutableLiveData<>();
+        result.setValue(Resource.loading(null));
         
         if (!networkManager.isOnline()) {
-            // Must be online for search
-            result.setValue(Resource.error("Internet connection required for route search", null));
+            Log.d(TAG, "Offline mode, searching cached schedules");
+            postCached(result, () -> cacheManager.searchCachedSchedules(start, destination),
+                    "No cached routes found. Connect to the internet to search.");
             return result;
         }
         
-        result.setValue(Resource.loading(null));
-        
         apiService.searchRoutes(start, destination).enqueue(new Callback<List<UnifiedScheduleDTO>>() {
             @Override
             public void onResponse(Call<List<UnifiedScheduleDTO>> call, Response<List<UnifiedScheduleDTO>> response) {
@@ -233,7 +381,8 @@ public class ScheduleRepository {
             @Override
             public void onFailure(Call<List<UnifiedScheduleDTO>> call, Throwable t) {
                 Log.e(TAG, "Route search failed", t);
-                result.setValue(Resource.error("Search failed: " + t.getMessage(), null));
+                postCached(result, () -> cacheManager.searchCachedSchedules(start, destination),
+                        "Search failed: " + t.getMessage());
             }
         });
         
@@ -278,7 +427,7 @@ public class ScheduleRepository {
      * Clear cache
      */
     public void clearCache() {
-        cacheManager.clearCache();
+        diskExecutor.execute(cacheManager::clearCache);
     }
 
     /**
@@ -295,6 +444,98 @@ public class ScheduleRepository {
         return cacheManager.getLastUpdateTime();
     }
 
+    // ==================== Stale-while-revalidate helpers ====================
+    // All of them run their work on the disk thread, in submission order, so the
+    // cached emission always comes before whatever the network load emits.
+
+    /**
+     * Emit the cached copy. Online, the load stays open for revalidation;
+     * offline it ends here.
+     */
+    private <T> void serveCached(SingleFlight<List<T>> flight, Supplier<List<T>> reader, boolean online) {
+        flight.emit(Resource.loading(null));
+        diskExecutor.execute(() -> {
+            List<T> cached = reader.get();
+            if (!cached.isEmpty()) {
+                if (online) {
+                    flight.emit(Resource.success(cached, true));
+                } else {
+                    flight.finish(Resource.success(cached, true));
+                }
+            } else if (!online) {
+                flight.finish(Resource.error("No internet connection. Please connect to view schedules.", null));
+            }
+        });
+    }
+
+    /**
+     * Store fresh data, then emit it unless it matches what was already shown
+     */
+    private <T> void finishFresh(SingleFlight<List<T>> flight, List<T> fresh, Runnable store) {
+        diskExecutor.execute(() -> {
+            try {
+                store.run();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to finish storing schedules", e);
+                flight.finish(flight.getEmittedData() != null ? null
+                        : Resource.error("Could not store schedules and no cached data", null));
+                return;
+            }
+            List<T> shown = flight.getEmittedData();
+            if (shown != null && sameContents(shown, fresh)) {
+                Log.d(TAG, "Revalidated cache is unchanged");
+                flight.finish(null);
+            } else {
+                flight.finish(Resource.success(fresh, false));
+            }
+        });
+    }
+
+    /**
+     * The server confirmed the stored rows; only emit if nothing was shown yet
+     */
+    private <T> void finishFromStore(SingleFlight<List<T>> flight, Supplier<List<T>> reader) {
+        diskExecutor.execute(() -> {
+            if (flight.getEmittedData() != null) {
+                flight.finish(null);
+                return;
+            }
+            List<T> stored = reader.get();
+            flight.finish(stored.isEmpty()
+                    ? Resource.error("Server error and no cached data", null)
+                    : Resource.success(stored, false));
+        });
+    }
+
+    /**
+     * Revalidation failed; the cached copy stands, or report the error if there was none
+     */
+    private <T> void finishFailed(SingleFlight<List<T>> flight, String emptyMessage) {
+        diskExecutor.execute(() -> flight.finish(
+                flight.getEmittedData() != null ? null : Resource.error(emptyMessage, null)));
+    }
+
+    // Same schedules regardless of order
+    private static <T> boolean sameContents(List<T> a, List<T> b) {
+        return a.size() == b.size() && new HashSet<>(a).equals(new HashSet<>(b));
+    }
+
+    /**
+     * Read from the cache on the disk thread and post it as a cached success,
+     * or as an error if the cache has nothing
+     */
+    private <T> void postCached(MutableLiveData<Resource<List<T>>> result, Supplier<List<T>> reader,
+                                String emptyMessage) {
+        diskExecutor.execute(() -> {
+            List<T> cached = reader.get();
+            if (!cached.isEmpty()) {
+                result.postValue(Resource.success(cached, true));
+            } else {
+                result.postValue(Resource.error(emptyMessage, null));
+            }
+        });
+    }
+
     /**
      * Resource wrapper class for handling loading, success, and error states
      */
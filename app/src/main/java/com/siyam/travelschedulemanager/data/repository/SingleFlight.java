@@ -0,0 +1,98 @@
+package com.siyam.travelschedulemanager.data.repository;
+
+import androidx.lifecycle.MutableLiveData;
+
+import com.siyam.travelschedulemanager.data.repository.ScheduleRepository.Resource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * One in-flight load of a resource, shared by every caller that asks for it
+ * while it runs.
+ *
+ * Each caller still gets its own LiveData, so observers never see values from
+ * an earlier load. A caller joining mid-flight is handed the latest value at
+ * once. The load emits through {@link #emit} and ends with {@link #finish};
+ * the next {@link #join} after that starts a new load.
+ *
+ * Emissions are posted, so any thread may call in.
+ */
+class SingleFlight<T> {
+    private final List<MutableLiveData<Resource<T>>> subscribers = new ArrayList<>();
+    // Told about every emission that carries data, cached or fresh
+    private final Consumer<T> dataListener;
+    // Told when a load ends in an error without having shown any data
+    private final Runnable failureListener;
+    private boolean inFlight;
+    private Resource<T> latest;
+    private T emittedData;
+
+    SingleFlight() {
+        this(null, null);
+    }
+
+    SingleFlight(Consumer<T> dataListener) {
+        this(dataListener, null);
+    }
+
+    SingleFlight(Consumer<T> dataListener, Runnable failureListener) {
+        this.dataListener = dataListener;
+        this.failureListener = failureListener;
+    }
+
+    /**
+     * Subscribe to the current load.
+     * @return true if no load was running and the caller must start one
+     */
+    synchronized boolean join(MutableLiveData<Resource<T>> subscriber) {
+        subscribers.add(subscriber);
+        if (inFlight) {
+            if (latest != null) {
+                subscriber.postValue(latest);
+            }
+            return false;
+        }
+        inFlight = true;
+        latest = null;
+        emittedData = null;
+        return true;
+    }
+
+    synchronized void emit(Resource<T> resource) {
+        latest = resource;
+        if (resource.getStatus() == Resource.Status.SUCCESS) {
+            emittedData = resource.getData();
+        }
+        for (MutableLiveData<Resource<T>> subscriber : subscribers) {
+            subscriber.postValue(resource);
+        }
+        if (dataListener != null && resource.getData() != null) {
+            dataListener.accept(resource.getData());
+        }
+    }
+
+    /**
+     * Data of the last success emitted by this load, or null
+     */
+    synchronized T getEmittedData() {
+        return emittedData;
+    }
+
+    /**
+     * Emit a final value (if not null) and end the load
+     */
+    synchronized void finish(Resource<T> resource) {
+        if (resource != null) {
+            emit(resource);
+            if (failureListener != null && resource.getStatus() == Resource.Status.ERROR && emittedData == null) {
+                failureListener.run();
+            }
+        }
+        subscribers.clear();
+        inFlight = false;
+        latest = null;
+        emittedData = null;
+    }
+}
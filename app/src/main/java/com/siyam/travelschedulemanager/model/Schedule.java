@@ -1,6 +1,8 @@
 package com.siyam.travelschedulemanager.model;
 
 import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.Exclude;
+import com.siyam.travelschedulemanager.util.TimeCodec;
 import java.util.List;
 
 public class Schedule {
@@ -19,6 +21,9 @@ public class Schedule {
     private Timestamp createdAt;
     private String createdBy;
 
+    // Parsed once on first use, never stored in Firestore
+    private transient ScheduleTimes times;
+
     // Empty constructor required for Firestore
     public Schedule() {
     }
@@ -75,6 +80,7 @@ public class Schedule {
 
     public void setDepartureTime(String departureTime) {
         this.departureTime = departureTime;
+        this.times = null;
     }
 
     public String getArrivalTime() {
@@ -83,6 +89,7 @@ public class Schedule {
 
     public void setArrivalTime(String arrivalTime) {
         this.arrivalTime = arrivalTime;
+        this.times = null;
     }
 
     public int getDuration() {
@@ -91,6 +98,7 @@ public class Schedule {
 
     public void setDuration(int duration) {
         this.duration = duration;
+        this.times = null;
     }
 
     public double getFare() {
@@ -148,4 +156,15 @@ public class Schedule {
     public void setCreatedBy(String createdBy) {
         this.createdBy = createdBy;
     }
+
+    // Pre-parsed departure/arrival minutes and duration
+    @Exclude
+    public ScheduleTimes getTimes() {
+        ScheduleTimes parsed = times;
+        if (parsed == null) {
+            parsed = ScheduleTimes.parse(departureTime, arrivalTime, duration > 0 ? duration : TimeCodec.INVALID);
+            times = parsed;
+        }
+        return parsed;
+    }
 }
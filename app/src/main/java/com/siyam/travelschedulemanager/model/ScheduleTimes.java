@@ -0,0 +1,62 @@
+package com.siyam.travelschedulemanager.model;
+
+import com.siyam.travelschedulemanager.util.TimeCodec;
+
+/**
+ * Pre-parsed times of one schedule: minute of day for departure and arrival,
+ * plus the journey duration in minutes. Parsed once per schedule so routing,
+ * validation and sorting only compare ints.
+ */
+public final class ScheduleTimes {
+    public static final ScheduleTimes INVALID = new ScheduleTimes(TimeCodec.INVALID, TimeCodec.INVALID, 0);
+
+    private final int departureMinute;
+    private final int arrivalMinute;
+    private final int durationMinutes;
+
+    private ScheduleTimes(int departureMinute, int arrivalMinute, int durationMinutes) {
+        this.departureMinute = departureMinute;
+        this.arrivalMinute = arrivalMinute;
+        this.durationMinutes = durationMinutes;
+    }
+
+    /**
+     * Parse departure and arrival times. The duration comes from the times
+     * (overnight journeys wrap); the declared duration string such as "26:10h"
+     * only adds whole days for journeys longer than a day, or stands in when the
+     * times are missing.
+     */
+    public static ScheduleTimes parse(String departureTime, String arrivalTime, String declaredDuration) {
+        return parse(departureTime, arrivalTime, TimeCodec.parseDuration(declaredDuration));
+    }
+
+    /**
+     * Same as above with the declared duration already in minutes (INVALID if unknown)
+     */
+    public static ScheduleTimes parse(String departureTime, String arrivalTime, int declared) {
+        int departure = TimeCodec.parseTime(departureTime);
+        int arrival = TimeCodec.parseTime(arrivalTime);
+
+        if (departure == TimeCodec.INVALID || arrival == TimeCodec.INVALID) {
+            if (departure == TimeCodec.INVALID && arrival == TimeCodec.INVALID && declared == TimeCodec.INVALID) {
+                return INVALID;
+            }
+            return new ScheduleTimes(departure, arrival, Math.max(declared, 0));
+        }
+
+        int sameDay = TimeCodec.minutesBetween(departure, arrival);
+        int extraDays = declared > sameDay
+                ? Math.round((declared - sameDay) / (float) TimeCodec.MINUTES_PER_DAY)
+                : 0;
+        return new ScheduleTimes(departure, arrival, sameDay + extraDays * TimeCodec.MINUTES_PER_DAY);
+    }
+
+    public int getDepartureMinute() { return departureMinute; }
+    public int getArrivalMinute() { return arrivalMinute; }
+    public int getDurationMinutes() { return durationMinutes; }
+
+    // Both ends parsed, so the schedule can take part in routing
+    public boolean isValid() {
+        return departureMinute != TimeCodec.INVALID && arrivalMinute != TimeCodec.INVALID;
+    }
+}
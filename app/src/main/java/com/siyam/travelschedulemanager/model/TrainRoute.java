@@ -1,6 +1,8 @@
 package com.siyam.travelschedulemanager.model;
 
 import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.Exclude;
+import com.siyam.travelschedulemanager.util.TimeCodec;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -26,6 +28,9 @@ public class TrainRoute {
     private Timestamp createdAt;
     private Timestamp updatedAt;
 
+    // Parsed once on first use, never stored in Firestore
+    private transient ScheduleTimes times;
+
     // Empty constructor required for Firestore
     public TrainRoute() {
         this.routeType = "TRAIN";
@@ -67,6 +72,7 @@ public class TrainRoute {
             this.startTime = firstStop.getDepartureTime();
             this.arrivalTime = lastStop.getArrivalTime();
             this.fare = lastStop.getCumulativeFare();
+            this.times = null;
         }
     }
 
@@ -90,16 +96,16 @@ public class TrainRoute {
     public void setDestination(String destination) { this.destination = destination; }
 
     public String getStartTime() { return startTime; }
-    public void setStartTime(String startTime) { this.startTime = startTime; }
+    public void setStartTime(String startTime) { this.startTime = startTime; this.times = null; }
 
     public String getArrivalTime() { return arrivalTime; }
-    public void setArrivalTime(String arrivalTime) { this.arrivalTime = arrivalTime; }
+    public void setArrivalTime(String arrivalTime) { this.arrivalTime = arrivalTime; this.times = null; }
 
     public double getFare() { return fare; }
     public void setFare(double fare) { this.fare = fare; }
 
     public String getDuration() { return duration; }
-    public void setDuration(String duration) { this.duration = duration; }
+    public void setDuration(String duration) { this.duration = duration; this.times = null; }
 
     public String getOffDay() { return offDay; }
     public void setOffDay(String offDay) { this.offDay = offDay; }
@@ -128,21 +134,22 @@ public class TrainRoute {
     // For compatibility - getDepartureTime returns startTime  
     public String getDepartureTime() { return startTime; }
 
-    // Helper to get duration in minutes for display
-    public int getDurationMinutes() {
-        if (duration == null || duration.isEmpty()) return 0;
-        try {
-            String cleaned = duration.replace("h", "").trim();
-            String[] parts = cleaned.split(":");
-            if (parts.length == 2) {
-                int hours = Integer.parseInt(parts[0]);
-                int minutes = Integer.parseInt(parts[1]);
-                return hours * 60 + minutes;
-            }
-        } catch (Exception e) {
-            return 0;
+    // Pre-parsed departure/arrival minutes and duration
+    @Exclude
+    public ScheduleTimes getTimes() {
+        ScheduleTimes parsed = times;
+        if (parsed == null) {
+            parsed = ScheduleTimes.parse(startTime, arrivalTime, duration);
+            times = parsed;
         }
-        return 0;
+        return parsed;
+    }
+
+    // Helper to get duration in minutes for display: the declared duration, 0 if missing or malformed.
+    // Also stored as durationMinutes on the route document, so it must not follow getTimes().
+    public int getDurationMinutes() {
+        int minutes = TimeCodec.parseDuration(duration);
+        return minutes == TimeCodec.INVALID ? 0 : minutes;
     }
 
     // Helper method to get display name
@@ -0,0 +1,105 @@
+package com.siyam.travelschedulemanager.ui.adapter;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ListAdapter for items with a natural key, such as a document id.
+ *
+ * submitItems() hands a copy of the list to ListAdapter, which diffs it against
+ * the current list on a background thread and then notifies only the rows that
+ * were inserted, removed, moved or changed. Each key keeps the same stable id
+ * across updates, so RecyclerView reuses a row's view instead of rebinding
+ * the whole list.
+ *
+ * Contents compare with equals(). For models without equals() that means the
+ * same instance, which is what the snapshot listeners keep for unchanged
+ * documents. Override areContentsTheSame() where that is not enough.
+ */
+public abstract class KeyedListAdapter<T, VH extends RecyclerView.ViewHolder> extends ListAdapter<T, VH> {
+    // Stable id per key, main thread only; pruned when keys pile up
+    private final Map<Object, Long> stableIds = new HashMap<>();
+    private long nextStableId;
+
+    protected KeyedListAdapter() {
+        this(new KeyCallback<>());
+    }
+
+    private KeyedListAdapter(KeyCallback<T> callback) {
+        super(callback);
+        callback.adapter = this;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Key that identifies the item across updates, or null to match by instance.
+     * Called on the diff thread.
+     */
+    @Nullable
+    protected abstract Object getItemKey(@NonNull T item);
+
+    /**
+     * Whether an item with the same key needs rebinding. Called on the diff thread.
+     */
+    protected boolean areContentsTheSame(@NonNull T oldItem, @NonNull T newItem) {
+        return oldItem.equals(newItem);
+    }
+
+    /**
+     * Show these items. The list is copied, so callers may keep changing their own.
+     */
+    public void submitItems(@Nullable List<T> items) {
+        submitList(items != null ? new ArrayList<>(items) : null);
+    }
+
+    private Object keyOf(T item) {
+        Object key = getItemKey(item);
+        return key != null ? key : item;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        Object key = keyOf(getItem(position));
+        Long id = stableIds.get(key);
+        if (id == null) {
+            id = nextStableId++;
+            stableIds.put(key, id);
+        }
+        return id;
+    }
+
+    @Override
+    public void onCurrentListChanged(@NonNull List<T> previousList, @NonNull List<T> currentList) {
+        if (stableIds.size() > 2 * currentList.size() + 16) {
+            Set<Object> current = new HashSet<>();
+            for (T item : currentList) {
+                current.add(keyOf(item));
+            }
+            stableIds.keySet().retainAll(current);
+        }
+    }
+
+    private static class KeyCallback<T> extends DiffUtil.ItemCallback<T> {
+        KeyedListAdapter<T, ?> adapter;
+
+        @Override
+        public boolean areItemsTheSame(@NonNull T oldItem, @NonNull T newItem) {
+            return adapter.keyOf(oldItem).equals(adapter.keyOf(newItem));
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull T oldItem, @NonNull T newItem) {
+            return adapter.areContentsTheSame(oldItem, newItem);
+        }
+    }
+}
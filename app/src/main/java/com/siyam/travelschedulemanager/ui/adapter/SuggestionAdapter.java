@@ -0,0 +1,86 @@
+package com.siyam.travelschedulemanager.ui.adapter;
+
+import android.content.Context;
+import android.widget.ArrayAdapter;
+import android.widget.AutoCompleteTextView;
+import android.widget.Filter;
+
+import androidx.annotation.NonNull;
+
+import com.siyam.travelschedulemanager.data.firebase.AutocompleteIndex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Dropdown adapter for place fields, filled from the shared autocomplete trie
+ * instead of scanning a fixed array. Tolerates typos and old spellings.
+ *
+ * Another source can be plugged in; the adapter shows whatever it returns
+ * without filtering it again, so it can be refreshed in place.
+ */
+public class SuggestionAdapter extends ArrayAdapter<String> {
+    private static final int MAX_SUGGESTIONS = 10;
+
+    /**
+     * Suggestions for the text typed so far; called on the filter thread
+     */
+    public interface Source {
+        List<String> suggest(String query, int limit);
+    }
+
+    private final Source source;
+
+    private final Filter filter = new Filter() {
+        // Runs on the filter thread
+        @Override
+        protected FilterResults performFiltering(CharSequence constraint) {
+            List<String> suggestions = constraint == null
+                    ? Collections.emptyList()
+                    : source.suggest(constraint.toString(), MAX_SUGGESTIONS);
+            FilterResults results = new FilterResults();
+            results.values = suggestions;
+            results.count = suggestions.size();
+            return results;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void publishResults(CharSequence constraint, FilterResults results) {
+            setNotifyOnChange(false);
+            clear();
+            if (results.values != null) {
+                addAll((List<String>) results.values);
+            }
+            if (results.count > 0) {
+                notifyDataSetChanged();
+            } else {
+                notifyDataSetInvalidated();
+            }
+        }
+    };
+
+    public SuggestionAdapter(@NonNull Context context) {
+        this(context, (query, limit) -> AutocompleteIndex.getInstance().getTrie().suggest(query, limit));
+        AutocompleteIndex.getInstance().preload();
+    }
+
+    public SuggestionAdapter(@NonNull Context context, @NonNull Source source) {
+        super(context, android.R.layout.simple_dropdown_item_1line, new ArrayList<>());
+        this.source = source;
+    }
+
+    /**
+     * Ask the source again for the view's current text, e.g. after it has new data
+     */
+    public void refresh(@NonNull AutoCompleteTextView view) {
+        filter.filter(view.getText(), view);
+    }
+
+    @NonNull
+    @Override
+    public Filter getFilter() {
+        return filter;
+    }
+}
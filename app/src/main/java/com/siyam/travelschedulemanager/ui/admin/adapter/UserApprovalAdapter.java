@@ -9,11 +9,10 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.siyam.travelschedulemanager.R;
 import com.siyam.travelschedulemanager.model.User;
-import java.util.ArrayList;
+import com.siyam.travelschedulemanager.ui.adapter.KeyedListAdapter;
 import java.util.List;
 
-public class UserApprovalAdapter extends RecyclerView.Adapter<UserApprovalAdapter.UserViewHolder> {
-    private List<User> users = new ArrayList<>();
+public class UserApprovalAdapter extends KeyedListAdapter<User, UserApprovalAdapter.UserViewHolder> {
     private OnUserActionListener listener;
 
     public interface OnUserActionListener {
@@ -25,8 +24,7 @@ public class UserApprovalAdapter extends RecyclerView.Adapter<UserApprovalAdapte
     }
 
     public void setUsers(List<User> users) {
-        this.users = users;
-        notifyDataSetChanged();
+        submitItems(users);
     }
 
     @NonNull
@@ -39,13 +37,13 @@ public class UserApprovalAdapter extends RecyclerView.Adapter<UserApprovalAdapte
 
     @Override
     public void onBindViewHolder(@NonNull UserViewHolder holder, int position) {
-        User user = users.get(position);
+        User user = getItem(position);
         holder.bind(user, listener);
     }
 
     @Override
-    public int getItemCount() {
-        return users.size();
+    protected Object getItemKey(@NonNull User item) {
+        return item.getUid();
     }
 
     static class UserViewHolder extends RecyclerView.ViewHolder {
@@ -9,12 +9,11 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.siyam.travelschedulemanager.R;
 import com.siyam.travelschedulemanager.model.User;
+import com.siyam.travelschedulemanager.ui.adapter.KeyedListAdapter;
 import com.siyam.travelschedulemanager.util.Constants;
-import java.util.ArrayList;
 import java.util.List;
 
-public class UserLockAdapter extends RecyclerView.Adapter<UserLockAdapter.UserLockViewHolder> {
-    private List<User> users = new ArrayList<>();
+public class UserLockAdapter extends KeyedListAdapter<User, UserLockAdapter.UserLockViewHolder> {
     private OnUserLockActionListener listener;
 
     public interface OnUserLockActionListener {
@@ -26,8 +25,7 @@ public class UserLockAdapter extends RecyclerView.Adapter<UserLockAdapter.UserLo
     }
 
     public void setUsers(List<User> users) {
-        this.users = users;
-        notifyDataSetChanged();
+        submitItems(users);
     }
 
     @NonNull
@@ -40,13 +38,13 @@ public class UserLockAdapter extends RecyclerView.Adapter<UserLockAdapter.UserLo
 
     @Override
     public void onBindViewHolder(@NonNull UserLockViewHolder holder, int position) {
-        User user = users.get(position);
+        User user = getItem(position);
         holder.bind(user, listener);
     }
 
     @Override
-    public int getItemCount() {
-        return users.size();
+    protected Object getItemKey(@NonNull User item) {
+        return item.getUid();
     }
 
     static class UserLockViewHolder extends RecyclerView.ViewHolder {
@@ -11,12 +11,11 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.siyam.travelschedulemanager.R;
 import com.siyam.travelschedulemanager.model.User;
+import com.siyam.travelschedulemanager.ui.adapter.KeyedListAdapter;
 import com.siyam.travelschedulemanager.util.Constants;
-import java.util.ArrayList;
 import java.util.List;
 
-public class UserRoleAdapter extends RecyclerView.Adapter<UserRoleAdapter.UserRoleViewHolder> {
-    private List<User> users = new ArrayList<>();
+public class UserRoleAdapter extends KeyedListAdapter<User, UserRoleAdapter.UserRoleViewHolder> {
     private OnUserRoleChangeListener listener;
 
     public interface OnUserRoleChangeListener {
@@ -28,8 +27,7 @@ public class UserRoleAdapter extends RecyclerView.Adapter<UserRoleAdapter.UserRo
     }
 
     public void setUsers(List<User> users) {
-        this.users = users;
-        notifyDataSetChanged();
+        submitItems(users);
     }
 
     @NonNull
@@ -42,13 +40,13 @@ public class UserRoleAdapter extends RecyclerView.Adapter<UserRoleAdapter.UserRo
 
     @Override
     public void onBindViewHolder(@NonNull UserRoleViewHolder holder, int position) {
-        User user = users.get(position);
+        User user = getItem(position);
         holder.bind(user, listener);
     }
 
     @Override
-    public int getItemCount() {
-        return users.size();
+    protected Object getItemKey(@NonNull User item) {
+        return item.getUid();
     }
 
     static class UserRoleViewHolder extends RecyclerView.ViewHolder {
@@ -9,13 +9,12 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.siyam.travelschedulemanager.R;
 import com.siyam.travelschedulemanager.model.PendingRoute;
+import com.siyam.travelschedulemanager.ui.adapter.KeyedListAdapter;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
-public class PendingRouteAdapter extends RecyclerView.Adapter<PendingRouteAdapter.PendingRouteViewHolder> {
-    private List<PendingRoute> pendingRoutes = new ArrayList<>();
+public class PendingRouteAdapter extends KeyedListAdapter<PendingRoute, PendingRouteAdapter.PendingRouteViewHolder> {
     private OnPendingRouteActionListener listener;
 
     public interface OnPendingRouteActionListener {
@@ -27,8 +26,7 @@ public class PendingRouteAdapter extends RecyclerView.Adapter<PendingRouteAdapte
     }
 
     public void setPendingRoutes(List<PendingRoute> pendingRoutes) {
-        this.pendingRoutes = pendingRoutes;
-        notifyDataSetChanged();
+        submitItems(pendingRoutes);
     }
 
     @NonNull
@@ -41,13 +39,13 @@ public class PendingRouteAdapter extends RecyclerView.Adapter<PendingRouteAdapte
 
     @Override
     public void onBindViewHolder(@NonNull PendingRouteViewHolder holder, int position) {
-        PendingRoute pendingRoute = pendingRoutes.get(position);
+        PendingRoute pendingRoute = getItem(position);
         holder.bind(pendingRoute, listener);
     }
 
     @Override
-    public int getItemCount() {
-        return pendingRoutes.size();
+    protected Object getItemKey(@NonNull PendingRoute item) {
+        return item.getId();
     }
 
     static class PendingRouteViewHolder extends RecyclerView.ViewHolder {
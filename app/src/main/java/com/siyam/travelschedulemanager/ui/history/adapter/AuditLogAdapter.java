@@ -8,17 +8,15 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.siyam.travelschedulemanager.R;
 import com.siyam.travelschedulemanager.model.AuditLog;
+import com.siyam.travelschedulemanager.ui.adapter.KeyedListAdapter;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
-public class AuditLogAdapter extends RecyclerView.Adapter<AuditLogAdapter.AuditLogViewHolder> {
-    private List<AuditLog> auditLogs = new ArrayList<>();
+public class AuditLogAdapter extends KeyedListAdapter<AuditLog, AuditLogAdapter.AuditLogViewHolder> {
 
     public void setAuditLogs(List<AuditLog> auditLogs) {
-        this.auditLogs = auditLogs;
-        notifyDataSetChanged();
+        submitItems(auditLogs);
     }
 
     @NonNull
@@ -31,13 +29,13 @@ public class AuditLogAdapter extends RecyclerView.Adapter<AuditLogAdapter.AuditL
 
     @Override
     public void onBindViewHolder(@NonNull AuditLogViewHolder holder, int position) {
-        AuditLog log = auditLogs.get(position);
+        AuditLog log = getItem(position);
         holder.bind(log);
     }
 
     @Override
-    public int getItemCount() {
-        return auditLogs.size();
+    protected Object getItemKey(@NonNull AuditLog item) {
+        return item.getId();
     }
 
     static class AuditLogViewHolder extends RecyclerView.ViewHolder {
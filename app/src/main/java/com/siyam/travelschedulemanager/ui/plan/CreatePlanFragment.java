@@ -5,7 +5,6 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.AutoCompleteTextView;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -25,13 +24,16 @@ import com.google.android.material.floatingactionbutton.ExtendedFloatingActionBu
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.firebase.Timestamp;
 import com.siyam.travelschedulemanager.R;
+import com.siyam.travelschedulemanager.algorithm.RouteGraphCache;
 import com.siyam.travelschedulemanager.data.firebase.AuthRepository;
-import com.siyam.travelschedulemanager.data.remote.ApiService;
-import com.siyam.travelschedulemanager.data.remote.RetrofitClient;
 import com.siyam.travelschedulemanager.data.remote.dto.ScheduleDTO;
 import com.siyam.travelschedulemanager.data.remote.dto.ApiResponseWrapper;
+import com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO;
+import com.siyam.travelschedulemanager.data.repository.ScheduleRepository;
+import com.siyam.travelschedulemanager.data.repository.ScheduleRepository.Resource;
 import com.siyam.travelschedulemanager.model.Plan;
 import com.siyam.travelschedulemanager.model.Schedule;
+import com.siyam.travelschedulemanager.ui.adapter.SuggestionAdapter;
 import com.siyam.travelschedulemanager.ui.plan.adapter.ScheduleSearchAdapter;
 import com.siyam.travelschedulemanager.ui.plan.adapter.SelectedLegAdapter;
 import com.siyam.travelschedulemanager.util.Constants;
@@ -46,7 +48,7 @@ import java.util.List;
 import java.util.Locale;
 
 public class CreatePlanFragment extends Fragment {
-    private ApiService apiService;
+    private ScheduleRepository scheduleRepository;
     private PlanViewModel planViewModel;
     private AuthRepository authRepository;
     
@@ -74,7 +76,7 @@ public class CreatePlanFragment extends Fragment {
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        apiService = RetrofitClient.getInstance(requireContext()).getApiService();
+        scheduleRepository = ScheduleRepository.getInstance(requireContext());
         planViewModel = new ViewModelProvider(requireActivity()).get(PlanViewModel.class);
         authRepository = new AuthRepository();
         selectedDate = Calendar.getInstance();
@@ -138,12 +140,7 @@ public class CreatePlanFragment extends Fragment {
     }
 
     private void setupAutoComplete() {
-        String[] cities = getResources().getStringArray(R.array.bangladesh_districts);
-        ArrayAdapter<String> adapter = new ArrayAdapter<>(
-                requireContext(),
-                android.R.layout.simple_dropdown_item_1line,
-                cities
-        );
+        SuggestionAdapter adapter = new SuggestionAdapter(requireContext());
         autocompleteOrigin.setAdapter(adapter);
         autocompleteDestination.setAdapter(adapter);
         autocompleteOrigin.setThreshold(1);
@@ -207,55 +204,31 @@ public class CreatePlanFragment extends Fragment {
         });
     }
 
-    private List<Schedule> allSchedules = new ArrayList<>();
+    private List<UnifiedScheduleDTO> allSchedules = new ArrayList<>();
     
     private void loadSchedulesFromAPI() {
-        android.util.Log.d("CreatePlanFragment", "Loading schedules from API...");
+        android.util.Log.d("CreatePlanFragment", "Loading schedules...");
         
-        apiService.getAllSchedules().enqueue(new retrofit2.Callback<java.util.List<com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO>>() {
-            @Override
-            public void onResponse(retrofit2.Call<java.util.List<com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO>> call, retrofit2.Response<java.util.List<com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO>> response) {
-                android.util.Log.d("CreatePlanFragment", "API Response code: " + response.code());
+        // Cached schedules arrive first; a second emission only follows if the server had changes
+        scheduleRepository.getAllSchedules().observe(getViewLifecycleOwner(), resource -> {
+            if (resource == null || resource.getStatus() == Resource.Status.LOADING) {
+                return;
+            }
+            
+            if (resource.getStatus() == Resource.Status.SUCCESS && resource.getData() != null) {
+                // Converted to Schedule only when they match a search
+                allSchedules = resource.getData();
                 
-                if (response.isSuccessful() && response.body() != null) {
-                    allSchedules.clear();
-                    List<com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO> dtoList = response.body();
-                    
-                    android.util.Log.d("CreatePlanFragment", "Received " + dtoList.size() + " schedules from API");
-                    
-                    // Convert UnifiedScheduleDTO to Schedule
-                    for (com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO dto : dtoList) {
-                        Schedule schedule = new Schedule();
-                        schedule.setId(java.util.UUID.randomUUID().toString());
-                        schedule.setTransportType(dto.getType().toUpperCase());
-                        schedule.setOrigin(dto.getStart());
-                        schedule.setDestination(dto.getDestination());
-                        schedule.setDepartureTime(dto.getStartTime());
-                        schedule.setArrivalTime(dto.getArrivalTime());
-                        schedule.setFare(dto.getFare());
-                        schedule.setOperatorName(dto.getName());
-                        schedule.setTotalSeats(30); // Default value
-                        
-                        if (dto.isTrain()) {
-                            schedule.setTrainNumber(dto.getName());
-                        }
-                        
-                        allSchedules.add(schedule);
-                    }
-                    
-                    android.util.Log.d("CreatePlanFragment", "Successfully loaded " + allSchedules.size() + " schedules");
+                android.util.Log.d("CreatePlanFragment", "Received " + allSchedules.size() + " schedules"
+                        + (resource.isFromCache() ? " from cache" : " from API"));
+                
+                android.util.Log.d("CreatePlanFragment", "Successfully loaded " + allSchedules.size() + " schedules");
+                if (!resource.isFromCache()) {
                     Toast.makeText(requireContext(), "✓ Loaded " + allSchedules.size() + " routes from desktop", Toast.LENGTH_LONG).show();
-                } else {
-                    String errorMsg = "Failed to load routes. Response code: " + response.code();
-                    android.util.Log.e("CreatePlanFragment", errorMsg);
-                    Toast.makeText(requireContext(), errorMsg, Toast.LENGTH_LONG).show();
                 }
-            }
-
-            @Override
-            public void onFailure(retrofit2.Call<java.util.List<com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO>> call, Throwable t) {
-                android.util.Log.e("CreatePlanFragment", "Failed to load schedules", t);
-                Toast.makeText(requireContext(), "Connection error: " + t.getMessage(), Toast.LENGTH_LONG).show();
+            } else if (allSchedules.isEmpty()) {
+                android.util.Log.e("CreatePlanFragment", "Failed to load schedules: " + resource.getMessage());
+                Toast.makeText(requireContext(), "Connection error: " + resource.getMessage(), Toast.LENGTH_LONG).show();
             }
         });
     }
@@ -288,12 +261,25 @@ public class CreatePlanFragment extends Fragment {
         android.util.Log.d("CreatePlanFragment", "Searching for routes from '" + origin + "' to '" + destination + "'");
         android.util.Log.d("CreatePlanFragment", "Total schedules in memory: " + allSchedules.size());
         
-        for (Schedule schedule : allSchedules) {
-            boolean matchesRoute = schedule.getOrigin().equalsIgnoreCase(origin) && 
-                                  schedule.getDestination().equalsIgnoreCase(destination);
+        // Direct connections come from the shared TripTable's stop patterns; scan only until it is built
+        RouteGraphCache.Snapshot graph = RouteGraphCache.getInstance().getCurrent();
+        List<UnifiedScheduleDTO> candidates;
+        if (graph != null) {
+            candidates = graph.getRouter().findDirect(origin, destination);
+        } else {
+            candidates = new ArrayList<>();
+            for (UnifiedScheduleDTO dto : allSchedules) {
+                if (origin.equalsIgnoreCase(dto.getStart()) && destination.equalsIgnoreCase(dto.getDestination())) {
+                    candidates.add(dto);
+                }
+            }
+        }
+        
+        for (UnifiedScheduleDTO dto : candidates) {
+            Schedule schedule = toSchedule(dto);
             boolean matchesType = transportType == null || schedule.getTransportType().equals(transportType);
             
-            if (matchesRoute && matchesType) {
+            if (matchesType) {
                 filteredSchedules.add(schedule);
                 android.util.Log.d("CreatePlanFragment", "Match found: " + schedule.getOrigin() + " -> " + schedule.getDestination());
             }
@@ -318,6 +304,24 @@ public class CreatePlanFragment extends Fragment {
         }
     }
 
+    private Schedule toSchedule(UnifiedScheduleDTO dto) {
+        Schedule schedule = new Schedule();
+        schedule.setId(java.util.UUID.randomUUID().toString());
+        schedule.setTransportType(dto.getType().toUpperCase());
+        schedule.setOrigin(dto.getStart());
+        schedule.setDestination(dto.getDestination());
+        schedule.setDepartureTime(dto.getStartTime());
+        schedule.setArrivalTime(dto.getArrivalTime());
+        schedule.setFare(dto.getFare());
+        schedule.setOperatorName(dto.getName());
+        schedule.setTotalSeats(30); // Default value
+        
+        if (dto.isTrain()) {
+            schedule.setTrainNumber(dto.getName());
+        }
+        return schedule;
+    }
+
     private void onScheduleSelected(Schedule schedule) {
         // Validate 30-min connection time if there are existing legs
         if (!selectedLegs.isEmpty()) {
@@ -13,13 +13,12 @@ import com.google.android.material.button.MaterialButton;
 import com.google.android.material.card.MaterialCardView;
 import com.siyam.travelschedulemanager.R;
 import com.siyam.travelschedulemanager.model.Plan;
+import com.siyam.travelschedulemanager.ui.adapter.KeyedListAdapter;
 import com.siyam.travelschedulemanager.util.DateUtils;
 
-import java.util.ArrayList;
 import java.util.List;
 
-public class PlanAdapter extends RecyclerView.Adapter<PlanAdapter.PlanViewHolder> {
-    private List<Plan> plans = new ArrayList<>();
+public class PlanAdapter extends KeyedListAdapter<Plan, PlanAdapter.PlanViewHolder> {
     private OnPlanActionListener listener;
 
     public interface OnPlanActionListener {
@@ -29,8 +28,7 @@ public class PlanAdapter extends RecyclerView.Adapter<PlanAdapter.PlanViewHolder
     }
 
     public void setPlans(List<Plan> plans) {
-        this.plans = plans;
-        notifyDataSetChanged();
+        submitItems(plans);
     }
 
     public void setOnPlanActionListener(OnPlanActionListener listener) {
@@ -47,13 +45,13 @@ public class PlanAdapter extends RecyclerView.Adapter<PlanAdapter.PlanViewHolder
 
     @Override
     public void onBindViewHolder(@NonNull PlanViewHolder holder, int position) {
-        Plan plan = plans.get(position);
+        Plan plan = getItem(position);
         holder.bind(plan);
     }
 
     @Override
-    public int getItemCount() {
-        return plans.size();
+    protected Object getItemKey(@NonNull Plan item) {
+        return item.getId();
     }
 
     class PlanViewHolder extends RecyclerView.ViewHolder {
@@ -9,11 +9,10 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.button.MaterialButton;
 import com.siyam.travelschedulemanager.R;
 import com.siyam.travelschedulemanager.model.Schedule;
-import java.util.ArrayList;
+import com.siyam.travelschedulemanager.ui.adapter.KeyedListAdapter;
 import java.util.List;
 
-public class ScheduleSearchAdapter extends RecyclerView.Adapter<ScheduleSearchAdapter.ViewHolder> {
-    private List<Schedule> schedules = new ArrayList<>();
+public class ScheduleSearchAdapter extends KeyedListAdapter<Schedule, ScheduleSearchAdapter.ViewHolder> {
     private OnScheduleSelectListener listener;
 
     public interface OnScheduleSelectListener {
@@ -25,8 +24,7 @@ public class ScheduleSearchAdapter extends RecyclerView.Adapter<ScheduleSearchAd
     }
 
     public void setSchedules(List<Schedule> schedules) {
-        this.schedules = schedules;
-        notifyDataSetChanged();
+        submitItems(schedules);
     }
 
     @NonNull
@@ -39,13 +37,13 @@ public class ScheduleSearchAdapter extends RecyclerView.Adapter<ScheduleSearchAd
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Schedule schedule = schedules.get(position);
+        Schedule schedule = getItem(position);
         holder.bind(schedule);
     }
 
     @Override
-    public int getItemCount() {
-        return schedules.size();
+    protected Object getItemKey(@NonNull Schedule item) {
+        return item.getId();
     }
 
     class ViewHolder extends RecyclerView.ViewHolder {
@@ -9,11 +9,10 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.button.MaterialButton;
 import com.siyam.travelschedulemanager.R;
 import com.siyam.travelschedulemanager.model.Schedule;
-import java.util.ArrayList;
+import com.siyam.travelschedulemanager.ui.adapter.KeyedListAdapter;
 import java.util.List;
 
-public class SelectedLegAdapter extends RecyclerView.Adapter<SelectedLegAdapter.ViewHolder> {
-    private List<Schedule> selectedLegs = new ArrayList<>();
+public class SelectedLegAdapter extends KeyedListAdapter<Schedule, SelectedLegAdapter.ViewHolder> {
     private OnLegRemoveListener listener;
 
     public interface OnLegRemoveListener {
@@ -25,8 +24,7 @@ public class SelectedLegAdapter extends RecyclerView.Adapter<SelectedLegAdapter.
     }
 
     public void setSelectedLegs(List<Schedule> legs) {
-        this.selectedLegs = legs;
-        notifyDataSetChanged();
+        submitItems(legs);
     }
 
     @NonNull
@@ -39,13 +37,22 @@ public class SelectedLegAdapter extends RecyclerView.Adapter<SelectedLegAdapter.
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        Schedule schedule = selectedLegs.get(position);
+        Schedule schedule = getItem(position);
         holder.bind(schedule, position + 1);
     }
 
     @Override
-    public int getItemCount() {
-        return selectedLegs.size();
+    protected Object getItemKey(@NonNull Schedule item) {
+        return item.getId();
+    }
+
+    @Override
+    public void onCurrentListChanged(@NonNull List<Schedule> previousList, @NonNull List<Schedule> currentList) {
+        super.onCurrentListChanged(previousList, currentList);
+        // Leg numbers follow position, so adding or removing a leg renumbers the rest
+        if (previousList.size() != currentList.size()) {
+            notifyItemRangeChanged(0, currentList.size());
+        }
     }
 
     class ViewHolder extends RecyclerView.ViewHolder {
@@ -1,12 +1,14 @@
 package com.siyam.travelschedulemanager.ui.route;
 
+import android.app.DatePickerDialog;
+import android.app.TimePickerDialog;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.AutoCompleteTextView;
-import android.widget.LinearLayout;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -15,41 +17,56 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.card.MaterialCardView;
+import com.google.android.material.chip.Chip;
+import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.textfield.TextInputEditText;
+import com.siyam.travelschedulemanager.BuildConfig;
 import com.siyam.travelschedulemanager.R;
-import com.siyam.travelschedulemanager.algorithm.RouteGraph;
+import com.siyam.travelschedulemanager.algorithm.Itinerary;
 import com.siyam.travelschedulemanager.data.firebase.AuthRepository;
-import com.siyam.travelschedulemanager.data.remote.ApiService;
-import com.siyam.travelschedulemanager.data.remote.RetrofitClient;
 import com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO;
+import com.siyam.travelschedulemanager.data.repository.ScheduleRepository.Resource;
 import com.siyam.travelschedulemanager.model.Plan;
-import com.siyam.travelschedulemanager.util.DateUtils;
+import com.siyam.travelschedulemanager.ui.adapter.SuggestionAdapter;
+import com.siyam.travelschedulemanager.util.TimeCodec;
 import com.siyam.travelschedulemanager.viewmodel.PlanViewModel;
+import com.siyam.travelschedulemanager.viewmodel.RouteFinderViewModel;
+import com.siyam.travelschedulemanager.viewmodel.RouteFinderViewModel.SearchResult;
 import com.google.firebase.Timestamp;
 
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
 import java.util.List;
-
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import java.util.Locale;
 
 public class AutomaticRouteFinderFragment extends Fragment {
-    private ApiService apiService;
+    private RouteFinderViewModel routeFinderViewModel;
     private PlanViewModel planViewModel;
     private AuthRepository authRepository;
     
     private AutoCompleteTextView acFrom, acTo;
+    private TextInputEditText etTravelDate;
+    private final Calendar travelDate = Calendar.getInstance();
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("EEE, MMM dd, yyyy", Locale.getDefault());
+    private TextInputEditText etTravelTime;
+    private ChipGroup chipGroupTimeMode;
+    private Chip chipArriveBy;
     private MaterialButton btnFindRoutes;
     private ProgressBar progressBar;
-    private LinearLayout routesContainer;
+    private RecyclerView routesRecycler;
+    private ItineraryAdapter itineraryAdapter;
     private TextView emptyStateText;
     
     private List<UnifiedScheduleDTO> allSchedules = new ArrayList<>();
+    private boolean loadingSchedules;
 
     @Nullable
     @Override
@@ -61,12 +78,16 @@ public class AutomaticRouteFinderFragment extends Fragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
         
-        apiService = RetrofitClient.getInstance(requireContext()).getApiService();
+        routeFinderViewModel = new ViewModelProvider(this).get(RouteFinderViewModel.class);
         planViewModel = new ViewModelProvider(this).get(PlanViewModel.class);
         authRepository = new AuthRepository();
         
         initViews(view);
         setupAutoComplete();
+        setupDatePicker();
+        setupTimePicker();
+        setupResultsList();
+        observeSearch();
         loadSchedules();
         
         btnFindRoutes.setOnClickListener(v -> findRoutes());
@@ -75,69 +96,152 @@ public class AutomaticRouteFinderFragment extends Fragment {
     private void initViews(View view) {
         acFrom = view.findViewById(R.id.ac_from);
         acTo = view.findViewById(R.id.ac_to);
+        etTravelDate = view.findViewById(R.id.et_travel_date);
+        etTravelTime = view.findViewById(R.id.et_travel_time);
+        chipGroupTimeMode = view.findViewById(R.id.chip_group_time_mode);
+        chipArriveBy = view.findViewById(R.id.chip_arrive_by);
         btnFindRoutes = view.findViewById(R.id.btn_find_routes);
         progressBar = view.findViewById(R.id.progress_bar);
-        routesContainer = view.findViewById(R.id.routes_container);
+        routesRecycler = view.findViewById(R.id.routes_recycler);
         emptyStateText = view.findViewById(R.id.empty_state_text);
     }
     
     private void setupAutoComplete() {
-        String[] districts = getResources().getStringArray(R.array.bangladesh_districts);
-        ArrayAdapter<String> adapter = new ArrayAdapter<>(requireContext(),
-                android.R.layout.simple_dropdown_item_1line, districts);
+        SuggestionAdapter adapter = new SuggestionAdapter(requireContext());
         acFrom.setAdapter(adapter);
         acTo.setAdapter(adapter);
+
+        // Editing either city makes a running search stale
+        TextWatcher cancelOnEdit = new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+                routeFinderViewModel.cancelSearch();
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {}
+        };
+        acFrom.addTextChangedListener(cancelOnEdit);
+        acTo.addTextChangedListener(cancelOnEdit);
+    }
+
+    private void setupDatePicker() {
+        etTravelDate.setText(dateFormat.format(travelDate.getTime()));
+        etTravelDate.setOnClickListener(v -> showDatePicker());
+    }
+
+    private void showDatePicker() {
+        DatePickerDialog datePickerDialog = new DatePickerDialog(
+                requireContext(),
+                (view, year, month, dayOfMonth) -> {
+                    travelDate.set(year, month, dayOfMonth);
+                    etTravelDate.setText(dateFormat.format(travelDate.getTime()));
+                    // The graph already knows every service's days, so just search again
+                    if (routeFinderViewModel.getSearchResult().getValue() != null) {
+                        findRoutes();
+                    }
+                },
+                travelDate.get(Calendar.YEAR),
+                travelDate.get(Calendar.MONTH),
+                travelDate.get(Calendar.DAY_OF_MONTH)
+        );
+
+        // Don't allow past dates
+        datePickerDialog.getDatePicker().setMinDate(System.currentTimeMillis() - 1000);
+        datePickerDialog.show();
+    }
+
+    private void setupTimePicker() {
+        etTravelTime.setOnClickListener(v -> showTimePicker());
+        // Switching between depart after and arrive by changes the question, so ask it again
+        chipGroupTimeMode.setOnCheckedStateChangeListener((group, checkedIds) -> {
+            if (routeFinderViewModel.getSearchResult().getValue() != null) {
+                findRoutes();
+            }
+        });
+    }
+
+    private void showTimePicker() {
+        Calendar calendar = Calendar.getInstance();
+        int hour = calendar.get(Calendar.HOUR_OF_DAY);
+        int minute = calendar.get(Calendar.MINUTE);
+        int chosen = getTravelTime();
+        if (chosen != TimeCodec.INVALID) {
+            hour = chosen / 60;
+            minute = chosen % 60;
+        }
+
+        TimePickerDialog dialog = new TimePickerDialog(requireContext(),
+                (view, hourOfDay, minuteOfHour) -> {
+                    etTravelTime.setText(TimeCodec.formatTime(hourOfDay * 60 + minuteOfHour));
+                    if (routeFinderViewModel.getSearchResult().getValue() != null) {
+                        findRoutes();
+                    }
+                }, hour, minute, true);
+        dialog.show();
+    }
+
+    // Minute of day in the time field, or TimeCodec.INVALID when it is empty
+    private int getTravelTime() {
+        CharSequence text = etTravelTime.getText();
+        return text == null || text.length() == 0 ? TimeCodec.INVALID : TimeCodec.parseTime(text);
+    }
+
+    private void setupResultsList() {
+        LinearLayoutManager layoutManager = new LinearLayoutManager(requireContext());
+        // Bind the next card during idle frame time while scrolling
+        layoutManager.setItemPrefetchEnabled(true);
+        routesRecycler.setLayoutManager(layoutManager);
+        routesRecycler.setHasFixedSize(true);
+        routesRecycler.setRecycledViewPool(ItineraryAdapter.createViewPool(RouteFinderViewModel.MAX_LEGS));
+        itineraryAdapter = new ItineraryAdapter(this::showSavePlanDialog);
+        routesRecycler.setAdapter(itineraryAdapter);
+    }
+
+    private void observeSearch() {
+        routeFinderViewModel.getIsSearching().observe(getViewLifecycleOwner(), searching -> updateProgress());
+        routeFinderViewModel.getSearchResult().observe(getViewLifecycleOwner(), this::showSearchResult);
+    }
+    
+    private void updateProgress() {
+        boolean searching = Boolean.TRUE.equals(routeFinderViewModel.getIsSearching().getValue());
+        progressBar.setVisibility(searching || loadingSchedules ? View.VISIBLE : View.GONE);
     }
     
     private void loadSchedules() {
-        progressBar.setVisibility(View.VISIBLE);
+        loadingSchedules = true;
+        updateProgress();
         emptyStateText.setText("Loading schedules from desktop app...");
         emptyStateText.setVisibility(View.VISIBLE);
         
-        android.util.Log.d("RouteFinderAPI", "Calling API: " + apiService.getAllSchedules().request().url());
-        
-        apiService.getAllSchedules().enqueue(new Callback<List<UnifiedScheduleDTO>>() {
-            @Override
-            public void onResponse(Call<List<UnifiedScheduleDTO>> call, Response<List<UnifiedScheduleDTO>> response) {
-                progressBar.setVisibility(View.GONE);
-                android.util.Log.d("RouteFinderAPI", "Response code: " + response.code());
-                android.util.Log.d("RouteFinderAPI", "Response body: " + (response.body() != null ? response.body().size() + " items" : "null"));
+        // Cached schedules arrive first; a second emission only follows if the server had changes
+        routeFinderViewModel.loadSchedules().observe(getViewLifecycleOwner(), resource -> {
+            if (resource == null) {
+                return;
+            }
+            if (resource.getStatus() == Resource.Status.LOADING) {
+                // A first download streams into the cache and arrives whole when it ends
+                return;
+            }
+            loadingSchedules = false;
+            updateProgress();
+            
+            if (resource.getStatus() == Resource.Status.SUCCESS && resource.getData() != null) {
+                allSchedules = resource.getData();
+                emptyStateText.setVisibility(View.GONE);
+                android.util.Log.d("RouteFinderAPI", "Loaded " + allSchedules.size() + " schedules"
+                        + (resource.isFromCache() ? " from cache" : " from server"));
                 
-                if (response.isSuccessful() && response.body() != null) {
-                    allSchedules = response.body();
-                    emptyStateText.setVisibility(View.GONE);
-                    
-                    // Log ALL schedules for debugging
-                    android.util.Log.d("RouteFinderAPI", "=== ALL SCHEDULES FROM API ===");
-                    for (int i = 0; i < allSchedules.size(); i++) {
-                        UnifiedScheduleDTO s = allSchedules.get(i);
-                        android.util.Log.d("RouteFinderAPI", (i+1) + ". " + s.getStart() + " → " + s.getDestination() + 
-                            " (" + s.getType() + ", " + s.getName() + ")");
-                    }
-                    android.util.Log.d("RouteFinderAPI", "=== END SCHEDULES ===");
-                    
+                if (!resource.isFromCache()) {
                     Toast.makeText(requireContext(), "✓ Loaded " + allSchedules.size() + " schedules from desktop", Toast.LENGTH_LONG).show();
-                } else {
-                    String errorBody = "";
-                    try {
-                        if (response.errorBody() != null) {
-                            errorBody = response.errorBody().string();
-                            android.util.Log.e("RouteFinderAPI", "Error body: " + errorBody);
-                        }
-                    } catch (Exception e) {
-                        android.util.Log.e("RouteFinderAPI", "Error reading error body", e);
-                    }
-                    emptyStateText.setText("Failed to load. Code: " + response.code() + "\n" + errorBody);
-                    Toast.makeText(requireContext(), "Failed. Code: " + response.code(), Toast.LENGTH_LONG).show();
                 }
-            }
-
-            @Override
-            public void onFailure(Call<List<UnifiedScheduleDTO>> call, Throwable t) {
-                progressBar.setVisibility(View.GONE);
-                android.util.Log.e("RouteFinderAPI", "Connection failed", t);
-                emptyStateText.setText("Connection Error: " + t.getMessage() + "\n\nMake sure:\n• Desktop app is running\n• Both devices on same WiFi\n• URL: http://192.168.0.144:8080");
-                Toast.makeText(requireContext(), "Connection failed: " + t.getMessage(), Toast.LENGTH_LONG).show();
+            } else if (allSchedules.isEmpty()) {
+                android.util.Log.e("RouteFinderAPI", "Failed to load schedules: " + resource.getMessage());
+                emptyStateText.setText("Connection Error: " + resource.getMessage() + "\n\nMake sure:\n• Desktop app is running\n• Both devices on same WiFi\n• URL: http://192.168.0.144:8080");
+                Toast.makeText(requireContext(), "Connection failed: " + resource.getMessage(), Toast.LENGTH_LONG).show();
             }
         });
     }
@@ -162,122 +266,100 @@ public class AutomaticRouteFinderFragment extends Fragment {
             return;
         }
         
-        progressBar.setVisibility(View.VISIBLE);
-        routesContainer.removeAllViews();
+        itineraryAdapter.submitItems(Collections.emptyList());
         
         // Normalize input to lowercase to match API data
         String fromNormalized = from.toLowerCase().trim();
         String toNormalized = to.toLowerCase().trim();
         
-        android.util.Log.d("RouteFinderAPI", "=== SEARCH REQUEST ===");
-        android.util.Log.d("RouteFinderAPI", "From: '" + from + "' (normalized: '" + fromNormalized + "')");
-        android.util.Log.d("RouteFinderAPI", "To: '" + to + "' (normalized: '" + toNormalized + "')");
-        android.util.Log.d("RouteFinderAPI", "Total schedules available: " + allSchedules.size());
-        
-        // Check if source city exists in schedules
-        boolean sourceFound = false;
-        boolean destFound = false;
-        for (UnifiedScheduleDTO s : allSchedules) {
-            if (s.getStart().toLowerCase().trim().equals(fromNormalized)) {
-                sourceFound = true;
-                android.util.Log.d("RouteFinderAPI", "✓ Source city '" + fromNormalized + "' found in schedules");
-            }
-            if (s.getDestination().toLowerCase().trim().equals(toNormalized) || 
-                s.getStart().toLowerCase().trim().equals(toNormalized)) {
-                destFound = true;
-                android.util.Log.d("RouteFinderAPI", "✓ Destination city '" + toNormalized + "' found in schedules");
-            }
+        int weekday = travelDate.get(Calendar.DAY_OF_WEEK);
+        int time = getTravelTime();
+        if (BuildConfig.DEBUG) {
+            android.util.Log.d("RouteFinderAPI", "Search '" + fromNormalized + "' -> '" + toNormalized + "' on "
+                    + dateFormat.format(travelDate.getTime()) + (chipArriveBy.isChecked() ? ", arrive by " : ", depart after ")
+                    + (time == TimeCodec.INVALID ? "any time" : TimeCodec.formatTime(time)));
         }
-        
-        if (!sourceFound) {
-            android.util.Log.e("RouteFinderAPI", "❌ Source city '" + fromNormalized + "' NOT FOUND in any schedule!");
-            android.util.Log.d("RouteFinderAPI", "Available source cities:");
-            java.util.Set<String> sources = new java.util.HashSet<>();
-            for (UnifiedScheduleDTO s : allSchedules) {
-                sources.add(s.getStart().toLowerCase().trim());
-            }
-            for (String src : sources) {
-                android.util.Log.d("RouteFinderAPI", "  - " + src);
-            }
+
+        // Pareto search (cheapest, earliest and fewest-changes options in one pass) on the search thread,
+        // skipping services that are off on the travel date
+        if (chipArriveBy.isChecked()) {
+            // Scans back from the destination; without a time, anything arriving on the travel date
+            int arriveBy = time == TimeCodec.INVALID ? TimeCodec.MINUTES_PER_DAY - 1 : time;
+            routeFinderViewModel.searchArriving(fromNormalized, toNormalized, weekday, arriveBy);
+            return;
         }
-        
-        if (!destFound) {
-            android.util.Log.e("RouteFinderAPI", "❌ Destination city '" + toNormalized + "' NOT FOUND in any schedule!");
+
+        // Journeys leaving today must not have left already
+        Calendar today = Calendar.getInstance();
+        boolean isToday = today.get(Calendar.YEAR) == travelDate.get(Calendar.YEAR)
+                && today.get(Calendar.DAY_OF_YEAR) == travelDate.get(Calendar.DAY_OF_YEAR);
+        int departAfter = isToday ? TimeCodec.currentMinuteOfDay() : 0;
+        if (time != TimeCodec.INVALID) {
+            departAfter = Math.max(departAfter, time);
         }
+        routeFinderViewModel.search(fromNormalized, toNormalized, weekday, departAfter);
+    }
+    
+    private void showSearchResult(SearchResult result) {
+        if (result == null) {
+            return;
+        }
+        List<Itinerary> routes = result.getItineraries();
+        boolean sourceFound = result.isSourceFound();
+        boolean destFound = result.isDestinationFound();
+        String from = acFrom.getText().toString().trim();
+        String to = acTo.getText().toString().trim();
         
-        // Use DFS-based route finding
-        RouteGraph graph = new RouteGraph(allSchedules);
-        List<List<UnifiedScheduleDTO>> routes = graph.findRoutes(fromNormalized, toNormalized, 3); // Max 3 legs
-        
-        android.util.Log.d("RouteFinderAPI", "=== SEARCH RESULT: Found " + routes.size() + " route(s) ===");
-        
-        progressBar.setVisibility(View.GONE);
+        if (BuildConfig.DEBUG && result.isComplete()) {
+            android.util.Log.d("RouteFinderAPI", "Found " + routes.size() + " route(s)"
+                    + (sourceFound ? "" : "; source '" + result.getFrom() + "' not in any schedule")
+                    + (destFound ? "" : "; destination '" + result.getTo() + "' not in any schedule"));
+        }
         
         if (routes.isEmpty()) {
+            if (!result.isComplete()) {
+                return;
+            }
+            itineraryAdapter.submitItems(Collections.emptyList());
             emptyStateText.setVisibility(View.VISIBLE);
             String errorMsg = "No routes found between " + from + " and " + to + ".";
-            if (!sourceFound || !destFound) {
+            if (!result.isTimetableLoaded()) {
+                errorMsg += "\n\nSchedules could not be loaded. Check the connection to the desktop app and try again.";
+            } else if (!sourceFound || !destFound) {
                 errorMsg += "\n\n⚠️ City name issue detected!";
                 if (!sourceFound) errorMsg += "\n• '" + from + "' not in desktop data";
                 if (!destFound) errorMsg += "\n• '" + to + "' not in desktop data";
                 errorMsg += "\n\nCheck Logcat for available cities.";
             } else {
-                errorMsg += "\n\nPossible issues:\n• No connecting routes exist\n• Connection times don't align\n• Check desktop app has routes";
+                errorMsg += "\n\nPossible issues:\n• No connecting routes exist\n• Connection times don't align\n• Services are off on the selected date\n• Nothing runs at the selected time\n• Check desktop app has routes";
             }
             emptyStateText.setText(errorMsg);
-            routesContainer.setVisibility(View.GONE);
+            routesRecycler.setVisibility(View.GONE);
         } else {
             emptyStateText.setVisibility(View.GONE);
-            routesContainer.setVisibility(View.VISIBLE);
+            routesRecycler.setVisibility(View.VISIBLE);
             displayRoutes(routes);
         }
     }
     
-    private void displayRoutes(List<List<UnifiedScheduleDTO>> routes) {
+    private void displayRoutes(List<Itinerary> routes) {
+        Itinerary cheapest = Collections.min(routes, Itinerary.BY_FARE);
+        Itinerary fastest = Collections.min(routes, Itinerary.BY_TRAVEL_TIME);
+        Itinerary fewestLegs = Collections.min(routes, Itinerary.BY_LEGS);
+
+        List<ItineraryAdapter.Option> options = new ArrayList<>(routes.size());
         for (int i = 0; i < routes.size(); i++) {
-            List<UnifiedScheduleDTO> route = routes.get(i);
-            addRouteCard(route, i + 1);
+            Itinerary itinerary = routes.get(i);
+            List<String> tags = new ArrayList<>();
+            if (itinerary == cheapest) tags.add("Cheapest");
+            if (itinerary == fastest) tags.add("Fastest");
+            if (itinerary == fewestLegs) tags.add("Fewest changes");
+            options.add(new ItineraryAdapter.Option(itinerary, i + 1, tags));
         }
+        itineraryAdapter.submitItems(options);
     }
     
-    private void addRouteCard(List<UnifiedScheduleDTO> route, int routeNumber) {
-        View cardView = LayoutInflater.from(requireContext()).inflate(R.layout.item_route_option, routesContainer, false);
-        
-        TextView tvRouteNumber = cardView.findViewById(R.id.tv_route_number);
-        TextView tvLegsCount = cardView.findViewById(R.id.tv_legs_count);
-        TextView tvTotalFare = cardView.findViewById(R.id.tv_total_fare);
-        TextView tvTotalDuration = cardView.findViewById(R.id.tv_total_duration);
-        LinearLayout legsContainer = cardView.findViewById(R.id.legs_summary_container);
-        MaterialButton btnSavePlan = cardView.findViewById(R.id.btn_save_plan);
-        
-        // Calculate totals
-        double totalFare = route.stream().mapToDouble(UnifiedScheduleDTO::getFare).sum();
-        int totalDuration = route.stream()
-                .mapToInt(s -> DateUtils.calculateDuration(s.getStartTime(), s.getArrivalTime()))
-                .sum();
-        
-        tvRouteNumber.setText("Route Option " + routeNumber);
-        tvLegsCount.setText(route.size() + (route.size() == 1 ? " leg" : " legs"));
-        tvTotalFare.setText(String.format("৳%.2f", totalFare));
-        tvTotalDuration.setText(DateUtils.formatDuration(totalDuration));
-        
-        // Display leg summaries
-        for (UnifiedScheduleDTO schedule : route) {
-            TextView legSummary = new TextView(requireContext());
-            legSummary.setText(String.format("• %s → %s (%s - %s)",
-                    schedule.getStart(), schedule.getDestination(),
-                    schedule.getStartTime(), schedule.getArrivalTime()));
-            legSummary.setTextSize(12);
-            legSummary.setPadding(8, 4, 8, 4);
-            legsContainer.addView(legSummary);
-        }
-        
-        btnSavePlan.setOnClickListener(v -> showSavePlanDialog(route));
-        
-        routesContainer.addView(cardView);
-    }
-    
-    private void showSavePlanDialog(List<UnifiedScheduleDTO> route) {
+    private void showSavePlanDialog(Itinerary itinerary) {
         View dialogView = LayoutInflater.from(requireContext()).inflate(R.layout.dialog_save_plan, null);
         TextInputEditText etPlanName = dialogView.findViewById(R.id.et_plan_name);
         
@@ -290,13 +372,13 @@ public class AutomaticRouteFinderFragment extends Fragment {
                         Toast.makeText(requireContext(), "Please enter a plan name", Toast.LENGTH_SHORT).show();
                         return;
                     }
-                    savePlan(planName, route);
+                    savePlan(planName, itinerary);
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
     }
     
-    private void savePlan(String planName, List<UnifiedScheduleDTO> route) {
+    private void savePlan(String planName, Itinerary itinerary) {
         String userId = authRepository.getCurrentUserId();
         if (userId == null) {
             Toast.makeText(requireContext(), "Please login to save plans", Toast.LENGTH_SHORT).show();
@@ -304,9 +386,8 @@ public class AutomaticRouteFinderFragment extends Fragment {
         }
         
         // Convert route to PlanLegs
+        List<UnifiedScheduleDTO> route = itinerary.getLegs();
         List<Plan.PlanLeg> legs = new ArrayList<>();
-        double totalFare = 0;
-        int totalDuration = 0;
         
         for (int i = 0; i < route.size(); i++) {
             UnifiedScheduleDTO schedule = route.get(i);
@@ -322,8 +403,6 @@ public class AutomaticRouteFinderFragment extends Fragment {
                     i + 1
             );
             legs.add(leg);
-            totalFare += schedule.getFare();
-            totalDuration += DateUtils.calculateDuration(schedule.getStartTime(), schedule.getArrivalTime());
         }
         
         // Create Plan object
@@ -331,8 +410,9 @@ public class AutomaticRouteFinderFragment extends Fragment {
         plan.setUserId(userId);
         plan.setName(planName);
         plan.setLegs(legs);
-        plan.setTotalFare(totalFare);
-        plan.setTotalDuration(totalDuration);
+        plan.setTotalFare(itinerary.getFare());
+        // Door to door, including transfers and any nights in between
+        plan.setTotalDuration(itinerary.getTravelMinutes());
         plan.setCreatedDate(Timestamp.now());
         
         // Save plan
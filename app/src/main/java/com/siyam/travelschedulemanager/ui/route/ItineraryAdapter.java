@@ -0,0 +1,160 @@
+package com.siyam.travelschedulemanager.ui.route;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.google.android.material.button.MaterialButton;
+import com.siyam.travelschedulemanager.R;
+import com.siyam.travelschedulemanager.algorithm.Itinerary;
+import com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO;
+import com.siyam.travelschedulemanager.ui.adapter.KeyedListAdapter;
+import com.siyam.travelschedulemanager.util.DateUtils;
+import com.siyam.travelschedulemanager.util.TimeCodec;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Route options found by the automatic route finder.
+ *
+ * The view type is the number of legs, so a recycled card already has the
+ * right number of leg rows and binding only sets text.
+ */
+public class ItineraryAdapter extends KeyedListAdapter<ItineraryAdapter.Option, ItineraryAdapter.ViewHolder> {
+    // Cards kept for reuse per leg count
+    private static final int POOL_SIZE_PER_TYPE = 6;
+
+    private final OnSavePlanListener listener;
+
+    public interface OnSavePlanListener {
+        void onSavePlan(Itinerary itinerary);
+    }
+
+    public ItineraryAdapter(OnSavePlanListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Pool for the result list, with room for every leg count up to maxLegs
+     */
+    public static RecyclerView.RecycledViewPool createViewPool(int maxLegs) {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        for (int legs = 1; legs <= maxLegs; legs++) {
+            pool.setMaxRecycledViews(legs, POOL_SIZE_PER_TYPE);
+        }
+        return pool;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return getItem(position).itinerary.getLegCount();
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_route_option, parent, false);
+        return new ViewHolder(view, viewType);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        holder.bind(getItem(position), listener);
+    }
+
+    @Override
+    protected Object getItemKey(@NonNull Option item) {
+        // Itineraries compare by value, so a journey found again keeps its card
+        return item.itinerary;
+    }
+
+    @Override
+    protected boolean areContentsTheSame(@NonNull Option oldItem, @NonNull Option newItem) {
+        return oldItem.number == newItem.number && oldItem.tags.equals(newItem.tags);
+    }
+
+    /**
+     * One card: the itinerary, its position in the list and labels such as "Cheapest"
+     */
+    public static class Option {
+        final Itinerary itinerary;
+        final int number;
+        final List<String> tags;
+
+        public Option(Itinerary itinerary, int number, List<String> tags) {
+            this.itinerary = itinerary;
+            this.number = number;
+            this.tags = tags;
+        }
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        private final TextView tvRouteNumber;
+        private final TextView tvLegsCount;
+        private final TextView tvTotalFare;
+        private final TextView tvTotalDuration;
+        private final MaterialButton btnSavePlan;
+        private final List<TextView> legRows = new ArrayList<>();
+
+        ViewHolder(@NonNull View itemView, int legCount) {
+            super(itemView);
+            tvRouteNumber = itemView.findViewById(R.id.tv_route_number);
+            tvLegsCount = itemView.findViewById(R.id.tv_legs_count);
+            tvTotalFare = itemView.findViewById(R.id.tv_total_fare);
+            tvTotalDuration = itemView.findViewById(R.id.tv_total_duration);
+            btnSavePlan = itemView.findViewById(R.id.btn_save_plan);
+
+            LinearLayout legsContainer = itemView.findViewById(R.id.legs_summary_container);
+            for (int i = 0; i < legCount; i++) {
+                TextView legSummary = new TextView(itemView.getContext());
+                legSummary.setTextSize(12);
+                legSummary.setPadding(8, 4, 8, 4);
+                legsContainer.addView(legSummary);
+                legRows.add(legSummary);
+            }
+        }
+
+        void bind(Option option, OnSavePlanListener listener) {
+            List<UnifiedScheduleDTO> route = option.itinerary.getLegs();
+
+            String title = "Route Option " + option.number;
+            if (!option.tags.isEmpty()) {
+                title += " · " + String.join(", ", option.tags);
+            }
+            tvRouteNumber.setText(title);
+            tvLegsCount.setText(route.size() + (route.size() == 1 ? " leg" : " legs"));
+            tvTotalFare.setText(String.format("৳%.2f", option.itinerary.getFare()));
+            tvTotalDuration.setText(DateUtils.formatDuration(option.itinerary.getTravelMinutes()));
+
+            Itinerary itinerary = option.itinerary;
+            for (int i = 0; i < legRows.size(); i++) {
+                UnifiedScheduleDTO schedule = route.get(i);
+                legRows.get(i).setText(String.format("• %s → %s (%s%s - %s%s)",
+                        schedule.getStart(), schedule.getDestination(),
+                        TimeCodec.formatTime(itinerary.getLegDepartureMinute(i)), dayMark(itinerary.getLegDayOffset(i)),
+                        TimeCodec.formatTime(itinerary.getLegArrivalMinute(i)), dayMark(itinerary.getLegArrivalDayOffset(i))));
+            }
+
+            btnSavePlan.setOnClickListener(v -> {
+                if (listener != null) {
+                    listener.onSavePlan(itinerary);
+                }
+            });
+        }
+
+        // " +1" for a time on the day after the travel date, " -1" for the day before
+        private static String dayMark(int days) {
+            if (days == 0) {
+                return "";
+            }
+            return days > 0 ? " +" + days : " " + days;
+        }
+    }
+}
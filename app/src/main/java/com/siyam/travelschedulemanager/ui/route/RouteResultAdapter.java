@@ -10,19 +10,18 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.siyam.travelschedulemanager.R;
 import com.siyam.travelschedulemanager.data.remote.dto.ScheduleDTO;
+import com.siyam.travelschedulemanager.ui.adapter.KeyedListAdapter;
 
 import java.util.List;
 
-public class RouteResultAdapter extends RecyclerView.Adapter<RouteResultAdapter.RouteViewHolder> {
-    private List<ScheduleDTO> schedules;
+public class RouteResultAdapter extends KeyedListAdapter<ScheduleDTO, RouteResultAdapter.RouteViewHolder> {
 
     public RouteResultAdapter(List<ScheduleDTO> schedules) {
-        this.schedules = schedules;
+        submitItems(schedules);
     }
 
     public void updateSchedules(List<ScheduleDTO> newSchedules) {
-        this.schedules = newSchedules;
-        notifyDataSetChanged();
+        submitItems(newSchedules);
     }
 
     @NonNull
@@ -35,13 +34,13 @@ public class RouteResultAdapter extends RecyclerView.Adapter<RouteResultAdapter.
 
     @Override
     public void onBindViewHolder(@NonNull RouteViewHolder holder, int position) {
-        ScheduleDTO schedule = schedules.get(position);
+        ScheduleDTO schedule = getItem(position);
         holder.bind(schedule);
     }
 
     @Override
-    public int getItemCount() {
-        return schedules.size();
+    protected Object getItemKey(@NonNull ScheduleDTO item) {
+        return item.getId();
     }
 
     static class RouteViewHolder extends RecyclerView.ViewHolder {
@@ -8,7 +8,6 @@ import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.AutoCompleteTextView;
 import android.widget.ProgressBar;
 import android.widget.TextView;
@@ -30,15 +29,19 @@ import com.google.android.material.floatingactionbutton.ExtendedFloatingActionBu
 import com.siyam.travelschedulemanager.R;
 import com.siyam.travelschedulemanager.model.UnifiedRoute;
 import com.siyam.travelschedulemanager.ui.adapter.RouteAdapter;
+import com.siyam.travelschedulemanager.ui.adapter.SuggestionAdapter;
 import com.siyam.travelschedulemanager.viewmodel.RouteManagementViewModel;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class RouteManagementFragment extends Fragment implements RouteAdapter.OnRouteActionListener {
 
     private RouteManagementViewModel viewModel;
     private RouteAdapter adapter;
+    private SuggestionAdapter autocompleteAdapter;
+    // Latest suggestions from the ViewModel, read by the adapter's filter thread
+    private volatile List<String> latestSuggestions = Collections.emptyList();
 
     // UI Components
     private MaterialToolbar toolbar;
@@ -110,12 +113,8 @@ public class RouteManagementFragment extends Fragment implements RouteAdapter.On
     }
 
     private void setupSearch() {
-        // Setup autocomplete adapter
-        ArrayAdapter<String> autocompleteAdapter = new ArrayAdapter<>(
-                requireContext(),
-                android.R.layout.simple_dropdown_item_1line,
-                new ArrayList<>()
-        );
+        // Setup autocomplete adapter; it shows the ViewModel's latest suggestions as they are
+        autocompleteAdapter = new SuggestionAdapter(requireContext(), (query, limit) -> latestSuggestions);
         searchAutoComplete.setAdapter(autocompleteAdapter);
 
         // Setup text change listener with debounce
@@ -130,16 +129,11 @@ public class RouteManagementFragment extends Fragment implements RouteAdapter.On
                     searchHandler.removeCallbacks(searchRunnable);
                 }
 
+                // Suggestions are debounced and sequenced by the ViewModel
+                viewModel.loadAutocompleteSuggestions(s.toString());
+
                 // Debounce search (300ms delay)
-                searchRunnable = () -> {
-                    String query = s.toString().trim();
-                    viewModel.setSearchQuery(query);
-                    
-                    // Load autocomplete suggestions
-                    if (query.length() >= 2) {
-                        viewModel.loadAutocompleteSuggestions(query);
-                    }
-                };
+                searchRunnable = () -> viewModel.setSearchQuery(s.toString().trim());
                 searchHandler.postDelayed(searchRunnable, 300);
             }
 
@@ -200,14 +194,9 @@ public class RouteManagementFragment extends Fragment implements RouteAdapter.On
 
         // Observe autocomplete suggestions
         viewModel.getAutocompleteSuggestions().observe(getViewLifecycleOwner(), suggestions -> {
-            if (suggestions != null && !suggestions.isEmpty()) {
-                ArrayAdapter<String> newAdapter = new ArrayAdapter<>(
-                        requireContext(),
-                        android.R.layout.simple_dropdown_item_1line,
-                        suggestions
-                );
-                searchAutoComplete.setAdapter(newAdapter);
-                newAdapter.notifyDataSetChanged();
+            latestSuggestions = suggestions != null ? suggestions : Collections.emptyList();
+            if (searchAutoComplete.hasFocus()) {
+                autocompleteAdapter.refresh(searchAutoComplete);
             }
         });
 
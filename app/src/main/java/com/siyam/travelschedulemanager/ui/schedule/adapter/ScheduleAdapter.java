@@ -12,13 +12,12 @@ import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.chip.Chip;
 import com.siyam.travelschedulemanager.R;
 import com.siyam.travelschedulemanager.model.Schedule;
+import com.siyam.travelschedulemanager.ui.adapter.KeyedListAdapter;
 import com.siyam.travelschedulemanager.util.DateUtils;
 
-import java.util.ArrayList;
 import java.util.List;
 
-public class ScheduleAdapter extends RecyclerView.Adapter<ScheduleAdapter.ScheduleViewHolder> {
-    private List<Schedule> schedules = new ArrayList<>();
+public class ScheduleAdapter extends KeyedListAdapter<Schedule, ScheduleAdapter.ScheduleViewHolder> {
     private OnScheduleClickListener listener;
 
     public interface OnScheduleClickListener {
@@ -26,8 +25,7 @@ public class ScheduleAdapter extends RecyclerView.Adapter<ScheduleAdapter.Schedu
     }
 
     public void setSchedules(List<Schedule> schedules) {
-        this.schedules = schedules;
-        notifyDataSetChanged();
+        submitItems(schedules);
     }
 
     public void setOnScheduleClickListener(OnScheduleClickListener listener) {
@@ -44,13 +42,13 @@ public class ScheduleAdapter extends RecyclerView.Adapter<ScheduleAdapter.Schedu
 
     @Override
     public void onBindViewHolder(@NonNull ScheduleViewHolder holder, int position) {
-        Schedule schedule = schedules.get(position);
+        Schedule schedule = getItem(position);
         holder.bind(schedule);
     }
 
     @Override
-    public int getItemCount() {
-        return schedules.size();
+    protected Object getItemKey(@NonNull Schedule item) {
+        return item.getId();
     }
 
     class ScheduleViewHolder extends RecyclerView.ViewHolder {
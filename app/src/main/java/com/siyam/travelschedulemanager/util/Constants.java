@@ -1,7 +1,9 @@
 package com.siyam.travelschedulemanager.util;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class Constants {
 
@@ -83,6 +85,23 @@ public class Constants {
             "Habiganj", "Moulvibazar", "Sunamganj", "Sylhet"
     );
 
+    // Older and transliterated spellings of district names, for autocomplete
+    public static final Map<String, String> CITY_ALIASES = new HashMap<>();
+    static {
+        CITY_ALIASES.put("Barisal", "Barishal");
+        CITY_ALIASES.put("Chittagong", "Chattogram");
+        CITY_ALIASES.put("Ctg", "Chattogram");
+        CITY_ALIASES.put("Cox's Bazar", "Coxs Bazar");
+        CITY_ALIASES.put("Comilla", "Cumilla");
+        CITY_ALIASES.put("Jessore", "Jashore");
+        CITY_ALIASES.put("Bogra", "Bogura");
+        CITY_ALIASES.put("Nawabganj", "Chapai Nawabganj");
+        CITY_ALIASES.put("Netrakona", "Netrokona");
+        CITY_ALIASES.put("Maulvibazar", "Moulvibazar");
+        CITY_ALIASES.put("Jhalakati", "Jhalokati");
+        CITY_ALIASES.put("Laxmipur", "Lakshmipur");
+    }
+
     // Days of Week
     public static final List<String> DAYS_OF_WEEK = Arrays.asList(
             "Monday",
@@ -1,40 +1,33 @@
 package com.siyam.travelschedulemanager.util;
 
-import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
 
 public class DateUtils {
-    
-    private static final SimpleDateFormat TIME_FORMAT = new SimpleDateFormat("HH:mm", Locale.getDefault());
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("dd MMM yyyy", Locale.getDefault());
-    private static final SimpleDateFormat DATE_TIME_FORMAT = new SimpleDateFormat("dd MMM yyyy HH:mm", Locale.getDefault());
-    private static final SimpleDateFormat DAY_FORMAT = new SimpleDateFormat("EEEE", Locale.getDefault());
+
+    // SimpleDateFormat is not thread-safe, so each thread gets its own instance.
+    // Plain "HH:mm" times go through TimeCodec instead.
+    private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat("dd MMM yyyy", Locale.getDefault()));
+    private static final ThreadLocal<SimpleDateFormat> DATE_TIME_FORMAT =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat("dd MMM yyyy HH:mm", Locale.getDefault()));
+    private static final ThreadLocal<SimpleDateFormat> DAY_FORMAT =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat("EEEE", Locale.getDefault()));
 
     /**
-     * Calculate duration in minutes between two times
+     * Calculate duration in minutes between two times of day. An end before the
+     * start is taken to be on the next day, so this suits a single leg; a whole
+     * journey over several days is measured on Itinerary's absolute minutes.
      */
     public static int calculateDuration(String startTime, String endTime) {
-        try {
-            Date start = TIME_FORMAT.parse(startTime);
-            Date end = TIME_FORMAT.parse(endTime);
-            
-            if (start != null && end != null) {
-                long diff = end.getTime() - start.getTime();
-                
-                // Handle overnight journeys
-                if (diff < 0) {
-                    diff += 24 * 60 * 60 * 1000; // Add 24 hours
-                }
-                
-                return (int) (diff / (60 * 1000)); // Convert to minutes
-            }
-        } catch (ParseException e) {
-            e.printStackTrace();
+        int start = TimeCodec.parseTime(startTime);
+        int end = TimeCodec.parseTime(endTime);
+        if (start == TimeCodec.INVALID || end == TimeCodec.INVALID) {
+            return 0;
         }
-        return 0;
+        // Handle overnight journeys
+        return TimeCodec.minutesBetween(start, end);
     }
 
     /**
@@ -43,7 +36,7 @@ public class DateUtils {
     public static String formatDuration(int minutes) {
         int hours = minutes / 60;
         int mins = minutes % 60;
-        
+
         if (hours > 0 && mins > 0) {
             return hours + "h " + mins + "m";
         } else if (hours > 0) {
@@ -57,7 +50,7 @@ public class DateUtils {
      * Get day of week from date
      */
     public static String getDayOfWeek(Date date) {
-        return DAY_FORMAT.format(date);
+        return DAY_FORMAT.get().format(date);
     }
 
     /**
@@ -71,32 +64,25 @@ public class DateUtils {
      * Format date to readable string
      */
     public static String formatDate(Date date) {
-        return DATE_FORMAT.format(date);
+        return DATE_FORMAT.get().format(date);
     }
 
     /**
      * Format date and time to readable string
      */
     public static String formatDateTime(Date date) {
-        return DATE_TIME_FORMAT.format(date);
+        return DATE_TIME_FORMAT.get().format(date);
     }
 
     /**
      * Add minutes to time string
      */
     public static String addMinutesToTime(String timeStr, int minutesToAdd) {
-        try {
-            Date time = TIME_FORMAT.parse(timeStr);
-            if (time != null) {
-                Calendar calendar = Calendar.getInstance();
-                calendar.setTime(time);
-                calendar.add(Calendar.MINUTE, minutesToAdd);
-                return TIME_FORMAT.format(calendar.getTime());
-            }
-        } catch (ParseException e) {
-            e.printStackTrace();
+        int time = TimeCodec.parseTime(timeStr);
+        if (time == TimeCodec.INVALID) {
+            return timeStr;
         }
-        return timeStr;
+        return TimeCodec.formatTime(time + minutesToAdd);
     }
 
     /**
@@ -107,16 +93,22 @@ public class DateUtils {
         return gap >= minimumMinutes;
     }
 
+    /**
+     * Check if there's enough transfer time between two pre-parsed minutes of day
+     */
+    public static boolean isValidTransferTime(int arrivalMinute, int departureMinute, int minimumMinutes) {
+        return TimeCodec.minutesBetween(arrivalMinute, departureMinute) >= minimumMinutes;
+    }
+
     /**
      * Parse time string to hour and minute
      */
     public static int[] parseTime(String timeStr) {
-        try {
-            String[] parts = timeStr.split(":");
-            return new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
-        } catch (Exception e) {
+        int time = TimeCodec.parseTime(timeStr);
+        if (time == TimeCodec.INVALID) {
             return new int[]{0, 0};
         }
+        return new int[]{time / 60, time % 60};
     }
 
     /**
@@ -124,23 +116,19 @@ public class DateUtils {
      * Returns: -1 if time1 < time2, 0 if equal, 1 if time1 > time2
      */
     public static int compareTimes(String time1, String time2) {
-        try {
-            Date t1 = TIME_FORMAT.parse(time1);
-            Date t2 = TIME_FORMAT.parse(time2);
-            if (t1 != null && t2 != null) {
-                return t1.compareTo(t2);
-            }
-        } catch (ParseException e) {
-            e.printStackTrace();
+        int t1 = TimeCodec.parseTime(time1);
+        int t2 = TimeCodec.parseTime(time2);
+        if (t1 == TimeCodec.INVALID || t2 == TimeCodec.INVALID) {
+            return 0;
         }
-        return 0;
+        return Integer.compare(t1, t2);
     }
 
     /**
      * Get current time in HH:mm format
      */
     public static String getCurrentTime() {
-        return TIME_FORMAT.format(new Date());
+        return TimeCodec.formatTime(TimeCodec.currentMinuteOfDay());
     }
 
     /**
@@ -0,0 +1,90 @@
+package com.siyam.travelschedulemanager.util;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Weekday masks for the days a service runs.
+ *
+ * Bit (weekday - 1) stands for a java.util.Calendar weekday, so Sunday is bit 0
+ * and Saturday bit 6. A schedule's off day is parsed into a mask once, and
+ * checking whether it runs on a date is one AND with that date's bit.
+ */
+public final class ServiceCalendar {
+    public static final int EVERY_DAY = 0x7F;
+    // Weekday value for a search without a date; every service counts as running
+    public static final int ANY_DAY = 0;
+
+    // In Calendar order, starting with Calendar.SUNDAY
+    private static final String[] DAY_NAMES = {
+            "sunday", "monday", "tuesday", "wednesday", "thursday", "friday", "saturday"
+    };
+
+    private ServiceCalendar() {}
+
+    /**
+     * Days a service with this off-day text runs on. Day names may be
+     * abbreviated and several may be listed; "None", "No off day" and
+     * unrecognised text mean it runs every day.
+     */
+    public static int runningDays(String offDay) {
+        return EVERY_DAY & ~offDays(offDay);
+    }
+
+    /**
+     * Days a service with these off days runs on
+     */
+    public static int runningDays(List<String> offDays) {
+        int off = 0;
+        if (offDays != null) {
+            for (String offDay : offDays) {
+                off |= offDays(offDay);
+            }
+        }
+        return EVERY_DAY & ~off;
+    }
+
+    private static int offDays(String text) {
+        if (text == null) {
+            return 0;
+        }
+        int mask = 0;
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^a-z]+")) {
+            if (word.length() < 3) continue;
+            for (int i = 0; i < DAY_NAMES.length; i++) {
+                if (DAY_NAMES[i].startsWith(word)) {
+                    mask |= 1 << i;
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Bit of a Calendar weekday, or every bit for ANY_DAY
+     */
+    public static int dayBit(int weekday) {
+        return weekday == ANY_DAY ? EVERY_DAY : 1 << (weekday - 1);
+    }
+
+    /**
+     * Bit of the weekday a number of days after the given one
+     */
+    public static int dayBit(int weekday, int daysLater) {
+        if (weekday == ANY_DAY) {
+            return EVERY_DAY;
+        }
+        return 1 << Math.floorMod(weekday - 1 + daysLater, 7);
+    }
+
+    /**
+     * Calendar weekday of a date in the device time zone
+     */
+    public static int weekdayOf(Date date) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        return calendar.get(Calendar.DAY_OF_WEEK);
+    }
+}
@@ -0,0 +1,27 @@
+package com.siyam.travelschedulemanager.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out one shared instance per distinct string.
+ *
+ * A timetable repeats a few hundred station names, operators, times and
+ * durations across thousands of rows; reading each row allocates its own
+ * copies. Passing them through one pool per read keeps a single copy of each.
+ * Unlike String.intern() the pool is dropped with the read. Not thread-safe.
+ */
+public final class StringPool {
+    private final Map<String, String> pool = new HashMap<>();
+
+    /**
+     * The pooled instance equal to value, or null for null
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = pool.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+}
@@ -0,0 +1,245 @@
+package com.siyam.travelschedulemanager.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Immutable prefix trie over autocomplete terms.
+ *
+ * Every word of a term is a way in, so "Dhaka Cantonment" is found by both
+ * "dha" and "cant", and aliases lead to the term they name ("chittagong" finds
+ * "Chattogram"). Each node keeps the ids of the best MAX_RESULTS terms below
+ * it, ranked by weight, so a lookup is a walk down the query's characters and
+ * never visits the rest of the subtree.
+ *
+ * When the exact prefix gives too few terms, the rest are filled with terms
+ * whose prefix is within a small edit distance of the query, found by carrying
+ * one Levenshtein row per trie node and pruning branches that cannot get close.
+ *
+ * Safe to read from any thread once built.
+ */
+public class SuggestionTrie {
+    public static final int MAX_RESULTS = 16;
+
+    // Term ids are ranks: 0 is the heaviest term
+    private final String[] terms;
+    private final Node root = new Node();
+
+    public SuggestionTrie(Map<String, Integer> weights) {
+        this(weights, Collections.emptyMap());
+    }
+
+    /**
+     * @param weights display term to weight; heavier terms are suggested first
+     * @param aliases other spelling to display term; aliases of missing terms are ignored
+     */
+    public SuggestionTrie(Map<String, Integer> weights, Map<String, String> aliases) {
+        List<Map.Entry<String, Integer>> ranked = new ArrayList<>(weights.entrySet());
+        Collections.sort(ranked, (a, b) -> {
+            int byWeight = Integer.compare(b.getValue(), a.getValue());
+            return byWeight != 0 ? byWeight : a.getKey().compareToIgnoreCase(b.getKey());
+        });
+
+        terms = new String[ranked.size()];
+        for (int id = 0; id < terms.length; id++) {
+            terms[id] = ranked.get(id).getKey();
+            String normalized = normalize(terms[id]);
+            for (int start = 0; start < normalized.length(); start++) {
+                if (start == 0 || normalized.charAt(start - 1) == ' ') {
+                    insert(normalized, start, id);
+                }
+            }
+        }
+        if (!aliases.isEmpty()) {
+            Map<String, Integer> ids = new HashMap<>(terms.length * 2);
+            for (int id = 0; id < terms.length; id++) {
+                ids.put(terms[id], id);
+            }
+            for (Map.Entry<String, String> alias : aliases.entrySet()) {
+                Integer id = ids.get(alias.getValue());
+                String key = normalize(alias.getKey());
+                if (id != null && !key.isEmpty()) {
+                    insert(key, 0, id);
+                }
+            }
+        }
+        finish(root);
+    }
+
+    /**
+     * Lower-case, with punctuation turned into single spaces
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = true;
+        for (char c : text.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+                space = false;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int end = sb.length();
+        if (end > 0 && sb.charAt(end - 1) == ' ') {
+            sb.setLength(end - 1);
+        }
+        return sb.toString();
+    }
+
+    public int size() {
+        return terms.length;
+    }
+
+    /**
+     * Terms with a word starting with the query, heaviest first, followed by
+     * near misses if there are fewer than limit
+     */
+    public List<String> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+
+        LinkedHashSet<Integer> ids = new LinkedHashSet<>();
+        if (node != null) {
+            for (int i = 0; i < node.top.length && ids.size() < limit; i++) {
+                ids.add(node.top[i]);
+            }
+        }
+        int maxDistance = maxDistance(prefix.length());
+        if (ids.size() < limit && maxDistance > 0) {
+            for (int id : fuzzy(prefix, maxDistance)) {
+                if (ids.size() == limit) break;
+                ids.add(id);
+            }
+        }
+
+        List<String> results = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            results.add(terms[id]);
+        }
+        return results;
+    }
+
+    // Typos allowed for a query of this length; short queries match exactly
+    private static int maxDistance(int length) {
+        if (length < 3) return 0;
+        return length < 6 ? 1 : 2;
+    }
+
+    /**
+     * Ids of terms with a prefix within maxDistance edits of the query,
+     * closest first, then by rank
+     */
+    private List<Integer> fuzzy(String query, int maxDistance) {
+        Map<Integer, Integer> best = new HashMap<>();
+        int[] row = new int[query.length() + 1];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = i;
+        }
+        for (Map.Entry<Character, Node> child : root.children.entrySet()) {
+            fuzzy(child.getValue(), child.getKey(), query, row, maxDistance, best);
+        }
+
+        List<Integer> ids = new ArrayList<>(best.keySet());
+        Collections.sort(ids, (a, b) -> {
+            int byDistance = Integer.compare(best.get(a), best.get(b));
+            return byDistance != 0 ? byDistance : Integer.compare(a, b);
+        });
+        return ids;
+    }
+
+    private void fuzzy(Node node, char c, String query, int[] previous, int maxDistance,
+                       Map<Integer, Integer> best) {
+        int[] row = new int[previous.length];
+        row[0] = previous[0] + 1;
+        int rowMin = row[0];
+        for (int i = 1; i < row.length; i++) {
+            int substitute = previous[i - 1] + (query.charAt(i - 1) == c ? 0 : 1);
+            row[i] = Math.min(substitute, Math.min(row[i - 1] + 1, previous[i] + 1));
+            rowMin = Math.min(rowMin, row[i]);
+        }
+
+        int distance = row[row.length - 1];
+        if (distance <= maxDistance) {
+            // The whole query is matched; every term below shares this prefix
+            for (int id : node.top) {
+                Integer known = best.get(id);
+                if (known == null || distance < known) {
+                    best.put(id, distance);
+                }
+            }
+        }
+        if (rowMin <= maxDistance) {
+            for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+                fuzzy(child.getValue(), child.getKey(), query, row, maxDistance, best);
+            }
+        }
+    }
+
+    private void insert(String key, int start, int id) {
+        Node node = root;
+        for (int i = start; i < key.length(); i++) {
+            char c = key.charAt(i);
+            Node child = node.children.get(c);
+            if (child == null) {
+                child = new Node();
+                node.children.put(c, child);
+            }
+            node = child;
+        }
+        if (node.ends == null) {
+            node.ends = new ArrayList<>(1);
+        }
+        node.ends.add(id);
+    }
+
+    // Fills in the ranked ids of every node, bottom up
+    private static int[] finish(Node node) {
+        if (node.ends == null && node.children.size() == 1) {
+            // A chain link ranks the same terms as its only child
+            node.top = finish(node.children.values().iterator().next());
+            return node.top;
+        }
+        TreeSet<Integer> ids = new TreeSet<>();
+        if (node.ends != null) {
+            ids.addAll(node.ends);
+            node.ends = null;
+        }
+        for (Node child : node.children.values()) {
+            for (int id : finish(child)) {
+                ids.add(id);
+            }
+        }
+        int[] top = new int[Math.min(ids.size(), MAX_RESULTS)];
+        int i = 0;
+        for (int id : ids) {
+            if (i == top.length) break;
+            top[i++] = id;
+        }
+        node.top = top;
+        return top;
+    }
+
+    private static class Node {
+        final Map<Character, Node> children = new HashMap<>(4);
+        // Terms whose key ends here; only used while building
+        List<Integer> ends;
+        int[] top;
+    }
+}
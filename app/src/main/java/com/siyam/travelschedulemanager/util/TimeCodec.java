@@ -0,0 +1,98 @@
+package com.siyam.travelschedulemanager.util;
+
+import java.util.Calendar;
+
+/**
+ * Allocation-free conversions between schedule time strings and minutes.
+ * Stateless, so unlike a shared SimpleDateFormat it is safe on any thread.
+ */
+public final class TimeCodec {
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int INVALID = -1;
+
+    private TimeCodec() {}
+
+    /**
+     * Parse "HH:mm" (or "H:mm") to minute of day, or INVALID if malformed
+     */
+    public static int parseTime(CharSequence text) {
+        int minutes = parseHoursMinutes(text);
+        return minutes < MINUTES_PER_DAY ? minutes : INVALID;
+    }
+
+    /**
+     * Parse a duration such as "4:30h" or "4:30" to minutes, or INVALID if malformed
+     */
+    public static int parseDuration(CharSequence text) {
+        return parseHoursMinutes(text);
+    }
+
+    /**
+     * Format minute of day as "HH:mm", wrapping values outside one day
+     */
+    public static String formatTime(int minuteOfDay) {
+        int minutes = Math.floorMod(minuteOfDay, MINUTES_PER_DAY);
+        int hours = minutes / 60;
+        int mins = minutes % 60;
+        return new String(new char[]{
+                (char) ('0' + hours / 10), (char) ('0' + hours % 10), ':',
+                (char) ('0' + mins / 10), (char) ('0' + mins % 10)
+        });
+    }
+
+    /**
+     * Format minutes as a schedule duration such as "4:05h", the form parseDuration reads
+     */
+    public static String formatDuration(int minutes) {
+        int mins = minutes % 60;
+        return (minutes / 60) + (mins < 10 ? ":0" : ":") + mins + "h";
+    }
+
+    /**
+     * Minutes from one time of day to the next occurrence of another.
+     * A later time is reached the same day; an earlier one the next day.
+     */
+    public static int minutesBetween(int fromMinute, int toMinute) {
+        int gap = toMinute - fromMinute;
+        return gap < 0 ? gap + MINUTES_PER_DAY : gap;
+    }
+
+    /**
+     * Current minute of day on the device clock
+     */
+    public static int currentMinuteOfDay() {
+        Calendar now = Calendar.getInstance();
+        return now.get(Calendar.HOUR_OF_DAY) * 60 + now.get(Calendar.MINUTE);
+    }
+
+    // Parses "<hours>:<mm>" with optional surrounding spaces and trailing 'h'
+    private static int parseHoursMinutes(CharSequence text) {
+        if (text == null) return INVALID;
+
+        int end = text.length();
+        while (end > 0 && Character.isWhitespace(text.charAt(end - 1))) end--;
+        if (end > 0 && (text.charAt(end - 1) == 'h' || text.charAt(end - 1) == 'H')) end--;
+        while (end > 0 && Character.isWhitespace(text.charAt(end - 1))) end--;
+
+        int i = 0;
+        while (i < end && Character.isWhitespace(text.charAt(i))) i++;
+
+        int hours = 0;
+        int hourDigits = 0;
+        while (i < end && isDigit(text.charAt(i))) {
+            hours = hours * 10 + (text.charAt(i++) - '0');
+            if (++hourDigits > 3) return INVALID;
+        }
+        if (hourDigits == 0 || i >= end || text.charAt(i++) != ':') return INVALID;
+
+        if (end - i != 2 || !isDigit(text.charAt(i)) || !isDigit(text.charAt(i + 1))) return INVALID;
+        int minutes = (text.charAt(i) - '0') * 10 + (text.charAt(i + 1) - '0');
+        if (minutes >= 60) return INVALID;
+
+        return hours * 60 + minutes;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
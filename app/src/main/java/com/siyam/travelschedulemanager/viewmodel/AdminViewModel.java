@@ -2,9 +2,10 @@ package com.siyam.travelschedulemanager.viewmodel;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModel;
 
-import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.siyam.travelschedulemanager.data.firebase.LiveCollection;
 import com.siyam.travelschedulemanager.data.firebase.UserRepository;
 import com.siyam.travelschedulemanager.model.User;
 
@@ -18,8 +19,19 @@ public class AdminViewModel extends ViewModel {
     private final MutableLiveData<String> message = new MutableLiveData<>();
     private final MutableLiveData<String> error = new MutableLiveData<>();
 
+    // One listener feeds both lists; status changes arrive as deltas, so actions need no reload
+    private final LiveCollection<User> users;
+    private final Observer<LiveCollection.ChangeSet<User>> usersObserver = changes -> publishUsers();
+    private final Observer<String> usersErrorObserver = message ->
+            error.setValue("Failed to load users: " + message);
+    // Status shown in allUsers, or null for every user
+    private String allUsersStatus;
+
     public AdminViewModel() {
         this.userRepository = new UserRepository();
+        this.users = userRepository.listenAllUsers();
+        users.getChanges().observeForever(usersObserver);
+        users.getError().observeForever(usersErrorObserver);
     }
 
     public LiveData<List<User>> getPendingUsers() {
@@ -38,62 +50,51 @@ public class AdminViewModel extends ViewModel {
         return error;
     }
 
+    /**
+     * Start listening to the users collection if not already.
+     * The lists then follow every change without re-querying.
+     */
     public void loadPendingUsers() {
-        userRepository.getPendingUsers()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<User> userList = new ArrayList<>();
-                    for (QueryDocumentSnapshot document : querySnapshot) {
-                        User user = document.toObject(User.class);
-                        // Client-side filtering for PENDING status
-                        if ("PENDING".equals(user.getStatus())) {
-                            userList.add(user);
-                        }
-                    }
-                    pendingUsers.setValue(userList);
-                })
-                .addOnFailureListener(e -> {
-                    error.setValue("Failed to load pending users: " + e.getMessage());
-                });
+        users.start();
     }
 
     public void loadAllUsers() {
-        userRepository.getAllUsers()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<User> userList = new ArrayList<>();
-                    for (QueryDocumentSnapshot document : querySnapshot) {
-                        User user = document.toObject(User.class);
-                        userList.add(user);
-                    }
-                    allUsers.setValue(userList);
-                })
-                .addOnFailureListener(e -> {
-                    error.setValue("Failed to load users: " + e.getMessage());
-                });
+        allUsersStatus = null;
+        users.start();
+        publishUsers();
     }
 
     public void loadApprovedUsers() {
-        userRepository.getApprovedUsers()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<User> userList = new ArrayList<>();
-                    for (QueryDocumentSnapshot document : querySnapshot) {
-                        User user = document.toObject(User.class);
-                        // Client-side filtering for APPROVED status only
-                        if ("APPROVED".equals(user.getStatus())) {
-                            userList.add(user);
-                        }
-                    }
-                    allUsers.setValue(userList);
-                })
-                .addOnFailureListener(e -> {
-                    error.setValue("Failed to load users: " + e.getMessage());
-                });
+        // Client-side filtering for APPROVED status only
+        allUsersStatus = "APPROVED";
+        users.start();
+        publishUsers();
+    }
+
+    private void publishUsers() {
+        LiveCollection.ChangeSet<User> latest = users.getChanges().getValue();
+        if (latest == null) {
+            return;
+        }
+        List<User> pending = new ArrayList<>();
+        List<User> listed = new ArrayList<>();
+        for (User user : latest.getItems()) {
+            // Client-side filtering for PENDING status
+            if ("PENDING".equals(user.getStatus())) {
+                pending.add(user);
+            }
+            if (allUsersStatus == null || allUsersStatus.equals(user.getStatus())) {
+                listed.add(user);
+            }
+        }
+        pendingUsers.setValue(pending);
+        allUsers.setValue(listed);
     }
 
     public void approveUser(String uid) {
         userRepository.updateUserStatus(uid, "APPROVED", null)
                 .addOnSuccessListener(aVoid -> {
                     message.setValue("User approved successfully");
-                    loadPendingUsers();
                 })
                 .addOnFailureListener(e -> {
                     error.setValue("Failed to approve user: " + e.getMessage());
@@ -104,7 +105,6 @@ public class AdminViewModel extends ViewModel {
         userRepository.updateUserStatus(uid, "REJECTED", reason)
                 .addOnSuccessListener(aVoid -> {
                     message.setValue("User rejected");
-                    loadPendingUsers();
                 })
                 .addOnFailureListener(e -> {
                     error.setValue("Failed to reject user: " + e.getMessage());
@@ -115,7 +115,6 @@ public class AdminViewModel extends ViewModel {
         userRepository.updateUserRole(uid, role)
                 .addOnSuccessListener(aVoid -> {
                     message.setValue("User role updated successfully");
-                    loadAllUsers();
                 })
                 .addOnFailureListener(e -> {
                     error.setValue("Failed to update user role: " + e.getMessage());
@@ -126,7 +125,6 @@ public class AdminViewModel extends ViewModel {
         userRepository.lockAccount(uid, minutes)
                 .addOnSuccessListener(aVoid -> {
                     message.setValue("User locked for " + minutes + " minutes");
-                    loadAllUsers();
                 })
                 .addOnFailureListener(e -> {
                     error.setValue("Failed to lock user: " + e.getMessage());
@@ -137,7 +135,6 @@ public class AdminViewModel extends ViewModel {
         userRepository.unlockAccount(uid)
                 .addOnSuccessListener(aVoid -> {
                     message.setValue("User unlocked successfully");
-                    loadAllUsers();
                 })
                 .addOnFailureListener(e -> {
                     error.setValue("Failed to unlock user: " + e.getMessage());
@@ -148,9 +145,17 @@ public class AdminViewModel extends ViewModel {
         userRepository.updateUserRole(uid, newRole)
                 .addOnSuccessListener(aVoid -> {
                     message.setValue("User role updated to " + newRole);
-                    loadAllUsers();
                 })
                 .addOnFailureListener(e -> {
                     error.setValue("Failed to change role: " + e.getMessage());
                 });
-    }}
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        users.getChanges().removeObserver(usersObserver);
+        users.getError().removeObserver(usersErrorObserver);
+        users.stop();
+    }
+}
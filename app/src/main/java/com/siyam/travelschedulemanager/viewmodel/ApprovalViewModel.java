@@ -2,9 +2,11 @@ package com.siyam.travelschedulemanager.viewmodel;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModel;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.siyam.travelschedulemanager.data.firebase.AuditLogRepository;
+import com.siyam.travelschedulemanager.data.firebase.LiveCollection;
 import com.siyam.travelschedulemanager.data.firebase.RouteRepository;
 import com.siyam.travelschedulemanager.data.firebase.UserRepository;
 import com.siyam.travelschedulemanager.model.AuditLog;
@@ -24,6 +26,13 @@ public class ApprovalViewModel extends ViewModel {
     private final MutableLiveData<String> message = new MutableLiveData<>();
     private final MutableLiveData<String> error = new MutableLiveData<>();
 
+    private LiveCollection<AuditLog> auditLogStore;
+    private int auditLogLimit;
+    private final Observer<LiveCollection.ChangeSet<AuditLog>> auditLogObserver =
+            changes -> auditLogs.setValue(changes.getItems());
+    private final Observer<String> auditLogErrorObserver = message ->
+            error.setValue("Failed to load audit logs: " + message);
+
     public ApprovalViewModel() {
         this.routeRepository = new RouteRepository();
         this.userRepository = new UserRepository();
@@ -124,32 +133,41 @@ public class ApprovalViewModel extends ViewModel {
     }
 
     public void loadAllAuditLogs() {
-        auditLogRepository.getAllAuditLogs()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<AuditLog> logs = new ArrayList<>();
-                    for (QueryDocumentSnapshot document : querySnapshot) {
-                        AuditLog log = document.toObject(AuditLog.class);
-                        logs.add(log);
-                    }
-                    auditLogs.setValue(logs);
-                })
-                .addOnFailureListener(e -> {
-                    error.setValue("Failed to load audit logs: " + e.getMessage());
-                });
+        listenAuditLogs(0);
     }
 
+    /**
+     * Listen to the newest audit logs; new entries arrive without reloading.
+     * Asking again with the same limit keeps the existing listener.
+     */
     public void loadRecentAuditLogs(int limit) {
-        auditLogRepository.getRecentAuditLogs(limit)
-                .addOnSuccessListener(querySnapshot -> {
-                    List<AuditLog> logs = new ArrayList<>();
-                    for (QueryDocumentSnapshot document : querySnapshot) {
-                        AuditLog log = document.toObject(AuditLog.class);
-                        logs.add(log);
-                    }
-                    auditLogs.setValue(logs);
-                })
-                .addOnFailureListener(e -> {
-                    error.setValue("Failed to load recent logs: " + e.getMessage());
-                });
+        listenAuditLogs(limit);
+    }
+
+    private void listenAuditLogs(int limit) {
+        if (auditLogStore != null && auditLogLimit == limit) {
+            return;
+        }
+        stopAuditLogs();
+        auditLogLimit = limit;
+        auditLogStore = auditLogRepository.listenAuditLogs(limit);
+        auditLogStore.getChanges().observeForever(auditLogObserver);
+        auditLogStore.getError().observeForever(auditLogErrorObserver);
+        auditLogStore.start();
+    }
+
+    private void stopAuditLogs() {
+        if (auditLogStore != null) {
+            auditLogStore.getChanges().removeObserver(auditLogObserver);
+            auditLogStore.getError().removeObserver(auditLogErrorObserver);
+            auditLogStore.stop();
+            auditLogStore = null;
+        }
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        stopAuditLogs();
     }
 }
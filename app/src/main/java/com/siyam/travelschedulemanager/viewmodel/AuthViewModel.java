@@ -8,6 +8,7 @@ import com.google.firebase.Timestamp;
 import com.siyam.travelschedulemanager.data.firebase.AuthRepository;
 import com.siyam.travelschedulemanager.data.firebase.UserRepository;
 import com.siyam.travelschedulemanager.data.firebase.AuditLogRepository;
+import com.siyam.travelschedulemanager.data.remote.RetrofitClient;
 import com.siyam.travelschedulemanager.model.User;
 import com.siyam.travelschedulemanager.model.AuditLog;
 import com.siyam.travelschedulemanager.util.Constants;
@@ -91,6 +92,7 @@ public class AuthViewModel extends ViewModel {
                                         Timestamp lockUntil = user.getLockUntil();
                                         if (lockUntil != null && lockUntil.toDate().after(new Date())) {
                                             authRepository.signOut();
+        RetrofitClient.evictCache();
                                             error.setValue("Account locked until " + lockUntil.toDate());
                                             return;
                                         } else {
@@ -172,6 +172,7 @@ public class RestAuthViewModel extends AndroidViewModel {
 
     public void logout() {
         tokenManager.logout();
+        RetrofitClient.evictCache();
         currentUser.setValue(null);
         Log.i(TAG, "User logged out");
     }
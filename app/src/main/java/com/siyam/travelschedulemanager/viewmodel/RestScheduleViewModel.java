@@ -8,6 +8,7 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.siyam.travelschedulemanager.algorithm.RouteGraphCache;
 import com.siyam.travelschedulemanager.data.remote.ApiService;
 import com.siyam.travelschedulemanager.data.remote.RetrofitClient;
 import com.siyam.travelschedulemanager.data.remote.dto.*;
@@ -44,7 +45,9 @@ public class RestScheduleViewModel extends AndroidViewModel {
 
     public void searchRoutes(String start, String destination) {
         if (!networkManager.isOnline()) {
-            errorMessage.setValue("Internet connection required for route search");
+            if (!searchLocalGraph(start, destination)) {
+                errorMessage.setValue("Internet connection required for route search");
+            }
             return;
         }
 
@@ -71,9 +74,11 @@ public class RestScheduleViewModel extends AndroidViewModel {
             @Override
             public void onFailure(Call<List<UnifiedScheduleDTO>> call, Throwable t) {
                 isLoading.setValue(false);
-                searchResults.setValue(new ArrayList<>());
-                errorMessage.setValue("Search failed: " + t.getMessage());
                 Log.e(TAG, "Route search failed", t);
+                if (!searchLocalGraph(start, destination)) {
+                    searchResults.setValue(new ArrayList<>());
+                    errorMessage.setValue("Search failed: " + t.getMessage());
+                }
             }
         });
     }
@@ -117,6 +122,22 @@ public class RestScheduleViewModel extends AndroidViewModel {
 
     // ==================== Helper Methods ====================
 
+    /**
+     * Answer a search from the direct connections in the shared TripTable
+     * @return false if no graph has been built yet
+     */
+    private boolean searchLocalGraph(String start, String destination) {
+        RouteGraphCache.Snapshot graph = RouteGraphCache.getInstance().getCurrent();
+        if (graph == null) {
+            return false;
+        }
+        List<ScheduleDTO> converted = convertUnifiedToSchedule(graph.getRouter().findDirect(start, destination));
+        searchResults.setValue(converted);
+        Log.d(TAG, "Found " + converted.size() + " routes for " + start + " -> " + destination
+                + " in local graph v" + graph.getVersion());
+        return true;
+    }
+
     /**
      * Convert UnifiedScheduleDTO to ScheduleDTO format
      */
@@ -0,0 +1,242 @@
+package com.siyam.travelschedulemanager.viewmodel;
+
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.siyam.travelschedulemanager.BuildConfig;
+import com.siyam.travelschedulemanager.algorithm.Itinerary;
+import com.siyam.travelschedulemanager.algorithm.RouteEngine;
+import com.siyam.travelschedulemanager.algorithm.RouteGraphCache;
+import com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO;
+import com.siyam.travelschedulemanager.data.repository.ScheduleRepository;
+import com.siyam.travelschedulemanager.data.repository.ScheduleRepository.Resource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * ViewModel for the automatic route finder.
+ *
+ * Searches run on one background thread against the shared RouteGraphCache
+ * graph. Starting a search cancels the one still running, and only the result
+ * of the latest search is delivered; results of superseded searches are
+ * dropped on the main thread.
+ *
+ * Each search first asks the graph's earliest-arrival engine, which answers in
+ * one scan, and shows that journey while the full search runs.
+ */
+public class RouteFinderViewModel extends AndroidViewModel {
+    private static final String TAG = "RouteFinderViewModel";
+    public static final int MAX_LEGS = 3;
+
+    // Better end of a journey for each kind of search, sooner first
+    private static final Comparator<Itinerary> ARRIVES_EARLIER =
+            (a, b) -> Integer.compare(a.getArrivalMinute(), b.getArrivalMinute());
+    private static final Comparator<Itinerary> LEAVES_LATER =
+            (a, b) -> Integer.compare(b.getDepartureMinute(), a.getDepartureMinute());
+
+    private final ScheduleRepository scheduleRepository;
+    private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "route-search");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final MutableLiveData<SearchResult> searchResult = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> isSearching = new MutableLiveData<>(false);
+
+    // Main thread only: bumped by every search and cancel, compared before delivering
+    private int searchGeneration;
+    private Future<?> runningSearch;
+
+    public RouteFinderViewModel(Application application) {
+        super(application);
+        this.scheduleRepository = ScheduleRepository.getInstance(application);
+    }
+
+    /**
+     * Load the timetable, and the train stops the search graph is built with
+     */
+    public LiveData<Resource<List<UnifiedScheduleDTO>>> loadSchedules() {
+        scheduleRepository.getAllTrainSchedules();
+        return scheduleRepository.getAllSchedules();
+    }
+
+    public LiveData<SearchResult> getSearchResult() {
+        return searchResult;
+    }
+
+    public LiveData<Boolean> getIsSearching() {
+        return isSearching;
+    }
+
+    /**
+     * Search for journeys of up to MAX_LEGS legs, cancelling any search still running.
+     * The earliest journey, then journeys with fewer legs, are delivered while longer
+     * ones are still being searched.
+     * Waits for the first graph if none is built yet; if the timetable cannot be loaded
+     * the result is empty and not isTimetableLoaded(). Must be called on the main thread.
+     *
+     * @param weekday Calendar weekday of the travel date; services that are off that
+     *                day are skipped. ServiceCalendar.ANY_DAY searches every service.
+     * @param departAfter earliest departure, in minutes after midnight of the travel date
+     */
+    public void search(String from, String to, int weekday, int departAfter) {
+        run(from, to, ARRIVES_EARLIER, (engine, listener) ->
+                engine.findItineraries(from, to, MAX_LEGS, weekday, departAfter, listener));
+    }
+
+    /**
+     * As search, for journeys reaching the destination by a deadline on the travel date.
+     * They may leave on an earlier day.
+     *
+     * @param arriveBy latest arrival, in minutes after midnight of the travel date
+     */
+    public void searchArriving(String from, String to, int weekday, int arriveBy) {
+        run(from, to, LEAVES_LATER, (engine, listener) ->
+                engine.findArrivingItineraries(from, to, MAX_LEGS, weekday, arriveBy, listener));
+    }
+
+    // One way of asking an engine, so both kinds of search share the threading below
+    private interface Query {
+        List<Itinerary> find(RouteEngine engine, RouteEngine.RoundListener listener);
+    }
+
+    private void run(String from, String to, Comparator<Itinerary> sooner, Query query) {
+        cancelSearch();
+        int generation = searchGeneration;
+        isSearching.setValue(true);
+
+        runningSearch = searchExecutor.submit(() -> {
+            SearchResult result;
+            try {
+                RouteGraphCache.Snapshot snapshot = RouteGraphCache.getInstance().awaitCurrent();
+                if (snapshot == null) {
+                    // No timetable could be loaded, so there is nothing to search
+                    SearchResult none = new SearchResult(from, to, Collections.emptyList(), false, false, true, false);
+                    mainHandler.post(() -> deliver(generation, none));
+                    return;
+                }
+                RouteEngine engine = snapshot.getRouter();
+                boolean sourceFound = engine.hasDeparturesFrom(from);
+                boolean destinationFound = engine.servesCity(to);
+                List<Itinerary> earliest = query.find(snapshot.getEarliestArrivalEngine(), null);
+                if (!earliest.isEmpty()) {
+                    SearchResult first = new SearchResult(from, to, earliest, sourceFound, destinationFound, false, true);
+                    mainHandler.post(() -> deliver(generation, first));
+                }
+                // Journeys with fewer legs are final as soon as their round ends, so show them early
+                List<Itinerary> itineraries = query.find(engine, (legs, found) -> {
+                    List<Itinerary> shown = withEarliest(found, earliest, sooner);
+                    if (!shown.isEmpty()) {
+                        SearchResult partial = new SearchResult(from, to, shown, sourceFound, destinationFound, false, true);
+                        mainHandler.post(() -> deliver(generation, partial));
+                    }
+                });
+                result = new SearchResult(from, to, itineraries, sourceFound, destinationFound, true, true);
+                if (BuildConfig.DEBUG && !result.isSourceFound()) {
+                    Log.d(TAG, "No departures from '" + from + "'; cities with departures: "
+                            + engine.getDepartureCities());
+                }
+            } catch (CancellationException | InterruptedException e) {
+                // Superseded by a newer search or the ViewModel was cleared
+                return;
+            }
+            mainHandler.post(() -> deliver(generation, result));
+        });
+    }
+
+    // The journeys of the rounds so far, keeping the earliest journey on screen until one as early is among them
+    private static List<Itinerary> withEarliest(List<Itinerary> found, List<Itinerary> earliest,
+                                                Comparator<Itinerary> sooner) {
+        if (earliest.isEmpty()) {
+            return found;
+        }
+        Itinerary first = earliest.get(0);
+        for (Itinerary itinerary : found) {
+            if (sooner.compare(itinerary, first) <= 0) {
+                return found;
+            }
+        }
+        List<Itinerary> shown = new ArrayList<>(found);
+        shown.add(first);
+        Collections.sort(shown, Itinerary.BY_FARE);
+        return shown;
+    }
+
+    /**
+     * Stop the running search, if any; its result will not be delivered
+     */
+    public void cancelSearch() {
+        searchGeneration++;
+        if (runningSearch != null) {
+            runningSearch.cancel(true);
+            runningSearch = null;
+        }
+        isSearching.setValue(false);
+    }
+
+    private void deliver(int generation, SearchResult result) {
+        if (generation != searchGeneration) {
+            return;
+        }
+        if (result.isComplete()) {
+            runningSearch = null;
+            isSearching.setValue(false);
+        }
+        searchResult.setValue(result);
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        searchGeneration++;
+        searchExecutor.shutdownNow();
+    }
+
+    /**
+     * Journeys found for one query, with whether each end is in the timetable.
+     * A search delivers incomplete results as it goes, then one complete result.
+     */
+    public static class SearchResult {
+        private final String from;
+        private final String to;
+        private final List<Itinerary> itineraries;
+        private final boolean sourceFound;
+        private final boolean destinationFound;
+        private final boolean complete;
+        private final boolean timetableLoaded;
+
+        SearchResult(String from, String to, List<Itinerary> itineraries,
+                     boolean sourceFound, boolean destinationFound, boolean complete, boolean timetableLoaded) {
+            this.from = from;
+            this.to = to;
+            this.itineraries = itineraries;
+            this.sourceFound = sourceFound;
+            this.destinationFound = destinationFound;
+            this.complete = complete;
+            this.timetableLoaded = timetableLoaded;
+        }
+
+        public String getFrom() { return from; }
+        public String getTo() { return to; }
+        public List<Itinerary> getItineraries() { return itineraries; }
+        public boolean isSourceFound() { return sourceFound; }
+        public boolean isDestinationFound() { return destinationFound; }
+        public boolean isComplete() { return complete; }
+        public boolean isTimetableLoaded() { return timetableLoaded; }
+    }
+}
@@ -1,12 +1,18 @@
 package com.siyam.travelschedulemanager.viewmodel;
 
+import android.os.Handler;
+import android.os.Looper;
+
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModel;
 
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.siyam.travelschedulemanager.algorithm.RouteSearchIndex;
+import com.siyam.travelschedulemanager.data.firebase.LiveCollection;
 import com.siyam.travelschedulemanager.data.firebase.RouteManagementRepository;
 import com.siyam.travelschedulemanager.model.BusRoute;
 import com.siyam.travelschedulemanager.model.PendingRouteChange;
@@ -14,16 +20,30 @@ import com.siyam.travelschedulemanager.model.TrainRoute;
 import com.siyam.travelschedulemanager.model.UnifiedRoute;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class RouteManagementViewModel extends ViewModel {
+    private static final long AUTOCOMPLETE_DEBOUNCE_MS = 150;
+    private static final int AUTOCOMPLETE_CACHE_SIZE = 32;
+
     private final RouteManagementRepository repository;
     private final FirebaseAuth auth;
 
+    // Snapshot listeners on the route collections, feeding searchIndex with deltas
+    private final LiveCollection<BusRoute> busRouteStore;
+    private final LiveCollection<TrainRoute> trainRouteStore;
+    private final Observer<LiveCollection.ChangeSet<BusRoute>> busRoutesObserver = this::onBusRoutesChanged;
+    private final Observer<LiveCollection.ChangeSet<TrainRoute>> trainRoutesObserver = this::onTrainRoutesChanged;
+    private final Observer<String> listenerErrorObserver = this::onListenerError;
+    private boolean busRoutesLoaded;
+    private boolean trainRoutesLoaded;
+
     // LiveData for routes
-    private final MutableLiveData<List<UnifiedRoute>> allRoutes = new MutableLiveData<>();
     private final MutableLiveData<List<UnifiedRoute>> filteredRoutes = new MutableLiveData<>();
     private final MutableLiveData<List<BusRoute>> busRoutes = new MutableLiveData<>();
     private final MutableLiveData<List<TrainRoute>> trainRoutes = new MutableLiveData<>();
@@ -33,6 +53,18 @@ public class RouteManagementViewModel extends ViewModel {
 
     // LiveData for autocomplete
     private final MutableLiveData<List<String>> autocompleteSuggestions = new MutableLiveData<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Recent queries and their suggestions, least recently used first
+    private final Map<String, List<String>> recentSuggestions =
+            new LinkedHashMap<String, List<String>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+                    return size() > AUTOCOMPLETE_CACHE_SIZE;
+                }
+            };
+    // Bumped by every query; a lookup only publishes if it is still the latest
+    private int autocompleteSequence;
+    private Runnable pendingAutocomplete;
 
     // LiveData for selected route (for editing)
     private final MutableLiveData<BusRoute> selectedBusRoute = new MutableLiveData<>();
@@ -46,15 +78,29 @@ public class RouteManagementViewModel extends ViewModel {
     // Filter state
     private String currentFilter = "ALL"; // ALL, BUS, TRAIN
     private String currentSearchQuery = "";
+    private final ExecutorService filterExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "route-filter");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+    // Bumped on the main thread by every filter request; older results are dropped
+    private volatile int filterGeneration;
+    // Every loaded route, patched with each snapshot's changes; filter thread only
+    private final RouteSearchIndex searchIndex = new RouteSearchIndex();
 
     public RouteManagementViewModel() {
         repository = new RouteManagementRepository();
         auth = FirebaseAuth.getInstance();
+        busRouteStore = repository.listenAllBusRoutes();
+        trainRouteStore = repository.listenAllTrainRoutes();
+        busRouteStore.getChanges().observeForever(busRoutesObserver);
+        trainRouteStore.getChanges().observeForever(trainRoutesObserver);
+        busRouteStore.getError().observeForever(listenerErrorObserver);
+        trainRouteStore.getError().observeForever(listenerErrorObserver);
     }
 
     // ==================== GETTERS ====================
 
-    public LiveData<List<UnifiedRoute>> getAllRoutes() { return allRoutes; }
     public LiveData<List<UnifiedRoute>> getFilteredRoutes() { return filteredRoutes; }
     public LiveData<List<BusRoute>> getBusRoutes() { return busRoutes; }
     public LiveData<List<TrainRoute>> getTrainRoutes() { return trainRoutes; }
@@ -68,43 +114,80 @@ public class RouteManagementViewModel extends ViewModel {
 
     // ==================== LOAD ROUTES ====================
 
+    /**
+     * Subscribe to both route collections. The first snapshots fill the index;
+     * later ones apply only the documents that changed, so edits made here or
+     * on another device show up without re-reading the collections.
+     */
     public void loadAllRoutes() {
+        if (busRouteStore.isStarted() && trainRouteStore.isStarted()) {
+            return;
+        }
         isLoading.setValue(true);
-        List<UnifiedRoute> combinedRoutes = new ArrayList<>();
-
-        repository.getAllBusRoutes().addOnCompleteListener(busTask -> {
-            if (busTask.isSuccessful() && busTask.getResult() != null) {
-                List<BusRoute> buses = new ArrayList<>();
-                for (DocumentSnapshot doc : busTask.getResult()) {
-                    BusRoute bus = doc.toObject(BusRoute.class);
-                    if (bus != null) {
-                        bus.setId(doc.getId());
-                        buses.add(bus);
-                        combinedRoutes.add(UnifiedRoute.fromBusRoute(bus));
-                    }
-                }
-                busRoutes.setValue(buses);
-            }
+        busRouteStore.start();
+        trainRouteStore.start();
+    }
 
-            repository.getAllTrainRoutes().addOnCompleteListener(trainTask -> {
-                if (trainTask.isSuccessful() && trainTask.getResult() != null) {
-                    List<TrainRoute> trains = new ArrayList<>();
-                    for (DocumentSnapshot doc : trainTask.getResult()) {
-                        TrainRoute train = doc.toObject(TrainRoute.class);
-                        if (train != null) {
-                            train.setId(doc.getId());
-                            trains.add(train);
-                            combinedRoutes.add(UnifiedRoute.fromTrainRoute(train));
-                        }
-                    }
-                    trainRoutes.setValue(trains);
-                }
+    private void onBusRoutesChanged(LiveCollection.ChangeSet<BusRoute> changes) {
+        List<String> removed = new ArrayList<>();
+        for (BusRoute bus : changes.getRemoved()) {
+            removed.add(bus.getId());
+        }
+        // The first snapshot reports every document as added
+        List<UnifiedRoute> upserted = new ArrayList<>();
+        for (BusRoute bus : changes.getAdded()) {
+            upserted.add(UnifiedRoute.fromBusRoute(bus));
+        }
+        for (BusRoute bus : changes.getModified()) {
+            upserted.add(UnifiedRoute.fromBusRoute(bus));
+        }
+        busRoutes.setValue(changes.getItems());
+        busRoutesLoaded = true;
+        onRouteSnapshot("BUS", removed, upserted);
+    }
 
-                allRoutes.setValue(combinedRoutes);
-                applyFilters();
-                isLoading.setValue(false);
-            });
+    private void onTrainRoutesChanged(LiveCollection.ChangeSet<TrainRoute> changes) {
+        List<String> removed = new ArrayList<>();
+        for (TrainRoute train : changes.getRemoved()) {
+            removed.add(train.getId());
+        }
+        // The first snapshot reports every document as added
+        List<UnifiedRoute> upserted = new ArrayList<>();
+        for (TrainRoute train : changes.getAdded()) {
+            upserted.add(UnifiedRoute.fromTrainRoute(train));
+        }
+        for (TrainRoute train : changes.getModified()) {
+            upserted.add(UnifiedRoute.fromTrainRoute(train));
+        }
+        trainRoutes.setValue(changes.getItems());
+        trainRoutesLoaded = true;
+        onRouteSnapshot("TRAIN", removed, upserted);
+    }
+
+    private void onListenerError(String message) {
+        isLoading.setValue(false);
+        error.setValue("Failed to load routes: " + message);
+    }
+
+    /**
+     * Patch the search index with the routes of one type that changed, on the
+     * filter thread ahead of the filter they affect
+     */
+    private void onRouteSnapshot(String routeType, List<String> removed, List<UnifiedRoute> upserted) {
+        // Route edits can change the suggestions for any query
+        recentSuggestions.clear();
+        if (busRoutesLoaded && trainRoutesLoaded) {
+            isLoading.setValue(false);
+        }
+        filterExecutor.execute(() -> {
+            for (String id : removed) {
+                searchIndex.remove(routeType, id);
+            }
+            for (UnifiedRoute route : upserted) {
+                searchIndex.upsert(route);
+            }
         });
+        applyFilters();
     }
 
     public void loadBusRoute(String routeId) {
@@ -151,54 +234,68 @@ public class RouteManagementViewModel extends ViewModel {
         applyFilters();
     }
 
+    /**
+     * Filter the route list on the filter thread and publish the result,
+     * unless a newer filter has been requested in the meantime
+     */
     private void applyFilters() {
-        List<UnifiedRoute> routes = allRoutes.getValue();
-        if (routes == null) {
+        int generation = ++filterGeneration;
+        if (!busRoutesLoaded && !trainRoutesLoaded) {
             filteredRoutes.setValue(new ArrayList<>());
             return;
         }
+        String filter = currentFilter;
+        String query = currentSearchQuery;
 
-        List<UnifiedRoute> result = routes.stream()
-                .filter(route -> {
-                    // Apply type filter
-                    if ("BUS".equals(currentFilter) && !route.isBus()) return false;
-                    if ("TRAIN".equals(currentFilter) && !route.isTrain()) return false;
-                    return true;
-                })
-                .filter(route -> {
-                    // Apply search query
-                    if (currentSearchQuery == null || currentSearchQuery.isEmpty()) return true;
-                    String query = currentSearchQuery.toLowerCase(Locale.ROOT);
-                    return matchesSearch(route, query);
-                })
-                .collect(Collectors.toList());
-
-        filteredRoutes.setValue(result);
-    }
-
-    private boolean matchesSearch(UnifiedRoute route, String query) {
-        if (route.getDisplayName() != null && route.getDisplayName().toLowerCase().contains(query)) return true;
-        if (route.getRouteNumber() != null && route.getRouteNumber().toLowerCase().contains(query)) return true;
-        if (route.getOrigin() != null && route.getOrigin().toLowerCase().contains(query)) return true;
-        if (route.getDestination() != null && route.getDestination().toLowerCase().contains(query)) return true;
-        return false;
+        filterExecutor.execute(() -> {
+            if (generation != filterGeneration) {
+                return;
+            }
+            List<UnifiedRoute> result = searchIndex.search(query, filter);
+            mainHandler.post(() -> {
+                if (generation == filterGeneration) {
+                    filteredRoutes.setValue(result);
+                }
+            });
+        });
     }
 
     // ==================== AUTOCOMPLETE ====================
 
+    /**
+     * Look up suggestions once typing pauses. A newer query cancels a pending
+     * one and makes the answer to any earlier lookup stale, so suggestions are
+     * never replaced by an older result. Recent queries are answered from a
+     * small cache. Call on the main thread, once per text change.
+     */
     public void loadAutocompleteSuggestions(String query) {
-        if (query == null || query.length() < 2) {
+        int sequence = ++autocompleteSequence;
+        mainHandler.removeCallbacks(pendingAutocomplete);
+        String key = query != null ? query.trim().toLowerCase(Locale.ROOT) : "";
+        if (key.length() < 2) {
             autocompleteSuggestions.setValue(new ArrayList<>());
             return;
         }
 
-        repository.getAutocompleteSuggestions(query).addOnCompleteListener(task -> {
-            if (task.isSuccessful()) {
+        List<String> cached = recentSuggestions.get(key);
+        if (cached != null) {
+            autocompleteSuggestions.setValue(cached);
+            return;
+        }
+
+        pendingAutocomplete = () -> repository.getAutocompleteSuggestions(key).addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                if (sequence == autocompleteSequence) {
+                    autocompleteSuggestions.setValue(new ArrayList<>());
+                }
+                return;
+            }
+            recentSuggestions.put(key, task.getResult());
+            if (sequence == autocompleteSequence) {
                 autocompleteSuggestions.setValue(task.getResult());
-            } else {
-                autocompleteSuggestions.setValue(new ArrayList<>());
             }
         });
+        mainHandler.postDelayed(pendingAutocomplete, AUTOCOMPLETE_DEBOUNCE_MS);
     }
 
     // ==================== CREATE/EDIT ROUTES (MASTER DIRECT) ====================
@@ -212,7 +309,6 @@ public class RouteManagementViewModel extends ViewModel {
             isLoading.setValue(false);
             if (task.isSuccessful()) {
                 successMessage.setValue("Bus route created successfully");
-                loadAllRoutes();
             } else {
                 error.setValue("Failed to create bus route: " + getErrorMessage(task.getException()));
             }
@@ -228,7 +324,6 @@ public class RouteManagementViewModel extends ViewModel {
             isLoading.setValue(false);
             if (task.isSuccessful()) {
                 successMessage.setValue("Train route created successfully");
-                loadAllRoutes();
             } else {
                 error.setValue("Failed to create train route: " + getErrorMessage(task.getException()));
             }
@@ -241,7 +336,6 @@ public class RouteManagementViewModel extends ViewModel {
             isLoading.setValue(false);
             if (task.isSuccessful()) {
                 successMessage.setValue("Bus route updated successfully");
-                loadAllRoutes();
             } else {
                 error.setValue("Failed to update bus route: " + getErrorMessage(task.getException()));
             }
@@ -254,7 +348,6 @@ public class RouteManagementViewModel extends ViewModel {
             isLoading.setValue(false);
             if (task.isSuccessful()) {
                 successMessage.setValue("Train route updated successfully");
-                loadAllRoutes();
             } else {
                 error.setValue("Failed to update train route: " + getErrorMessage(task.getException()));
             }
@@ -267,7 +360,6 @@ public class RouteManagementViewModel extends ViewModel {
             isLoading.setValue(false);
             if (task.isSuccessful()) {
                 successMessage.setValue("Bus route deleted successfully");
-                loadAllRoutes();
             } else {
                 error.setValue("Failed to delete bus route: " + getErrorMessage(task.getException()));
             }
@@ -280,7 +372,6 @@ public class RouteManagementViewModel extends ViewModel {
             isLoading.setValue(false);
             if (task.isSuccessful()) {
                 successMessage.setValue("Train route deleted successfully");
-                loadAllRoutes();
             } else {
                 error.setValue("Failed to delete train route: " + getErrorMessage(task.getException()));
             }
@@ -396,7 +487,6 @@ public class RouteManagementViewModel extends ViewModel {
                     if (updateTask.isSuccessful()) {
                         successMessage.setValue("Route change approved and applied");
                         loadPendingChanges();
-                        loadAllRoutes();
                     } else {
                         error.setValue("Failed to update approval status");
                     }
@@ -455,6 +545,20 @@ public class RouteManagementViewModel extends ViewModel {
         successMessage.setValue(null);
     }
 
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        mainHandler.removeCallbacks(pendingAutocomplete);
+        filterGeneration++;
+        filterExecutor.shutdownNow();
+        busRouteStore.getChanges().removeObserver(busRoutesObserver);
+        trainRouteStore.getChanges().removeObserver(trainRoutesObserver);
+        busRouteStore.getError().removeObserver(listenerErrorObserver);
+        trainRouteStore.getError().removeObserver(listenerErrorObserver);
+        busRouteStore.stop();
+        trainRouteStore.stop();
+    }
+
     public void setSelectedBusRoute(BusRoute route) {
         selectedBusRoute.setValue(route);
     }
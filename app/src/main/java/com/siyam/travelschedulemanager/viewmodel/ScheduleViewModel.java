@@ -146,15 +146,9 @@ public class ScheduleViewModel extends AndroidViewModel {
 
     /**
      * Search for routes between origin and destination
-     * Requires online connection
+     * Online: server search; offline: cached schedules
      */
     public void searchRoutes(String start, String destination) {
-        Boolean online = networkManager.isOnline();
-        if (online == null || !online) {
-            searchResults.setValue(Resource.error("Route search requires internet connection", null));
-            return;
-        }
-
         LiveData<Resource<List<UnifiedScheduleDTO>>> source = scheduleRepository.searchRoutes(start, destination);
         searchResults.addSource(source, resource -> {
             searchResults.setValue(resource);
@@ -0,0 +1,133 @@
+package com.siyam.travelschedulemanager.algorithm;
+
+import com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO;
+import com.siyam.travelschedulemanager.util.ServiceCalendar;
+import com.siyam.travelschedulemanager.util.TimeCodec;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+
+import static com.siyam.travelschedulemanager.algorithm.ParetoRouterTest.bus;
+import static com.siyam.travelschedulemanager.algorithm.ParetoRouterTest.firstLeg;
+import static com.siyam.travelschedulemanager.algorithm.ParetoRouterTest.minute;
+import static com.siyam.travelschedulemanager.algorithm.ParetoRouterTest.schedule;
+import static org.junit.Assert.*;
+
+public class ConnectionScanEngineTest {
+    private static final int DAY = TimeCodec.MINUTES_PER_DAY;
+
+    private static List<Itinerary> departAfter(RouteEngine engine, String from, String to, int maxLegs, int after) {
+        return engine.findItineraries(from, to, maxLegs, ServiceCalendar.ANY_DAY, after, null);
+    }
+
+    @Test
+    public void earliestArrival_matchesParetoRouter() {
+        List<UnifiedScheduleDTO> schedules = Arrays.asList(
+                bus("Direct", "Dhaka", "Feni", "08:00", "13:00", 500),
+                bus("First", "Dhaka", "Cumilla", "08:00", "10:00", 300),
+                bus("Tight", "Cumilla", "Feni", "10:05", "11:00", 100),
+                bus("Later", "Cumilla", "Feni", "10:30", "11:30", 100));
+
+        List<Itinerary> found = departAfter(new ConnectionScanEngine(schedules), "Dhaka", "Feni", 3, 0);
+        assertEquals(1, found.size());
+        Itinerary earliest = found.get(0);
+        assertEquals(minute("11:30"), earliest.getArrivalMinute());
+        assertEquals("First", firstLeg(earliest));
+        assertEquals("Later", earliest.getLegs().get(1).getName());
+        assertEquals(400, earliest.getFare(), 0.001);
+
+        Itinerary pareto = Collections.min(departAfter(new ParetoRouter(schedules), "Dhaka", "Feni", 3, 0),
+                (a, b) -> Integer.compare(a.getArrivalMinute(), b.getArrivalMinute()));
+        assertEquals(pareto, earliest);
+    }
+
+    @Test
+    public void transferWindow_laterArrivalCanMakeConnectionEarlierOneMisses() {
+        // Fast gets to Cumilla first, but would wait more than 12 hours for the evening bus
+        ConnectionScanEngine engine = new ConnectionScanEngine(Arrays.asList(
+                bus("Fast", "Dhaka", "Cumilla", "08:00", "09:00", 100),
+                bus("Slow", "Dhaka", "Cumilla", "08:00", "10:00", 100),
+                bus("Evening", "Cumilla", "Feni", "21:30", "22:30", 100)));
+
+        List<Itinerary> found = departAfter(engine, "Dhaka", "Feni", 3, 0);
+        assertEquals(1, found.size());
+        assertEquals("Slow", firstLeg(found.get(0)));
+    }
+
+    @Test
+    public void overnightLeg_connectsToNextMorning() {
+        ConnectionScanEngine engine = new ConnectionScanEngine(Arrays.asList(
+                bus("Night", "Dhaka", "Rangpur", "22:00", "04:00", 900),
+                bus("Morning", "Rangpur", "Dinajpur", "06:00", "08:00", 200)));
+
+        Itinerary itinerary = departAfter(engine, "Dhaka", "Rangpur", 3, minute("21:00")).get(0);
+        assertEquals(DAY + minute("04:00"), itinerary.getArrivalMinute());
+
+        itinerary = departAfter(engine, "Dhaka", "Dinajpur", 3, minute("21:00")).get(0);
+        assertEquals(minute("22:00"), itinerary.getDepartureMinute());
+        assertEquals(DAY + minute("08:00"), itinerary.getArrivalMinute());
+        assertEquals(1, itinerary.getLegDayOffset(1));
+    }
+
+    @Test
+    public void weekday_skipsTripsOnTheirOffDay() {
+        ConnectionScanEngine engine = new ConnectionScanEngine(Collections.singletonList(
+                schedule("bus", "Weekday", "Dhaka", "Rajshahi", "09:00", "15:00", 700, "Friday")));
+
+        // Friday's run is skipped, so the first one leaves on Saturday
+        Itinerary itinerary = engine.findItineraries("Dhaka", "Rajshahi", 3, Calendar.FRIDAY, 0, null).get(0);
+        assertEquals(DAY + minute("09:00"), itinerary.getDepartureMinute());
+        assertEquals(minute("09:00"), engine.findItineraries("Dhaka", "Rajshahi", 3, Calendar.SATURDAY, 0, null)
+                .get(0).getDepartureMinute());
+    }
+
+    @Test
+    public void maxLegs_limitsTransfers() {
+        ConnectionScanEngine engine = new ConnectionScanEngine(Arrays.asList(
+                bus("One", "Dhaka", "Cumilla", "08:00", "10:00", 100),
+                bus("Two", "Cumilla", "Feni", "10:30", "11:30", 100),
+                bus("Three", "Feni", "Chittagong", "12:00", "14:00", 100)));
+
+        assertTrue(departAfter(engine, "Dhaka", "Chittagong", 2, 0).isEmpty());
+        assertEquals(3, departAfter(engine, "Dhaka", "Chittagong", 3, 0).get(0).getLegCount());
+    }
+
+    @Test
+    public void arriveBy_leavesAsLateAsPossible() {
+        ConnectionScanEngine engine = new ConnectionScanEngine(Arrays.asList(
+                bus("Early", "Dhaka", "Khulna", "06:00", "12:00", 500),
+                bus("Middle", "Dhaka", "Khulna", "08:00", "14:00", 500),
+                bus("Late", "Dhaka", "Khulna", "10:00", "16:00", 500),
+                bus("First", "Dhaka", "Jessore", "09:00", "13:00", 300),
+                bus("Second", "Jessore", "Khulna", "13:20", "14:50", 100)));
+
+        List<Itinerary> found = engine.findArrivingItineraries("Dhaka", "Khulna", 3,
+                ServiceCalendar.ANY_DAY, minute("15:00"), null);
+        assertEquals(1, found.size());
+        Itinerary latest = found.get(0);
+        assertEquals(minute("09:00"), latest.getDepartureMinute());
+        assertEquals(minute("14:50"), latest.getArrivalMinute());
+        assertEquals("First", firstLeg(latest));
+        assertEquals("Second", latest.getLegs().get(1).getName());
+
+        // With one leg only the direct buses count
+        latest = engine.findArrivingItineraries("Dhaka", "Khulna", 1,
+                ServiceCalendar.ANY_DAY, minute("15:00"), null).get(0);
+        assertEquals("Middle", firstLeg(latest));
+    }
+
+    @Test
+    public void arriveBy_leavesOnAnEarlierDay() {
+        ConnectionScanEngine engine = new ConnectionScanEngine(Collections.singletonList(
+                bus("Night", "Dhaka", "Rangpur", "22:00", "04:00", 900)));
+
+        Itinerary itinerary = engine.findArrivingItineraries("Dhaka", "Rangpur", 3,
+                ServiceCalendar.ANY_DAY, minute("06:00"), null).get(0);
+        assertEquals(minute("22:00") - DAY, itinerary.getDepartureMinute());
+        assertEquals(minute("04:00"), itinerary.getArrivalMinute());
+    }
+}
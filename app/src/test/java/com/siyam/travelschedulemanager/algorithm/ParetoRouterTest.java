@@ -0,0 +1,320 @@
+package com.siyam.travelschedulemanager.algorithm;
+
+import com.siyam.travelschedulemanager.data.remote.dto.TrainScheduleDTO;
+import com.siyam.travelschedulemanager.data.remote.dto.TrainScheduleDTO.TrainStop;
+import com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO;
+import com.siyam.travelschedulemanager.util.ServiceCalendar;
+import com.siyam.travelschedulemanager.util.TimeCodec;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ParetoRouterTest {
+    private static final int DAY = TimeCodec.MINUTES_PER_DAY;
+
+    static UnifiedScheduleDTO schedule(String type, String name, String from, String to,
+                                       String start, String arrival, double fare, String offDay) {
+        UnifiedScheduleDTO schedule = new UnifiedScheduleDTO();
+        schedule.setType(type);
+        schedule.setName(name);
+        schedule.setStart(from);
+        schedule.setDestination(to);
+        schedule.setStartTime(start);
+        schedule.setArrivalTime(arrival);
+        schedule.setFare(fare);
+        schedule.setOffDay(offDay);
+        return schedule;
+    }
+
+    static UnifiedScheduleDTO bus(String name, String from, String to, String start, String arrival, double fare) {
+        return schedule("bus", name, from, to, start, arrival, fare, "None");
+    }
+
+    static int minute(String time) {
+        return TimeCodec.parseTime(time);
+    }
+
+    static String firstLeg(Itinerary itinerary) {
+        return itinerary.getLegs().get(0).getName();
+    }
+
+    @Test
+    public void direct_matchesCityNamesLoosely() {
+        ParetoRouter router = new ParetoRouter(Collections.singletonList(
+                bus("Green Line", "Dhaka", "Sylhet", "08:00", "14:00", 800)));
+
+        List<Itinerary> itineraries = router.findItineraries(" dhaka ", "SYLHET", 3);
+        assertEquals(1, itineraries.size());
+        assertEquals(minute("08:00"), itineraries.get(0).getDepartureMinute());
+        assertTrue(router.findItineraries("Sylhet", "Dhaka", 3).isEmpty());
+        assertTrue(router.findItineraries("Dhaka", "Khulna", 3).isEmpty());
+    }
+
+    @Test
+    public void transfer_needsMinimumConnectionTime() {
+        ParetoRouter router = new ParetoRouter(Arrays.asList(
+                bus("First", "Dhaka", "Cumilla", "08:00", "10:00", 300),
+                bus("Tight", "Cumilla", "Feni", "10:05", "11:00", 100),
+                bus("Later", "Cumilla", "Feni", "10:30", "11:30", 100)));
+
+        List<Itinerary> itineraries = router.findItineraries("Dhaka", "Feni", 3);
+        assertEquals(1, itineraries.size());
+        assertEquals("Later", itineraries.get(0).getLegs().get(1).getName());
+    }
+
+    @Test
+    public void paretoSet_keepsCheapestAndEarliest() {
+        ParetoRouter router = new ParetoRouter(Arrays.asList(
+                bus("Express", "Dhaka", "Khulna", "08:00", "13:00", 1200),
+                bus("Ordinary", "Dhaka", "Khulna", "08:00", "16:00", 600),
+                bus("Worse", "Dhaka", "Khulna", "08:00", "17:00", 700)));
+
+        List<Itinerary> itineraries = router.findItineraries("Dhaka", "Khulna", 3);
+        assertEquals(2, itineraries.size());
+        // Cheapest first
+        assertEquals("Ordinary", firstLeg(itineraries.get(0)));
+        assertEquals("Express", firstLeg(itineraries.get(1)));
+    }
+
+    @Test
+    public void paretoSet_sameFareKeepsEarliestArrival() {
+        // The evening bus is quicker on the road but gets in nine hours later
+        ParetoRouter router = new ParetoRouter(Arrays.asList(
+                bus("Morning", "Dhaka", "Khulna", "08:00", "14:00", 500),
+                bus("Evening", "Dhaka", "Khulna", "20:00", "23:00", 500)));
+
+        List<Itinerary> itineraries = router.findItineraries("Dhaka", "Khulna", 3,
+                ServiceCalendar.ANY_DAY, 0, null);
+        assertEquals(1, itineraries.size());
+        assertEquals("Morning", firstLeg(itineraries.get(0)));
+
+        // Once the morning bus has gone, the evening one is the answer
+        List<Itinerary> later = router.findItineraries("Dhaka", "Khulna", 3,
+                ServiceCalendar.ANY_DAY, minute("09:00"), null);
+        assertEquals(1, later.size());
+        assertEquals("Evening", firstLeg(later.get(0)));
+    }
+
+    @Test
+    public void itinerary_equalsSameJourneyOnRebuiltGraph() {
+        List<UnifiedScheduleDTO> schedules = Arrays.asList(
+                bus("First", "Dhaka", "Cumilla", "08:00", "10:00", 300),
+                bus("Second", "Cumilla", "Feni", "10:30", "11:30", 100));
+
+        Itinerary found = new ParetoRouter(schedules).findItineraries("Dhaka", "Feni", 3).get(0);
+        Itinerary again = new ParetoRouter(schedules).findItineraries("Dhaka", "Feni", 3).get(0);
+        assertEquals(found, again);
+        assertEquals(found.hashCode(), again.hashCode());
+
+        // A connection leaving later is another journey
+        Itinerary later = new ParetoRouter(Arrays.asList(schedules.get(0),
+                bus("Second", "Cumilla", "Feni", "10:45", "11:45", 100)))
+                .findItineraries("Dhaka", "Feni", 3).get(0);
+        assertFalse(found.equals(later));
+    }
+
+    @Test
+    public void transfer_laterArrivalCanMakeConnectionEarlierOneMisses() {
+        // Fast gets to Cumilla first, but would wait more than 12 hours for the evening bus
+        ParetoRouter router = new ParetoRouter(Arrays.asList(
+                bus("Fast", "Dhaka", "Cumilla", "08:00", "09:00", 100),
+                bus("Slow", "Dhaka", "Cumilla", "08:00", "10:00", 100),
+                bus("Evening", "Cumilla", "Feni", "21:45", "23:00", 100)));
+
+        List<Itinerary> itineraries = router.findItineraries("Dhaka", "Feni", 3,
+                ServiceCalendar.ANY_DAY, 0, null);
+        assertEquals(1, itineraries.size());
+        assertEquals("Slow", firstLeg(itineraries.get(0)));
+        assertEquals(minute("23:00"), itineraries.get(0).getArrivalMinute());
+    }
+
+    @Test
+    public void transfer_earlierDepartureCanMakeConnectionLaterOneMisses() {
+        // Leaving Cumilla at 22:00 is more than 12 hours after the morning bus gets in; 21:00 is not
+        ParetoRouter router = new ParetoRouter(Arrays.asList(
+                bus("Morning", "Dhaka", "Cumilla", "08:00", "09:00", 100),
+                bus("Early", "Cumilla", "Feni", "21:00", "23:00", 100),
+                bus("Late", "Cumilla", "Feni", "22:00", "23:00", 100)));
+
+        List<Itinerary> itineraries = router.findArrivingItineraries("Dhaka", "Feni", 3,
+                ServiceCalendar.ANY_DAY, minute("23:30"), null);
+        assertEquals(1, itineraries.size());
+        assertEquals("Early", itineraries.get(0).getLegs().get(1).getName());
+    }
+
+    @Test
+    public void weekday_skipsTripsOnTheirOffDay() {
+        ParetoRouter router = new ParetoRouter(Collections.singletonList(
+                schedule("bus", "Weekday", "Dhaka", "Rajshahi", "09:00", "15:00", 700, "Friday")));
+
+        assertTrue(router.findItineraries("Dhaka", "Rajshahi", 3, Calendar.FRIDAY, 0, null).isEmpty());
+        assertEquals(1, router.findItineraries("Dhaka", "Rajshahi", 3, Calendar.SATURDAY, 0, null).size());
+        assertEquals(1, router.findItineraries("Dhaka", "Rajshahi", 3, ServiceCalendar.ANY_DAY, 0, null).size());
+    }
+
+    @Test
+    public void trainStops_allowBoardingAndLeavingMidRun() {
+        UnifiedScheduleDTO run = schedule("train", "Parabat", "Dhaka", "Sylhet", "06:20", "13:00", 400, "Tuesday");
+        TrainScheduleDTO train = new TrainScheduleDTO();
+        train.setTrainName("Parabat");
+        train.setStart("Dhaka");
+        train.setDestination("Sylhet");
+        train.setStartTime("06:20");
+        train.setArrivalTime("13:00");
+        train.setStops(Arrays.asList(
+                new TrainStop("Dhaka", null, "06:20", 0),
+                new TrainStop("Bhairab", "08:10", "08:15", 120),
+                new TrainStop("Sylhet", "13:00", null, 400)));
+        ParetoRouter router = new ParetoRouter(Collections.singletonList(run), Collections.singletonList(train));
+
+        List<Itinerary> toMidway = router.findItineraries("Dhaka", "Bhairab", 2);
+        assertEquals(1, toMidway.size());
+        assertEquals(minute("08:10"), toMidway.get(0).getArrivalMinute());
+        assertEquals(120, toMidway.get(0).getFare(), 0.001);
+
+        List<Itinerary> fromMidway = router.findItineraries("Bhairab", "Sylhet", 2);
+        assertEquals(1, fromMidway.size());
+        assertEquals(minute("08:15"), fromMidway.get(0).getDepartureMinute());
+        assertEquals(280, fromMidway.get(0).getFare(), 0.001);
+        assertEquals("Bhairab", fromMidway.get(0).getLegs().get(0).getStart());
+    }
+
+    @Test
+    public void trainStops_stayingOnBoardIsOneLeg() {
+        UnifiedScheduleDTO run = schedule("train", "Parabat", "Dhaka", "Sylhet", "06:20", "13:00", 400, "None");
+        TrainScheduleDTO train = new TrainScheduleDTO();
+        train.setTrainName("Parabat");
+        train.setStart("Dhaka");
+        train.setDestination("Sylhet");
+        train.setStartTime("06:20");
+        train.setStops(Arrays.asList(
+                new TrainStop("Bhairab", "08:10", "08:15", 120),
+                new TrainStop("Srimangal", "11:00", "11:05", 300)));
+        ParetoRouter router = new ParetoRouter(Collections.singletonList(run), Collections.singletonList(train));
+
+        List<Itinerary> itineraries = router.findItineraries("Dhaka", "Sylhet", 1);
+        assertEquals(1, itineraries.size());
+        assertEquals(1, itineraries.get(0).getLegCount());
+        assertEquals(400, itineraries.get(0).getFare(), 0.001);
+    }
+
+    @Test
+    public void overnightLeg_connectsToNextMorning() {
+        ParetoRouter router = new ParetoRouter(Arrays.asList(
+                bus("Night Coach", "Dhaka", "Sylhet", "22:00", "04:00", 900),
+                bus("Local", "Sylhet", "Sunamganj", "07:00", "09:00", 150)));
+
+        List<Itinerary> itineraries = router.findItineraries("Dhaka", "Sunamganj", 3,
+                ServiceCalendar.ANY_DAY, 0, null);
+        assertEquals(1, itineraries.size());
+        Itinerary itinerary = itineraries.get(0);
+        assertEquals(2, itinerary.getLegCount());
+        assertEquals(minute("22:00"), itinerary.getLegDepartureMinute(0));
+        assertEquals(DAY + minute("04:00"), itinerary.getLegArrivalMinute(0));
+        assertEquals(0, itinerary.getLegDayOffset(0));
+        assertEquals(1, itinerary.getLegArrivalDayOffset(0));
+        assertEquals(DAY + minute("07:00"), itinerary.getLegDepartureMinute(1));
+        assertEquals(1, itinerary.getLegDayOffset(1));
+        assertEquals(11 * 60, itinerary.getTravelMinutes());
+        assertEquals(1050, itinerary.getFare(), 0.001);
+    }
+
+    @Test
+    public void overnightConnection_honoursOffDayOfTheDayItRuns() {
+        // The night coach reaches Sylhet on Friday morning, when the local bus is off
+        ParetoRouter router = new ParetoRouter(Arrays.asList(
+                bus("Night Coach", "Dhaka", "Sylhet", "22:00", "04:00", 900),
+                schedule("bus", "Local", "Sylhet", "Sunamganj", "07:00", "09:00", 150, "Friday")));
+
+        assertTrue(router.findItineraries("Dhaka", "Sunamganj", 3, Calendar.THURSDAY, 0, null).isEmpty());
+        assertEquals(1, router.findItineraries("Dhaka", "Sunamganj", 3, Calendar.FRIDAY, 0, null).size());
+    }
+
+    @Test
+    public void transfer_waitsPastMidnight() {
+        ParetoRouter router = new ParetoRouter(Arrays.asList(
+                bus("Morning", "Dhaka", "Barishal", "07:00", "13:00", 500),
+                bus("Night Link", "Barishal", "Bhola", "00:30", "02:30", 200)));
+
+        // Arriving at 13:00, the link leaves 11 and a half hours later, after midnight
+        List<Itinerary> itineraries = router.findItineraries("Dhaka", "Bhola", 3,
+                ServiceCalendar.ANY_DAY, 0, null);
+        assertEquals(1, itineraries.size());
+        assertEquals(1, itineraries.get(0).getLegDayOffset(1));
+        assertEquals(DAY + minute("02:30"), itineraries.get(0).getArrivalMinute());
+
+        // Nothing leaves Dhaka after noon on the travel date
+        assertTrue(router.findItineraries("Dhaka", "Bhola", 3, ServiceCalendar.ANY_DAY, minute("12:00"), null)
+                .isEmpty());
+    }
+
+    @Test
+    public void arriveBy_dropsJourneysArrivingLate() {
+        ParetoRouter router = new ParetoRouter(Arrays.asList(
+                bus("Morning", "Dhaka", "Chattogram", "08:00", "14:00", 900),
+                bus("Noon", "Dhaka", "Chattogram", "12:00", "18:00", 900)));
+
+        List<Itinerary> byFour = router.findArrivingItineraries("Dhaka", "Chattogram", 3,
+                ServiceCalendar.ANY_DAY, minute("16:00"), null);
+        assertEquals(1, byFour.size());
+        assertEquals("Morning", firstLeg(byFour.get(0)));
+    }
+
+    @Test
+    public void arriveBy_sameFareKeepsLatestDeparture() {
+        // The noon bus takes longer but lets the traveller leave four hours later
+        ParetoRouter router = new ParetoRouter(Arrays.asList(
+                bus("Morning", "Dhaka", "Chattogram", "08:00", "13:00", 900),
+                bus("Noon", "Dhaka", "Chattogram", "12:00", "18:00", 900)));
+
+        List<Itinerary> itineraries = router.findArrivingItineraries("Dhaka", "Chattogram", 3,
+                ServiceCalendar.ANY_DAY, minute("20:00"), null);
+        assertEquals(1, itineraries.size());
+        assertEquals("Noon", firstLeg(itineraries.get(0)));
+    }
+
+    @Test
+    public void arriveBy_leavesOnAnEarlierDay() {
+        ParetoRouter router = new ParetoRouter(Arrays.asList(
+                bus("Night Coach", "Dhaka", "Sylhet", "22:00", "04:00", 900),
+                bus("Local", "Sylhet", "Sunamganj", "07:00", "09:00", 150)));
+
+        List<Itinerary> itineraries = router.findArrivingItineraries("Dhaka", "Sunamganj", 3,
+                ServiceCalendar.ANY_DAY, minute("10:00"), null);
+        assertEquals(1, itineraries.size());
+        Itinerary itinerary = itineraries.get(0);
+        assertEquals(-1, itinerary.getLegDayOffset(0));
+        assertEquals(minute("22:00") - DAY, itinerary.getDepartureMinute());
+        assertEquals(minute("09:00"), itinerary.getArrivalMinute());
+    }
+
+    @Test
+    public void arriveBy_honoursOffDayOfEarlierLeg() {
+        // Arriving on Saturday means taking the night coach on Friday, its off day
+        ParetoRouter router = new ParetoRouter(Arrays.asList(
+                schedule("bus", "Night Coach", "Dhaka", "Sylhet", "22:00", "04:00", 900, "Friday"),
+                bus("Local", "Sylhet", "Sunamganj", "07:00", "09:00", 150)));
+
+        assertTrue(router.findArrivingItineraries("Dhaka", "Sunamganj", 3,
+                Calendar.SATURDAY, minute("10:00"), null).isEmpty());
+        assertEquals(1, router.findArrivingItineraries("Dhaka", "Sunamganj", 3,
+                Calendar.SUNDAY, minute("10:00"), null).size());
+    }
+
+    @Test
+    public void maxLegs_limitsTransfers() {
+        ParetoRouter router = new ParetoRouter(Arrays.asList(
+                bus("A", "Dhaka", "Cumilla", "08:00", "10:00", 300),
+                bus("B", "Cumilla", "Feni", "11:00", "12:00", 100),
+                bus("C", "Feni", "Chattogram", "13:00", "15:00", 200)));
+
+        assertTrue(router.findItineraries("Dhaka", "Chattogram", 2).isEmpty());
+        assertEquals(1, router.findItineraries("Dhaka", "Chattogram", 3).size());
+    }
+}
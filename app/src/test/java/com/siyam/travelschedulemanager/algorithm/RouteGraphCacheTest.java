@@ -0,0 +1,80 @@
+package com.siyam.travelschedulemanager.algorithm;
+
+import com.siyam.travelschedulemanager.data.remote.dto.TrainScheduleDTO;
+import com.siyam.travelschedulemanager.data.remote.dto.TrainScheduleDTO.TrainStop;
+import com.siyam.travelschedulemanager.data.remote.dto.UnifiedScheduleDTO;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RouteGraphCacheTest {
+    private static final List<TrainScheduleDTO> NO_TRAINS = Collections.emptyList();
+
+    private static UnifiedScheduleDTO bus(String from, String to, double fare) {
+        UnifiedScheduleDTO schedule = new UnifiedScheduleDTO();
+        schedule.setType("bus");
+        schedule.setName("Green Line");
+        schedule.setStart(from);
+        schedule.setDestination(to);
+        schedule.setStartTime("08:00");
+        schedule.setArrivalTime("14:00");
+        schedule.setFare(fare);
+        schedule.setOffDay("None");
+        return schedule;
+    }
+
+    @Test
+    public void contentKey_sameContentSameKey() {
+        List<UnifiedScheduleDTO> first = Arrays.asList(bus("Dhaka", "Sylhet", 800), bus("Sylhet", "Dhaka", 800));
+        List<UnifiedScheduleDTO> second = Arrays.asList(bus("Dhaka", "Sylhet", 800), bus("Sylhet", "Dhaka", 800));
+        assertEquals(RouteGraphCache.contentKey(first, NO_TRAINS), RouteGraphCache.contentKey(second, NO_TRAINS));
+    }
+
+    @Test
+    public void contentKey_seesSwappedFields() {
+        // Fares traded between two schedules leave every per-field sum unchanged
+        long before = RouteGraphCache.contentKey(
+                Arrays.asList(bus("Dhaka", "Sylhet", 800), bus("Dhaka", "Khulna", 600)), NO_TRAINS);
+        long after = RouteGraphCache.contentKey(
+                Arrays.asList(bus("Dhaka", "Sylhet", 600), bus("Dhaka", "Khulna", 800)), NO_TRAINS);
+        assertNotEquals(before, after);
+
+        // Origin and destination swapped within one schedule
+        assertNotEquals(RouteGraphCache.contentKey(Collections.singletonList(bus("Dhaka", "Sylhet", 800)), NO_TRAINS),
+                RouteGraphCache.contentKey(Collections.singletonList(bus("Sylhet", "Dhaka", 800)), NO_TRAINS));
+    }
+
+    @Test
+    public void contentKey_seesReorderedSchedules() {
+        UnifiedScheduleDTO a = bus("Dhaka", "Sylhet", 800);
+        UnifiedScheduleDTO b = bus("Dhaka", "Khulna", 600);
+        assertNotEquals(RouteGraphCache.contentKey(Arrays.asList(a, b), NO_TRAINS),
+                RouteGraphCache.contentKey(Arrays.asList(b, a), NO_TRAINS));
+    }
+
+    @Test
+    public void contentKey_seesTextMovedBetweenFields() {
+        assertNotEquals(RouteGraphCache.contentKey(Collections.singletonList(bus("Dhaka", "Sylhet", 800)), NO_TRAINS),
+                RouteGraphCache.contentKey(Collections.singletonList(bus("DhakaS", "ylhet", 800)), NO_TRAINS));
+    }
+
+    @Test
+    public void contentKey_seesTrainStops() {
+        TrainScheduleDTO train = new TrainScheduleDTO();
+        train.setTrainName("Parabat");
+        train.setStops(new ArrayList<>(Arrays.asList(
+                new TrainStop("Dhaka", null, "06:20", 0),
+                new TrainStop("Bhairab", "08:10", "08:15", 120))));
+        List<UnifiedScheduleDTO> none = Collections.emptyList();
+        long before = RouteGraphCache.contentKey(none, Collections.singletonList(train));
+
+        train.getStops().get(1).setDepartureTime("08:20");
+        assertNotEquals(before, RouteGraphCache.contentKey(none, Collections.singletonList(train)));
+    }
+}
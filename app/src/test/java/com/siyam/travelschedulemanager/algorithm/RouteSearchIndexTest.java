@@ -0,0 +1,81 @@
+package com.siyam.travelschedulemanager.algorithm;
+
+import com.siyam.travelschedulemanager.model.BusRoute;
+import com.siyam.travelschedulemanager.model.TrainRoute;
+import com.siyam.travelschedulemanager.model.UnifiedRoute;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RouteSearchIndexTest {
+
+    private static UnifiedRoute bus(String id, String name, String from, String to) {
+        BusRoute bus = new BusRoute();
+        bus.setId(id);
+        bus.setBusName(name);
+        bus.setStart(from);
+        bus.setDestination(to);
+        return UnifiedRoute.fromBusRoute(bus);
+    }
+
+    private static UnifiedRoute train(String id, String name, String from, String to) {
+        TrainRoute train = new TrainRoute();
+        train.setId(id);
+        train.setTrainName(name);
+        train.setStart(from);
+        train.setDestination(to);
+        return UnifiedRoute.fromTrainRoute(train);
+    }
+
+    private static String names(List<UnifiedRoute> routes) {
+        StringBuilder names = new StringBuilder();
+        for (UnifiedRoute route : routes) {
+            if (names.length() > 0) names.append(", ");
+            names.append(route.getDisplayName());
+        }
+        return names.toString();
+    }
+
+    @Test
+    public void search_matchesEveryWordByPrefix() {
+        RouteSearchIndex index = new RouteSearchIndex();
+        index.upsert(bus("1", "Green Line", "Dhaka", "Sylhet"));
+        index.upsert(bus("2", "Hanif", "Dhaka", "Chittagong"));
+        index.upsert(train("1", "Parabat Express", "Dhaka", "Sylhet"));
+
+        assertEquals("Green Line, Parabat Express", names(index.search("dha syl", "ALL")));
+        assertEquals("Parabat Express", names(index.search("syl", "TRAIN")));
+        assertEquals("Hanif", names(index.search("  CHIT ", "BUS")));
+        assertEquals("", names(index.search("khulna", "ALL")));
+    }
+
+    @Test
+    public void upsert_replacesRouteInItsPlace() {
+        RouteSearchIndex index = new RouteSearchIndex();
+        index.upsert(bus("1", "Green Line", "Dhaka", "Sylhet"));
+        index.upsert(bus("2", "Hanif", "Dhaka", "Sylhet"));
+        index.upsert(bus("1", "Green Line", "Dhaka", "Khulna"));
+
+        assertEquals(2, index.size());
+        assertEquals("Hanif", names(index.search("sylhet", "ALL")));
+        assertEquals("Green Line", names(index.search("khulna", "ALL")));
+        assertEquals("Green Line, Hanif", names(index.search("", "ALL")));
+    }
+
+    @Test
+    public void remove_dropsOnlyThatRoute() {
+        RouteSearchIndex index = new RouteSearchIndex();
+        index.upsert(bus("1", "Green Line", "Dhaka", "Sylhet"));
+        index.upsert(train("1", "Parabat Express", "Dhaka", "Sylhet"));
+
+        assertTrue(index.remove("BUS", "1"));
+        assertFalse(index.remove("BUS", "1"));
+        assertEquals(1, index.size());
+        assertEquals("Parabat Express", names(index.search("sylhet", "ALL")));
+        assertEquals("", names(index.search("green", "ALL")));
+        assertEquals("", names(index.search("", "BUS")));
+    }
+}
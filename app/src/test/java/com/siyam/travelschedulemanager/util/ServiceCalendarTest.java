@@ -0,0 +1,56 @@
+package com.siyam.travelschedulemanager.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import static org.junit.Assert.*;
+
+public class ServiceCalendarTest {
+    @Test
+    public void runningDays_noOffDayRunsEveryDay() {
+        assertEquals(ServiceCalendar.EVERY_DAY, ServiceCalendar.runningDays("None"));
+        assertEquals(ServiceCalendar.EVERY_DAY, ServiceCalendar.runningDays("No off day"));
+        assertEquals(ServiceCalendar.EVERY_DAY, ServiceCalendar.runningDays((String) null));
+        assertEquals(ServiceCalendar.EVERY_DAY, ServiceCalendar.runningDays(""));
+    }
+
+    @Test
+    public void runningDays_leavesOutNamedDays() {
+        int days = ServiceCalendar.runningDays("Friday");
+        assertEquals(0, days & ServiceCalendar.dayBit(Calendar.FRIDAY));
+        assertEquals(ServiceCalendar.EVERY_DAY & ~ServiceCalendar.dayBit(Calendar.FRIDAY), days);
+    }
+
+    @Test
+    public void runningDays_readsAbbreviationsAndLists() {
+        int off = ServiceCalendar.dayBit(Calendar.THURSDAY) | ServiceCalendar.dayBit(Calendar.SATURDAY);
+        assertEquals(ServiceCalendar.EVERY_DAY & ~off, ServiceCalendar.runningDays("Thu, Sat"));
+        assertEquals(ServiceCalendar.EVERY_DAY & ~off,
+                ServiceCalendar.runningDays(Arrays.asList("Thursday", "Saturday")));
+        // Too short to tell Sunday from Saturday
+        assertEquals(ServiceCalendar.EVERY_DAY, ServiceCalendar.runningDays("Sa"));
+    }
+
+    @Test
+    public void dayBit_wrapsAroundTheWeek() {
+        assertEquals(1, ServiceCalendar.dayBit(Calendar.SUNDAY));
+        assertEquals(ServiceCalendar.dayBit(Calendar.SUNDAY), ServiceCalendar.dayBit(Calendar.SATURDAY, 1));
+        assertEquals(ServiceCalendar.dayBit(Calendar.SATURDAY), ServiceCalendar.dayBit(Calendar.SUNDAY, -1));
+        assertEquals(ServiceCalendar.dayBit(Calendar.MONDAY), ServiceCalendar.dayBit(Calendar.MONDAY, 14));
+    }
+
+    @Test
+    public void anyDay_matchesEveryService() {
+        assertEquals(ServiceCalendar.EVERY_DAY, ServiceCalendar.dayBit(ServiceCalendar.ANY_DAY));
+        assertEquals(ServiceCalendar.EVERY_DAY, ServiceCalendar.dayBit(ServiceCalendar.ANY_DAY, 3));
+    }
+
+    @Test
+    public void weekdayOf_usesCalendarWeekdays() {
+        // 2024-03-15 was a Friday
+        assertEquals(Calendar.FRIDAY, ServiceCalendar.weekdayOf(new GregorianCalendar(2024, Calendar.MARCH, 15).getTime()));
+    }
+}
@@ -0,0 +1,76 @@
+package com.siyam.travelschedulemanager.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class SuggestionTrieTest {
+    private static SuggestionTrie trie() {
+        Map<String, Integer> weights = new HashMap<>();
+        weights.put("Dhaka", 50);
+        weights.put("Dhaka Cantonment", 10);
+        weights.put("Chattogram", 30);
+        weights.put("Sylhet", 20);
+        weights.put("Rajshahi", 15);
+        weights.put("Rangpur", 5);
+        Map<String, String> aliases = new HashMap<>();
+        aliases.put("Chittagong", "Chattogram");
+        aliases.put("Barisal", "Barishal");
+        return new SuggestionTrie(weights, aliases);
+    }
+
+    @Test
+    public void suggest_ranksPrefixMatchesByWeight() {
+        assertEquals(Arrays.asList("Dhaka", "Dhaka Cantonment"), trie().suggest("dhak", 5));
+        assertEquals(Arrays.asList("Rajshahi", "Rangpur"), trie().suggest("Ra", 5));
+        assertEquals(Collections.singletonList("Rajshahi"), trie().suggest("Ra", 1));
+    }
+
+    @Test
+    public void suggest_matchesEveryWordOfATerm() {
+        assertEquals(Collections.singletonList("Dhaka Cantonment"), trie().suggest("cant", 5));
+    }
+
+    @Test
+    public void suggest_followsAliases() {
+        assertEquals(Collections.singletonList("Chattogram"), trie().suggest("chittag", 5));
+        // Alias of a term that is not indexed
+        assertTrue(trie().suggest("baris", 5).isEmpty());
+    }
+
+    @Test
+    public void suggest_toleratesTypos() {
+        // One edit allowed for three to five characters
+        assertEquals(Collections.singletonList("Sylhet"), trie().suggest("sylht", 5));
+        assertEquals(Collections.singletonList("Sylhet"), trie().suggest("silh", 5));
+        // Two edits from six characters on
+        assertEquals(Collections.singletonList("Chattogram"), trie().suggest("chatogrm", 5));
+    }
+
+    @Test
+    public void suggest_listsExactMatchesBeforeTypos() {
+        Map<String, Integer> weights = new HashMap<>();
+        weights.put("Bogura", 50);
+        weights.put("Borguna", 10);
+        // "borg" starts Borguna and is one edit from "bog", so the heavier Bogura comes second
+        assertEquals(Arrays.asList("Borguna", "Bogura"), new SuggestionTrie(weights).suggest("borg", 5));
+        assertEquals(Collections.singletonList("Borguna"), new SuggestionTrie(weights).suggest("borg", 1));
+    }
+
+    @Test
+    public void suggest_shortQueriesMatchExactly() {
+        assertTrue(trie().suggest("sx", 5).isEmpty());
+        assertTrue(trie().suggest("  ", 5).isEmpty());
+    }
+
+    @Test
+    public void normalize_collapsesPunctuation() {
+        assertEquals("cox s bazar", SuggestionTrie.normalize("  Cox's Bazar!"));
+        assertEquals("", SuggestionTrie.normalize(null));
+    }
+}
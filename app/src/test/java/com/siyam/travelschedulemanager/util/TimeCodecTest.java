@@ -0,0 +1,54 @@
+package com.siyam.travelschedulemanager.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TimeCodecTest {
+    @Test
+    public void parseTime_readsHoursAndMinutes() {
+        assertEquals(510, TimeCodec.parseTime("08:30"));
+        assertEquals(485, TimeCodec.parseTime("8:05"));
+        assertEquals(0, TimeCodec.parseTime("00:00"));
+        assertEquals(1439, TimeCodec.parseTime(" 23:59 "));
+    }
+
+    @Test
+    public void parseTime_rejectsMalformedText() {
+        assertEquals(TimeCodec.INVALID, TimeCodec.parseTime(null));
+        assertEquals(TimeCodec.INVALID, TimeCodec.parseTime(""));
+        assertEquals(TimeCodec.INVALID, TimeCodec.parseTime("24:00"));
+        assertEquals(TimeCodec.INVALID, TimeCodec.parseTime("12:60"));
+        assertEquals(TimeCodec.INVALID, TimeCodec.parseTime("12:5"));
+        assertEquals(TimeCodec.INVALID, TimeCodec.parseTime("noon"));
+    }
+
+    @Test
+    public void parseDuration_allowsMoreThanOneDay() {
+        assertEquals(270, TimeCodec.parseDuration("4:30h"));
+        assertEquals(270, TimeCodec.parseDuration(" 4:30 H "));
+        assertEquals(1570, TimeCodec.parseDuration("26:10h"));
+        assertEquals(TimeCodec.INVALID, TimeCodec.parseDuration("4h"));
+    }
+
+    @Test
+    public void formatTime_wrapsIntoOneDay() {
+        assertEquals("08:30", TimeCodec.formatTime(510));
+        assertEquals("01:05", TimeCodec.formatTime(TimeCodec.MINUTES_PER_DAY + 65));
+        assertEquals("23:30", TimeCodec.formatTime(-30));
+    }
+
+    @Test
+    public void formatDuration_isReadBackByParseDuration() {
+        assertEquals("4:05h", TimeCodec.formatDuration(245));
+        assertEquals("0:45h", TimeCodec.formatDuration(45));
+        assertEquals(1570, TimeCodec.parseDuration(TimeCodec.formatDuration(1570)));
+    }
+
+    @Test
+    public void minutesBetween_wrapsPastMidnight() {
+        assertEquals(60, TimeCodec.minutesBetween(60, 120));
+        assertEquals(0, TimeCodec.minutesBetween(600, 600));
+        assertEquals(180, TimeCodec.minutesBetween(22 * 60, 60));
+    }
+}